@@ -0,0 +1,181 @@
+package com.spectate.client;
+
+import com.spectate.network.packet.SpectateParamsPayload;
+import com.spectate.network.packet.SpectateStatePayload;
+import com.spectate.network.packet.TargetUpdatePayload;
+import com.spectate.service.ViewMode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * 无头回放：把 {@link CameraTraceRecorder} 记录的数据包按原来的时间顺序送进 {@link SmoothCameraController}，
+ * 输出每个客户端 tick 的镜头轨迹，用于对比平滑算法修改前后的结果和耗时。
+ * <p>
+ * 控制器使用虚拟时钟，时间取自记录中的客户端时间；两条记录之间按固定的 tick 间隔调用
+ * {@link SmoothCameraController#update(double)}，与 {@link ClientSpectateManager#onClientTick()} 一样把步长限制在 0.1 秒。
+ * 同一份记录和同样的参数总是得到相同的轨迹。
+ * 运行：./gradlew :1.21.5:cameraReplay -PreplayArgs="run/config/spectate/camera-trace.bin --out track.csv"
+ */
+public final class CameraTraceReplay implements CameraTraceRecorder.Visitor {
+
+    private final SmoothCameraController controller = new SmoothCameraController(() -> this.now);
+    private final long tickMillis;
+    private final BufferedWriter out;
+
+    private long now;
+    private boolean spectating;
+    private long lastFrameTime;
+    private long nextTick;
+    private CameraPosition previous;
+
+    private int sessions;
+    private long ticks;
+    private long updateNanos;
+    private double maxPositionStep;
+    private double maxYawStep;
+
+    private CameraTraceReplay(long tickMillis, BufferedWriter out) {
+        this.tickMillis = tickMillis;
+        this.out = out;
+    }
+
+    @Override
+    public void onState(long clientTime, SpectateStatePayload.Action action, ViewMode viewMode,
+                        boolean isPoint, boolean hasPointPos, int pointX, int pointY, int pointZ) {
+        advanceTo(clientTime);
+        switch (action) {
+            case START:
+                // 与 ClientSpectateManager.startSpectating 保持一致
+                spectating = true;
+                sessions++;
+                previous = null;
+                controller.reset();
+                controller.setViewMode(viewMode);
+                if (isPoint && hasPointPos) {
+                    controller.updateTarget(pointX + 0.5, pointY + 0.5, pointZ + 0.5);
+                }
+                lastFrameTime = now;
+                nextTick = now + tickMillis;
+                break;
+            case UPDATE:
+                controller.setViewMode(viewMode);
+                break;
+            case STOP:
+                spectating = false;
+                controller.reset();
+                break;
+        }
+    }
+
+    @Override
+    public void onParams(long clientTime, SpectateParamsPayload payload) {
+        advanceTo(clientTime);
+        controller.setParams(payload.distance(), payload.heightOffset(), payload.rotationSpeed(),
+                payload.floatingStrength(), payload.floatingSpeed(), payload.dampingFactor(),
+                payload.attractionFactor(), payload.initialAngle(), payload.startTimestamp());
+    }
+
+    @Override
+    public void onTarget(long clientTime, TargetUpdatePayload payload) {
+        advanceTo(clientTime);
+        controller.updateTarget(payload.x(), payload.y(), payload.z(),
+                payload.velX(), payload.velY(), payload.velZ(), payload.serverTime());
+    }
+
+    /**
+     * 执行记录时间之前的所有客户端 tick，然后把虚拟时钟拨到记录时间。
+     */
+    private void advanceTo(long clientTime) {
+        while (spectating && nextTick <= clientTime) {
+            now = nextTick;
+            nextTick += tickMillis;
+            tick();
+        }
+        now = clientTime;
+    }
+
+    private void tick() {
+        double deltaTime = Math.min((now - lastFrameTime) / 1000.0, 0.1);
+        lastFrameTime = now;
+
+        long start = System.nanoTime();
+        controller.update(deltaTime);
+        updateNanos += System.nanoTime() - start;
+        ticks++;
+
+        CameraPosition pos = controller.getCurrentPosition();
+        if (pos == null) {
+            return;
+        }
+        if (previous != null) {
+            double dx = pos.x - previous.x;
+            double dy = pos.y - previous.y;
+            double dz = pos.z - previous.z;
+            maxPositionStep = Math.max(maxPositionStep, Math.sqrt(dx * dx + dy * dy + dz * dz));
+            double yawStep = Math.abs(((pos.yaw - previous.yaw) % 360.0 + 540.0) % 360.0 - 180.0);
+            maxYawStep = Math.max(maxYawStep, yawStep);
+        }
+        previous = pos;
+
+        if (out != null) {
+            try {
+                out.write(String.format(Locale.ROOT, "%d,%.6f,%.6f,%.6f,%.4f,%.4f",
+                        now, pos.x, pos.y, pos.z, pos.yaw, pos.pitch));
+                out.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path trace = null;
+        Path output = null;
+        long tickMillis = 50;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out": output = Paths.get(args[++i]); break;
+                case "--tick-ms": tickMillis = Math.max(1, Long.parseLong(args[++i])); break;
+                default:
+                    if (trace != null) {
+                        throw new IllegalArgumentException("未知参数: " + args[i]);
+                    }
+                    trace = Paths.get(args[i]);
+            }
+        }
+        if (trace == null) {
+            throw new IllegalArgumentException("用法: <记录文件> [--out track.csv] [--tick-ms 50]");
+        }
+
+        BufferedWriter writer = output != null ? Files.newBufferedWriter(output, StandardCharsets.UTF_8) : null;
+        try {
+            if (writer != null) {
+                writer.write("client_time_ms,x,y,z,yaw,pitch");
+                writer.newLine();
+            }
+            CameraTraceReplay replay = new CameraTraceReplay(tickMillis, writer);
+            int records = CameraTraceRecorder.read(trace, replay);
+
+            System.out.println("[Spectate] 镜头回放: " + trace + ", " + records + " 条记录, "
+                    + replay.sessions + " 次旁观, " + replay.ticks + " 个 tick (" + tickMillis + "ms)");
+            System.out.println(String.format(Locale.ROOT, "  每次更新平均 %.0f ns",
+                    replay.ticks > 0 ? (double) replay.updateNanos / replay.ticks : 0.0));
+            System.out.println(String.format(Locale.ROOT, "  单 tick 最大位移 %.4f 格, 最大偏航变化 %.3f 度",
+                    replay.maxPositionStep, replay.maxYawStep));
+            if (output != null) {
+                System.out.println("  轨迹已写入 " + output.toAbsolutePath());
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
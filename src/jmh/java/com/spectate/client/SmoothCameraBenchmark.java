@@ -0,0 +1,64 @@
+package com.spectate.client;
+
+import com.spectate.service.ViewMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端每帧的平滑摄像机计算和帧间插值。只用到 Vec3d 等纯数据类型，不需要启动客户端。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SmoothCameraBenchmark {
+
+    // 按 144 帧计算
+    private static final double FRAME_SECONDS = 1.0 / 144.0;
+
+    @Param({"ORBIT", "FOLLOW", "CINEMATIC_FLOATING", "CINEMATIC_SPIRAL_UP"})
+    public ViewMode viewMode;
+
+    private SmoothCameraController controller;
+    private CameraPosition from;
+    private CameraPosition to;
+    private float t;
+
+    @Setup
+    public void setup() {
+        controller = new SmoothCameraController();
+        controller.setParams(8.0, 2.0, 5.0, 0.5, 0.3, 0.95, 0.3, 0.0, System.currentTimeMillis());
+        controller.setViewMode(viewMode);
+        controller.updateTarget(100.0, 64.0, -40.0, 4.0, 0.0, 1.5, System.currentTimeMillis());
+        from = new CameraPosition(0.0, 64.0, 0.0, 170.0f, 10.0f);
+        to = new CameraPosition(1.0, 65.0, -1.0, -170.0f, 12.0f);
+    }
+
+    @Benchmark
+    public CameraPosition controllerUpdate() {
+        controller.update(FRAME_SECONDS);
+        return controller.getCurrentPosition();
+    }
+
+    @Benchmark
+    public CameraPosition lerp() {
+        t += 0.01f;
+        if (t > 1.0f) {
+            t = 0.0f;
+        }
+        return CameraPosition.lerp(from, to, t);
+    }
+}
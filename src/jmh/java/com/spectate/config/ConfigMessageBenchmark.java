@@ -0,0 +1,65 @@
+package com.spectate.config;
+
+import net.minecraft.text.Text;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 消息格式化。配置管理器使用临时目录中的默认配置，不经过 Fabric 加载器。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConfigMessageBenchmark {
+
+    private Path configDir;
+    private ConfigManager configManager;
+    private Map<String, String> placeholders;
+
+    @Setup
+    public void setup() throws IOException {
+        configDir = Files.createTempDirectory("spectate-bench");
+        configManager = new ConfigManager(configDir.resolve("config.json"));
+        placeholders = new HashMap<>();
+        placeholders.put("name", "spawn");
+        placeholders.put("mode", "orbit");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(configDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Text formattedMessage() {
+        return configManager.getFormattedMessage("cycle_resumed", placeholders);
+    }
+
+    @Benchmark
+    public Text plainMessage() {
+        return configManager.getMessage("cycle_resumed");
+    }
+}
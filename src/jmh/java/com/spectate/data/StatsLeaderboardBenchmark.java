@@ -0,0 +1,81 @@
+package com.spectate.data;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计排行榜。统计数据由临时文件载入，不经过 Fabric 加载器。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StatsLeaderboardBenchmark {
+
+    @Param({"100", "10000"})
+    public int players;
+
+    private Path statsFile;
+    private SpectateStatsManager statsManager;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        Map<String, Object> stats = new HashMap<>();
+        for (int i = 0; i < players; i++) {
+            SpectateStats entry = new SpectateStats();
+            entry.totalSpectatingTime = random.nextInt(1_000_000_000);
+            entry.totalSpectatedTime = random.nextInt(1_000_000_000);
+            stats.put(new UUID(random.nextLong(), random.nextLong()).toString(), entry);
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("stats", stats);
+
+        statsFile = Files.createTempFile("spectate-bench", ".json");
+        try (Writer writer = Files.newBufferedWriter(statsFile, StandardCharsets.UTF_8)) {
+            new Gson().toJson(data, writer);
+        }
+        statsManager = new SpectateStatsManager(statsFile);
+        statsManager.initialize();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(statsFile);
+    }
+
+    @Benchmark
+    public List<Map.Entry<UUID, Long>> topViewing() {
+        return statsManager.getTopViewing(10);
+    }
+
+    @Benchmark
+    public List<Map.Entry<UUID, Long>> topWatched() {
+        return statsManager.getTopWatched(10);
+    }
+}
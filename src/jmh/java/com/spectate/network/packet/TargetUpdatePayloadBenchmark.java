@@ -0,0 +1,44 @@
+package com.spectate.network.packet;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目标位置更新包的编码与解码往返，使用堆内缓冲区，不需要网络连接。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TargetUpdatePayloadBenchmark {
+
+    private PacketByteBuf buf;
+    private TargetUpdatePayload payload;
+
+    @Setup
+    public void setup() {
+        buf = new PacketByteBuf(Unpooled.buffer(64));
+        payload = new TargetUpdatePayload(100.5, 64.0, -40.25, 0.2, 0.0, -0.1, 123456789L);
+    }
+
+    @Benchmark
+    public TargetUpdatePayload roundTrip() {
+        buf.clear();
+        TargetUpdatePayload.CODEC.encode(buf, payload);
+        return TargetUpdatePayload.CODEC.decode(buf);
+    }
+}
@@ -0,0 +1,61 @@
+package com.spectate.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端每 50ms 一次的机位计算：浮游摄像机的物理更新，以及环绕类视角的路径查表。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CameraPoseBenchmark {
+
+    private static final double DELTA_SECONDS = 0.05;
+
+    @Param({"ORBIT", "CINEMATIC_SLOW_ORBIT", "CINEMATIC_AERIAL_VIEW"})
+    public ViewMode pathMode;
+
+    private FloatingCamera floatingCamera;
+    private PointPathCache.PathTable pathTable;
+    private final double[] pose = new double[5];
+    private double elapsed;
+    private double targetX;
+
+    @Setup
+    public void setup() {
+        floatingCamera = new FloatingCamera();
+        pathTable = PointPathCache.getInstance().getTable(pathMode, 20.0, 5.0, 1.0);
+        elapsed = 0.0;
+        targetX = 0.0;
+    }
+
+    @Benchmark
+    public double[] floatingCameraUpdate() {
+        // 目标匀速移动，覆盖预测分支
+        targetX += 0.2;
+        floatingCamera.updatePosition(targetX, 64.0, 0.0, DELTA_SECONDS, pose);
+        return pose;
+    }
+
+    @Benchmark
+    public double[] pathTableEvaluate() {
+        elapsed += DELTA_SECONDS;
+        pathTable.evaluate(elapsed, pose);
+        return pose;
+    }
+}
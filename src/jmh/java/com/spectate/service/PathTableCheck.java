@@ -0,0 +1,149 @@
+package com.spectate.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 路径表与原先逐帧计算公式的一致性检查。
+ * <p>
+ * 环绕、慢速环绕和高空俯瞰的机位现在只来自 {@link PointPathCache} 的采样表，这里对每种缓存的视角，
+ * 在开始时刻、半圈和任意时刻各取一次机位，与查表之前 SpectateSessionManager 里的公式逐项比较。
+ * 任一项超出误差即以非零状态退出。
+ * 运行：./gradlew :1.21.5:pathTableCheck （check 任务会自动运行）
+ */
+public final class PathTableCheck {
+
+    // 中心取非整数坐标，覆盖与绝对坐标相加后的精度
+    private static final double CENTER_X = 1234.5;
+    private static final double CENTER_Y = 64.5;
+    private static final double CENTER_Z = -987.5;
+    // 采样间距对应的插值弦误差远小于此值
+    private static final double POSITION_TOLERANCE = 1.0E-3;
+    private static final double ANGLE_TOLERANCE = 0.05;
+
+    private final List<String> failures = new ArrayList<>();
+    private int checks;
+
+    private PathTableCheck() {
+    }
+
+    /**
+     * 原先观察点环绕视角的计算：按观察点配置的旋转速度匀速一圈。
+     */
+    private static void orbit(double distance, double heightOffset, double rotationSpeed, double elapsedSeconds,
+                              double[] out) {
+        double angleRad = 0;
+        if (rotationSpeed > 0) {
+            double periodSec = 360.0 / rotationSpeed;
+            angleRad = (elapsedSeconds % periodSec) / periodSec * 2 * Math.PI;
+        }
+        out[0] = CENTER_X + Math.sin(angleRad) * distance;
+        out[1] = CENTER_Y + heightOffset;
+        out[2] = CENTER_Z + Math.cos(angleRad) * distance;
+        lookAtCenter(out);
+    }
+
+    /**
+     * 原先的慢速环绕：距离至少 8 格，高度加 2 格，0.5 度/秒。
+     */
+    private static void slowOrbit(double distance, double heightOffset, double elapsedSeconds, double[] out) {
+        double d = Math.max(distance, 8.0);
+        double angleRad = (elapsedSeconds * 0.5) * Math.PI / 180.0;
+        out[0] = CENTER_X + Math.sin(angleRad) * d;
+        out[1] = CENTER_Y + heightOffset + 2.0;
+        out[2] = CENTER_Z + Math.cos(angleRad) * d;
+        lookAtCenter(out);
+    }
+
+    /**
+     * 原先的高空俯瞰：中心正上方 25 格。
+     */
+    private static void aerial(double[] out) {
+        out[0] = CENTER_X;
+        out[1] = CENTER_Y + 25.0;
+        out[2] = CENTER_Z;
+        lookAtCenter(out);
+    }
+
+    private static void lookAtCenter(double[] out) {
+        double dx = CENTER_X - out[0];
+        double dy = CENTER_Y - out[1];
+        double dz = CENTER_Z - out[2];
+        out[3] = (float) (Math.atan2(dz, dx) * 180.0 / Math.PI) - 90f;
+        out[4] = (float) (-Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz))));
+    }
+
+    private void check(ViewMode mode, double distance, double heightOffset, double rotationSpeed) {
+        PointPathCache.PathTable table = PointPathCache.getInstance().getTable(mode, distance, heightOffset, rotationSpeed);
+        if (table == null) {
+            failures.add(mode + ": 没有路径表");
+            return;
+        }
+        double period = table.getPeriodSeconds();
+        double[] times = period > 0
+                ? new double[]{0.0, period / 2, period * 0.3 + 0.01, period * 3 + 17.25}
+                : new double[]{0.0, 60.0, 1234.56};
+        double[] expected = new double[5];
+        double[] actual = new double[5];
+        for (double t : times) {
+            switch (mode) {
+                case ORBIT:
+                    orbit(distance, heightOffset, rotationSpeed, t, expected);
+                    break;
+                case CINEMATIC_SLOW_ORBIT:
+                    slowOrbit(distance, heightOffset, t, expected);
+                    break;
+                case CINEMATIC_AERIAL_VIEW:
+                    aerial(expected);
+                    break;
+                default:
+                    throw new IllegalArgumentException("不是缓存的视角: " + mode);
+            }
+            CameraPoses.point(mode, table, null, CENTER_X, CENTER_Y, CENTER_Z, distance, heightOffset,
+                    t, 0.05, actual);
+
+            checks++;
+            String label = String.format(Locale.ROOT, "%s d=%.1f h=%.1f speed=%.2f t=%.2f",
+                    mode.getName(), distance, heightOffset, rotationSpeed, t);
+            for (int k = 0; k < 3; k++) {
+                if (Math.abs(actual[k] - expected[k]) > POSITION_TOLERANCE) {
+                    failures.add(String.format(Locale.ROOT, "%s: 坐标[%d] 查表=%.5f 公式=%.5f",
+                            label, k, actual[k], expected[k]));
+                }
+            }
+            for (int k = 3; k < 5; k++) {
+                if (Math.abs(angleDifference(actual[k], expected[k])) > ANGLE_TOLERANCE) {
+                    failures.add(String.format(Locale.ROOT, "%s: %s 查表=%.3f 公式=%.3f",
+                            label, k == 3 ? "yaw" : "pitch", actual[k], expected[k]));
+                }
+            }
+        }
+    }
+
+    private static double angleDifference(double a, double b) {
+        double diff = (a - b) % 360.0;
+        if (diff > 180.0) diff -= 360.0;
+        if (diff < -180.0) diff += 360.0;
+        return diff;
+    }
+
+    public static void main(String[] args) {
+        PathTableCheck check = new PathTableCheck();
+        check.check(ViewMode.ORBIT, 20.0, 5.0, 1.0);
+        check.check(ViewMode.ORBIT, 3.0, -2.0, 7.5);
+        check.check(ViewMode.ORBIT, 10.0, 0.0, 0.0);
+        check.check(ViewMode.CINEMATIC_SLOW_ORBIT, 4.0, 1.0, 1.0);
+        check.check(ViewMode.CINEMATIC_SLOW_ORBIT, 20.0, 5.0, 1.0);
+        check.check(ViewMode.CINEMATIC_AERIAL_VIEW, 20.0, 5.0, 1.0);
+
+        if (!check.failures.isEmpty()) {
+            for (String failure : check.failures) {
+                System.err.println("  " + failure);
+            }
+            throw new IllegalStateException("[Spectate] 路径表与原公式不一致: "
+                    + check.failures.size() + " 项 / " + check.checks + " 个机位");
+        }
+        System.out.println("[Spectate] 路径表检查通过: " + check.checks + " 个机位");
+    }
+}
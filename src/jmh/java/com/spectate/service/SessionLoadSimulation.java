@@ -0,0 +1,496 @@
+package com.spectate.service;
+
+import com.spectate.config.SpectateConfig;
+import com.spectate.metrics.SpectateMetrics;
+import com.spectate.network.ServerNetworkHandler;
+import com.spectate.network.packet.SpectateParamsPayload;
+import com.spectate.network.packet.SpectateStatePayload;
+import com.spectate.network.packet.TargetUpdatePayload;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * 无头负载模拟：用虚拟时钟驱动大量旁观会话，不需要启动服务器或连接机器人。
+ * <p>
+ * 目标玩家沿确定的伪随机轨迹移动。每个虚拟旁观者按 {@link SpectateSessionManager} 的调度方式工作：
+ * 机位由 {@link CameraPoses} 计算（与服务器同一份代码），目标更新包、状态包和参数包经
+ * {@link ServerNetworkHandler} 的发包路径交给实际编码的 sink，ActionBar 经 {@link ActionBarRenderer} 渲染，
+ * 所有工作都通过 {@link TickBudgetManager} 申请预算。循环旁观通过 {@link CycleTimerWheel} 按 tick 切换目标，
+ * 切换时与服务器一样重新开始会话。传送包不经过模组的发包路径，按原版包的编码长度计数。
+ * <p>
+ * 结束时输出每 tick CPU 耗时、各类包的速率与字节数、分配速率和超出预算的 tick 百分位。
+ * 运行：./gradlew :1.21.5:spectateSim -PsimArgs="--viewers 500 --seconds 120"
+ */
+public final class SessionLoadSimulation {
+
+    private static final int TICKS_PER_SECOND = 20;
+    private static final long TICK_MILLIS = 1000L / TICKS_PER_SECOND;
+    private static final int POINT_TARGET_UPDATE_TICKS =
+            (int) (SpectateSessionManager.SMOOTH_POINT_TARGET_UPDATE_INTERVAL_MS / TICK_MILLIS);
+    private static final int PLAYER_TARGET_UPDATE_TICKS =
+            (int) (SpectateSessionManager.SMOOTH_PLAYER_TARGET_UPDATE_INTERVAL_MS / TICK_MILLIS);
+    // 原版传送包（PlayerPositionLookS2CPacket）的编码长度：包 ID、传送 ID、坐标、速度、朝向和相对标志位
+    private static final int TELEPORT_PACKET_BYTES = 1 + 2 + 3 * 8 + 3 * 8 + 2 * 4 + 4;
+    // 观察点的旋转速度，与默认观察点一致
+    private static final double POINT_ROTATION_SPEED = 1.0;
+    private static final String POINT_DIMENSION = "minecraft:overworld";
+
+    private static final ViewMode[] MODES = ViewMode.values();
+
+    private final Options options;
+    private final Random random;
+    private final Target[] targets;
+    private final List<Viewer> viewers = new ArrayList<>();
+    private final CycleTimerWheel wheel = new CycleTimerWheel();
+    private final SpectateConfig.Settings settings = new SpectateConfig.Settings();
+    private final TickBudgetManager budget = new TickBudgetManager(() -> settings);
+    private final EncodingSink packets = new EncodingSink();
+    private final ActionBarRenderer<Viewer> actionBar;
+    private long tick;
+    private long cycleSwitches;
+    private long teleports;
+
+    private SessionLoadSimulation(Options options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        settings.tick_budget_us = options.budgetMicros;
+        this.actionBar = new ActionBarRenderer<>(new ViewerSink(), () -> tick * TICK_MILLIS,
+                () -> settings.action_bar_min_interval_ms);
+        this.targets = new Target[options.targets + options.points];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = new Target(random, i, i >= options.targets);
+        }
+        for (int i = 0; i < options.viewers; i++) {
+            viewers.add(createViewer());
+        }
+    }
+
+    /**
+     * 一个观察目标：前 targets 个是移动的玩家，其余是固定的观察点。
+     */
+    private static final class Target {
+        final boolean point;
+        final UUID uuid;
+        final String name;
+        final BlockPos blockPos;
+        // 观察点配置的距离和高度偏移
+        final double pointDistance, pointHeightOffset;
+        final double originX, originY, originZ;
+        final double radius, angularSpeed, phase;
+        double x, y, z;
+        // 每 tick 的位移
+        double velX, velY, velZ;
+        float yaw;
+        float health = 20f;
+
+        Target(Random random, int index, boolean point) {
+            this.point = point;
+            this.uuid = new UUID(random.nextLong(), random.nextLong());
+            this.name = point ? "观察点 " + index : "Player" + index;
+            this.pointDistance = 8.0 + random.nextInt(20);
+            this.pointHeightOffset = 2.0 + random.nextInt(8);
+            this.blockPos = new BlockPos(random.nextInt(4000) - 2000, 60 + random.nextInt(40), random.nextInt(4000) - 2000);
+            // 观察点以方块中心为准，与服务器一致
+            this.originX = blockPos.getX() + 0.5;
+            this.originY = blockPos.getY() + 0.5;
+            this.originZ = blockPos.getZ() + 0.5;
+            this.radius = point ? 0.0 : 5.0 + random.nextDouble() * 60.0;
+            this.angularSpeed = 0.05 + random.nextDouble() * 0.3;
+            this.phase = random.nextDouble() * Math.PI * 2;
+            move(0.0);
+            velX = velY = velZ = 0.0;
+        }
+
+        void move(double seconds) {
+            double a = phase + seconds * angularSpeed;
+            double nx = originX + Math.cos(a) * radius;
+            double ny = originY + Math.sin(a * 3.0) * (point ? 0.0 : 2.0);
+            double nz = originZ + Math.sin(a * 2.0) * radius;
+            velX = nx - x;
+            velY = ny - y;
+            velZ = nz - z;
+            x = nx;
+            y = ny;
+            z = nz;
+            if (!point) {
+                // 玩家面向移动方向，血量缓慢起伏
+                if (velX != 0.0 || velZ != 0.0) {
+                    yaw = (float) Math.toDegrees(Math.atan2(-velX, velZ));
+                }
+                health = (float) (11.0 + 9.0 * Math.sin(a * 0.5));
+            }
+        }
+    }
+
+    /**
+     * 一个虚拟旁观者及其会话状态，对应服务器上的一个 SpectateSession。
+     */
+    private final class Viewer {
+        final UUID id = new UUID(random.nextLong(), random.nextLong());
+        final int slot = id.hashCode();
+        final ViewMode mode;
+        final boolean smoothClient;
+        final double[] pose = new double[5];
+        final Runnable poseTask = this::updatePose;
+        final Runnable actionBarTask = this::renderActionBar;
+        final Runnable targetUpdateTask = this::sendTargetUpdate;
+        long startTick;
+        double elapsedSeconds;
+        FloatingCamera floatingCamera;
+        PointPathCache.PathTable pathTable;
+        CycleList cycle;
+        CycleTimerWheel.Timeout nextSwitch;
+        int cycleIndex;
+        Target target;
+
+        Viewer(ViewMode mode, boolean smoothClient) {
+            this.mode = mode;
+            this.smoothClient = smoothClient;
+        }
+
+        /**
+         * 开始观察新目标，与服务器一样重新创建会话状态。
+         */
+        void start(Target target) {
+            this.target = target;
+            this.startTick = tick;
+            this.pathTable = target.point
+                    ? PointPathCache.getInstance().getTable(mode, target.pointDistance, target.pointHeightOffset,
+                    POINT_ROTATION_SPEED)
+                    : null;
+            if (mode == ViewMode.CINEMATIC_FLOATING) {
+                floatingCamera = new FloatingCamera();
+                floatingCamera.setFloatingStrength(0.5);
+                floatingCamera.setFloatingSpeed(0.3);
+                floatingCamera.setOrbitRadius(8.0);
+            }
+            actionBar.reset(id);
+            if (smoothClient) {
+                ServerNetworkHandler.sendStatePacket(packets, this, SpectateStatePayload.start(
+                        target.point, target.point ? null : target.uuid, target.point ? target.blockPos : null,
+                        POINT_DIMENSION, mode));
+                // 玩家会话下发服务端全局配置
+                ServerNetworkHandler.sendParamsPacket(packets, this, SpectateParamsPayload.forPoint(
+                        target.point ? target.pointDistance : settings.spectate_distance,
+                        target.point ? target.pointHeightOffset : settings.spectate_height_offset,
+                        target.point ? POINT_ROTATION_SPEED : settings.spectate_rotation_speed,
+                        settings.floating_strength, settings.floating_speed, settings.floating_damping_factor,
+                        settings.floating_attraction_factor, 0.0, startTick * TICK_MILLIS));
+            }
+        }
+
+        void switchTarget() {
+            String[] entries = cycle.snapshot();
+            cycleIndex = (cycleIndex + 1) % entries.length;
+            cycleSwitches++;
+            start(targets[Integer.parseInt(entries[cycleIndex])]);
+            nextSwitch = wheel.schedule((long) options.cycleIntervalSeconds * TICKS_PER_SECOND, this::switchTarget);
+        }
+
+        /**
+         * 一次 50ms 调度，与 SpectateSessionManager 中的定时任务对应。
+         */
+        void update() {
+            long sessionTicks = tick - startTick;
+            elapsedSeconds = (double) sessionTicks / TICKS_PER_SECOND;
+            if (target.point) {
+                // 观察点只有原版客户端需要服务端传送
+                if (!smoothClient && (POINT_ROTATION_SPEED > 0 || mode != ViewMode.ORBIT)) {
+                    runBudgeted(TickBudgetManager.Work.POINT_SESSION, this, poseTask);
+                }
+            } else {
+                // 玩家会话始终传送，保证区块加载和实体跟踪跟随目标
+                runBudgeted(TickBudgetManager.Work.PLAYER_TELEPORT, this, poseTask);
+            }
+            runBudgeted(TickBudgetManager.Work.ACTION_BAR, this, actionBarTask);
+            if (smoothClient) {
+                int every = target.point ? POINT_TARGET_UPDATE_TICKS : PLAYER_TARGET_UPDATE_TICKS;
+                if (sessionTicks % every == 0) {
+                    runBudgeted(TickBudgetManager.Work.TARGET_PACKET, this, targetUpdateTask);
+                }
+            }
+        }
+
+        private void updatePose() {
+            double deltaTime = 1.0 / TICKS_PER_SECOND;
+            if (target.point) {
+                CameraPoses.point(mode, pathTable, floatingCamera, target.x, target.y, target.z,
+                        target.pointDistance, target.pointHeightOffset, elapsedSeconds, deltaTime, pose);
+            } else {
+                // 服务端全局配置的默认值
+                CameraPoses.player(mode, floatingCamera, target.x, target.y, target.z, target.yaw,
+                        settings.spectate_distance, settings.spectate_height_offset, settings.spectate_rotation_speed,
+                        elapsedSeconds, deltaTime, pose);
+            }
+            teleports++;
+        }
+
+        private void renderActionBar() {
+            int countdown = ActionBarRenderer.NO_COUNTDOWN;
+            if (nextSwitch != null) {
+                long remainingTicks = nextSwitch.getDeadlineTick() - wheel.getCurrentTick();
+                countdown = (int) Math.max(0, remainingTicks / TICKS_PER_SECOND);
+            }
+            if (target.point) {
+                actionBar.renderPoint(this, target.name, countdown);
+            } else {
+                actionBar.renderTarget(this, target, (int) tick, target.name, target.health, 20f,
+                        target.x, target.y, target.z, countdown);
+            }
+        }
+
+        private void sendTargetUpdate() {
+            TargetUpdatePayload payload = target.point
+                    ? TargetUpdatePayload.ofStatic(target.x, target.y, target.z)
+                    : TargetUpdatePayload.of(target.x, target.y, target.z, target.velX * TICKS_PER_SECOND,
+                    target.velY * TICKS_PER_SECOND, target.velZ * TICKS_PER_SECOND);
+            ServerNetworkHandler.sendTargetUpdatePacket(packets, this, payload);
+        }
+    }
+
+    /**
+     * 与 SpectateSessionManager.runBudgeted 相同：预算不足时跳过本次工作。
+     */
+    private void runBudgeted(TickBudgetManager.Work work, Viewer viewer, Runnable task) {
+        if (!budget.tryAcquire(work, viewer.slot)) {
+            return;
+        }
+        long start = System.nanoTime();
+        task.run();
+        budget.charge(System.nanoTime() - start);
+    }
+
+    /**
+     * 把模组的数据包实际编码一遍，记录编码后的字节数。
+     */
+    private static final class EncodingSink implements ServerNetworkHandler.PacketSink<Viewer> {
+        private final PacketByteBuf buf = new PacketByteBuf(Unpooled.buffer(128));
+        long bytes;
+
+        @Override
+        public void send(Viewer viewer, SpectateStatePayload payload) {
+            buf.clear();
+            SpectateStatePayload.CODEC.encode(buf, payload);
+            bytes += buf.readableBytes();
+        }
+
+        @Override
+        public void send(Viewer viewer, SpectateParamsPayload payload) {
+            buf.clear();
+            SpectateParamsPayload.CODEC.encode(buf, payload);
+            bytes += buf.readableBytes();
+        }
+
+        @Override
+        public void send(Viewer viewer, TargetUpdatePayload payload) {
+            buf.clear();
+            TargetUpdatePayload.CODEC.encode(buf, payload);
+            bytes += buf.readableBytes();
+        }
+    }
+
+    /**
+     * 虚拟旁观者的 ActionBar 接收方，只由渲染器的指标计数。
+     */
+    private static final class ViewerSink implements ActionBarRenderer.Sink<Viewer> {
+        @Override
+        public UUID id(Viewer viewer) {
+            return viewer.id;
+        }
+
+        @Override
+        public Text message(String text) {
+            return null;
+        }
+
+        @Override
+        public void send(Viewer viewer, Text message) {
+        }
+    }
+
+    private Viewer createViewer() {
+        ViewMode mode = MODES[random.nextInt(MODES.length)];
+        Viewer viewer = new Viewer(mode, random.nextDouble() < options.smoothRatio);
+        if (random.nextDouble() < options.cycleRatio && targets.length > 1) {
+            viewer.cycle = new CycleList();
+            int count = 2 + random.nextInt(Math.min(8, targets.length - 1));
+            while (viewer.cycle.size() < count) {
+                viewer.cycle.add(Integer.toString(random.nextInt(targets.length)));
+            }
+            String[] entries = viewer.cycle.snapshot();
+            viewer.start(targets[Integer.parseInt(entries[0])]);
+            // 错开各个循环的切换时刻
+            long delay = 1 + random.nextInt(options.cycleIntervalSeconds * TICKS_PER_SECOND);
+            viewer.nextSwitch = wheel.schedule(delay, viewer::switchTarget);
+        } else {
+            viewer.start(targets[random.nextInt(targets.length)]);
+        }
+        return viewer;
+    }
+
+    private void runTick() {
+        // 服务器主线程刚结束一个 tick，按设定的 MSPT 推进预算窗口
+        budget.recordTick(options.serverMspt);
+        double seconds = (double) tick / TICKS_PER_SECOND;
+        for (Target target : targets) {
+            target.move(seconds);
+        }
+        wheel.advance();
+        for (int i = 0; i < viewers.size(); i++) {
+            viewers.get(i).update();
+        }
+        tick++;
+    }
+
+    private void run() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean cpuTime = threads.isCurrentThreadCpuTimeSupported();
+        com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) threads : null;
+        long threadId = Thread.currentThread().getId();
+
+        int warmupTicks = options.warmupSeconds * TICKS_PER_SECOND;
+        for (int i = 0; i < warmupTicks; i++) {
+            runTick();
+        }
+
+        int measuredTicks = options.seconds * TICKS_PER_SECOND;
+        long[] tickNanos = new long[measuredTicks];
+        SpectateMetrics.reset();
+        long teleportsBefore = teleports;
+        long bytesBefore = packets.bytes;
+        long switchesBefore = cycleSwitches;
+        long allocatedBefore = allocations != null ? allocations.getThreadAllocatedBytes(threadId) : -1;
+
+        for (int i = 0; i < measuredTicks; i++) {
+            long start = cpuTime ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+            runTick();
+            long end = cpuTime ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+            tickNanos[i] = end - start;
+        }
+
+        long allocated = allocations != null ? allocations.getThreadAllocatedBytes(threadId) - allocatedBefore : -1;
+        report(tickNanos, cpuTime, teleports - teleportsBefore, packets.bytes - bytesBefore,
+                cycleSwitches - switchesBefore, allocated);
+    }
+
+    private void report(long[] tickNanos, boolean cpuTime, long teleportCount, long payloadBytes, long switches,
+                        long allocated) {
+        double seconds = options.seconds;
+        long budgetNanos = (long) (options.budgetMillis * 1_000_000L);
+        long[] overruns = new long[tickNanos.length];
+        int overrunTicks = 0;
+        for (int i = 0; i < tickNanos.length; i++) {
+            overruns[i] = Math.max(0L, tickNanos[i] - budgetNanos);
+            if (overruns[i] > 0) {
+                overrunTicks++;
+            }
+        }
+        Arrays.sort(tickNanos);
+        Arrays.sort(overruns);
+
+        long targetUpdates = SpectateMetrics.get(SpectateMetrics.Counter.TARGET_UPDATE_PACKETS);
+        long statePackets = SpectateMetrics.get(SpectateMetrics.Counter.STATE_PACKETS)
+                + SpectateMetrics.get(SpectateMetrics.Counter.PARAMS_PACKETS);
+        long actionBars = SpectateMetrics.get(SpectateMetrics.Counter.ACTION_BARS_SENT);
+        long actionBarsSkipped = SpectateMetrics.get(SpectateMetrics.Counter.ACTION_BARS_SKIPPED);
+        long shed = SpectateMetrics.get(SpectateMetrics.Counter.BUDGET_SHED);
+        long teleportBytes = teleportCount * TELEPORT_PACKET_BYTES;
+
+        System.out.println("[Spectate] 负载模拟: " + options.viewers + " 名旁观者, " + options.targets + " 个移动目标, "
+                + options.points + " 个观察点, 测量 " + options.seconds + " 秒 (预热 " + options.warmupSeconds + " 秒)");
+        System.out.println("  每 tick " + (cpuTime ? "CPU" : "墙钟") + " 耗时 (ms): " + percentiles(tickNanos));
+        System.out.println(String.format(Locale.ROOT, "  超出 %.2fms 预算: %.2f%% 的 tick, 超出量 (ms): %s",
+                options.budgetMillis, 100.0 * overrunTicks / tickNanos.length, percentiles(overruns)));
+        System.out.println(String.format(Locale.ROOT,
+                "  发包: 传送 %.0f 包/秒, 目标更新 %.0f 包/秒, 状态与参数 %.1f 包/秒, ActionBar %.0f 条/秒 (跳过 %.0f 次/秒)",
+                teleportCount / seconds, targetUpdates / seconds, statePackets / seconds,
+                actionBars / seconds, actionBarsSkipped / seconds));
+        System.out.println(String.format(Locale.ROOT, "  流量: %.1f KiB/秒 (传送 %.1f, 模组数据包 %.1f, 不含 ActionBar)",
+                (teleportBytes + payloadBytes) / seconds / 1024.0, teleportBytes / seconds / 1024.0,
+                payloadBytes / seconds / 1024.0));
+        System.out.println(String.format(Locale.ROOT, "  卡顿预算: 主线程 %.1f MSPT, %s, 舍弃 %.1f 次/秒",
+                options.serverMspt, budget.isDegraded() ? "已降级" : "未降级", shed / seconds));
+        System.out.println(String.format(Locale.ROOT, "  循环切换: %.2f 次/秒", switches / seconds));
+        if (allocated >= 0) {
+            System.out.println(String.format(Locale.ROOT, "  分配: %.1f KiB/秒, %.0f 字节/tick",
+                    allocated / seconds / 1024.0, (double) allocated / tickNanos.length));
+        } else {
+            System.out.println("  分配: 当前 JVM 不支持按线程统计分配量");
+        }
+    }
+
+    private static String percentiles(long[] sortedNanos) {
+        return String.format(Locale.ROOT, "p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f",
+                percentile(sortedNanos, 0.50), percentile(sortedNanos, 0.90), percentile(sortedNanos, 0.99),
+                percentile(sortedNanos, 0.999), sortedNanos[sortedNanos.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(sortedNanos.length - 1, index))] / 1_000_000.0;
+    }
+
+    /**
+     * 命令行参数。
+     */
+    private static final class Options {
+        int viewers = 500;
+        int targets = 50;
+        int points = 20;
+        int seconds = 60;
+        int warmupSeconds = 10;
+        int cycleIntervalSeconds = 10;
+        double smoothRatio = 0.5;
+        double cycleRatio = 0.3;
+        double budgetMillis = 5.0;
+        // 模拟的服务器主线程 MSPT，超过 tick_budget_mspt_threshold 时卡顿预算生效
+        double serverMspt = 20.0;
+        int budgetMicros = new SpectateConfig.Settings().tick_budget_us;
+        long seed = 1L;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--viewers": options.viewers = Integer.parseInt(value); break;
+                    case "--targets": options.targets = Integer.parseInt(value); break;
+                    case "--points": options.points = Integer.parseInt(value); break;
+                    case "--seconds": options.seconds = Integer.parseInt(value); break;
+                    case "--warmup": options.warmupSeconds = Integer.parseInt(value); break;
+                    case "--cycle-interval": options.cycleIntervalSeconds = Integer.parseInt(value); break;
+                    case "--smooth-ratio": options.smoothRatio = Double.parseDouble(value); break;
+                    case "--cycle-ratio": options.cycleRatio = Double.parseDouble(value); break;
+                    case "--budget-ms": options.budgetMillis = Double.parseDouble(value); break;
+                    case "--server-mspt": options.serverMspt = Double.parseDouble(value); break;
+                    case "--tick-budget-us": options.budgetMicros = Integer.parseInt(value); break;
+                    case "--seed": options.seed = Long.parseLong(value); break;
+                    default: throw new IllegalArgumentException("未知参数: " + args[i]);
+                }
+            }
+            options.seconds = Math.max(1, options.seconds);
+            options.warmupSeconds = Math.max(0, options.warmupSeconds);
+            options.cycleIntervalSeconds = Math.max(1, options.cycleIntervalSeconds);
+            if (options.targets + options.points <= 0) {
+                throw new IllegalArgumentException("至少需要一个目标或观察点");
+            }
+            return options;
+        }
+    }
+
+    public static void main(String[] args) {
+        new SessionLoadSimulation(Options.parse(args)).run();
+    }
+}
@@ -1,14 +1,21 @@
 package com.spectate;
 
 import com.spectate.config.ConfigManager;
+import com.spectate.data.SpectateStateSaver;
 import com.spectate.network.ServerNetworkHandler;
 import com.spectate.network.SpectateNetworking;
+import com.spectate.service.CycleService;
 import com.spectate.service.ServerSpectateManager;
+import com.spectate.service.TickBudgetManager;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.server.MinecraftServer;
 import com.spectate.command.SpectateCommand;
+import com.spectate.metrics.PrometheusExporter;
+import com.spectate.metrics.SpectateJfr;
+import com.spectate.metrics.SpectateMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,9 +53,25 @@ public class SpectateMod implements ModInitializer {
             // 初始化各个管理器
             ConfigManager.getInstance(); // 加载配置
             com.spectate.data.SpectateStateSaver.getInstance().initialize(); // 加载数据
+            com.spectate.service.SpectatePointManager.getInstance().rebuildIndexInBackground(); // 观察点索引在后台重建
             com.spectate.data.SpectateStatsManager.getInstance().initialize(); // 加载统计
+            SpectateMetrics.configureCsvDump(ConfigManager.getInstance().getConfig().settings.metrics_csv_interval_seconds);
+            PrometheusExporter.getInstance().configure(ConfigManager.getInstance().getConfig().settings);
+            SpectateJfr.configure(ConfigManager.getInstance().getConfig().settings.jfr_events_enabled);
         });
-        ServerLifecycleEvents.SERVER_STOPPED.register(srv -> server = null);
+        ServerLifecycleEvents.SERVER_STOPPED.register(srv -> {
+            server = null;
+            CycleService.getInstance().onServerStopped();
+            SpectateStateSaver.getInstance().flush();
+            SpectateMetrics.stopCsvDump();
+            PrometheusExporter.getInstance().stop();
+        });
+
+        // 循环切换由服务器 tick 驱动
+        ServerTickEvents.END_SERVER_TICK.register(srv -> CycleService.getInstance().onServerTick(srv));
+        // 测量主线程 MSPT，卡顿时限制旁观工作量
+        ServerTickEvents.START_SERVER_TICK.register(srv -> TickBudgetManager.getInstance().onTickStart());
+        ServerTickEvents.END_SERVER_TICK.register(srv -> TickBudgetManager.getInstance().onTickEnd());
 
         // 注册命令
         SpectateCommand.register();
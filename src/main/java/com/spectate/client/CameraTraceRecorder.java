@@ -0,0 +1,266 @@
+package com.spectate.client;
+
+import com.spectate.SpectateMod;
+import com.spectate.config.ConfigManager;
+import com.spectate.config.SpectateConfig;
+import com.spectate.network.packet.SpectateParamsPayload;
+import com.spectate.network.packet.SpectateStatePayload;
+import com.spectate.network.packet.TargetUpdatePayload;
+import com.spectate.service.ViewMode;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 平滑旁观收到的服务端数据包记录器，用于离线复现镜头抖动。
+ * <p>
+ * 开启 {@code camera_recorder_enabled} 后，客户端处理的每个状态包、参数包和目标更新包
+ * 连同处理时的客户端时间写入 config/spectate/camera-trace.bin。
+ * 文件是固定大小的环形缓冲区：文件头之后是 {@code camera_recorder_capacity} 个 96 字节的槽位，
+ * 写满后覆盖最旧的记录。文件通过内存映射写入，每条记录只是几次内存写，不会阻塞客户端线程。
+ * <p>
+ * {@link #read(Path, Visitor)} 按写入顺序读出所有记录，不依赖游戏运行环境，
+ * 供无头回放工具把记录重新送进 {@link SmoothCameraController}。
+ */
+public final class CameraTraceRecorder {
+
+    private static final int MAGIC = 0x53504354; // "SPCT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = 96;
+    // 槽位布局：序号(8) 客户端时间(8) 类型(1) 动作(1) 视角模式(1) 标志(1) 保留(4) 数据字段 9 x 8
+    private static final int FIELDS_OFFSET = 24;
+
+    // 容量范围：上限对应约 96 MiB 的文件，映射区间和槽位偏移都在 int 范围内
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    private static final byte TYPE_STATE = 1;
+    private static final byte TYPE_PARAMS = 2;
+    private static final byte TYPE_TARGET = 3;
+
+    /**
+     * 读取记录时的回调。时间均为记录时的客户端时间（毫秒）。
+     */
+    public interface Visitor {
+        void onState(long clientTime, SpectateStatePayload.Action action, ViewMode viewMode,
+                     boolean isPoint, boolean hasPointPos, int pointX, int pointY, int pointZ);
+
+        void onParams(long clientTime, SpectateParamsPayload payload);
+
+        void onTarget(long clientTime, TargetUpdatePayload payload);
+    }
+
+    private boolean enabled;
+    private int capacity;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long nextSeq;
+
+    /**
+     * 从配置读取开关和容量。容量变化时下次写入会重建文件。
+     */
+    public void reloadFromConfig() {
+        SpectateConfig.Settings settings = ConfigManager.getInstance().getConfig().settings;
+        int newCapacity = Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, settings.camera_recorder_capacity));
+        if (!settings.camera_recorder_enabled || newCapacity != capacity) {
+            close();
+        }
+        enabled = settings.camera_recorder_enabled;
+        capacity = newCapacity;
+    }
+
+    public void recordState(SpectateStatePayload payload) {
+        int base = nextSlot(TYPE_STATE);
+        if (base < 0) {
+            return;
+        }
+        BlockPos pos = payload.pointPos();
+        buffer.put(base + 17, (byte) payload.action().ordinal());
+        buffer.put(base + 18, (byte) payload.viewMode().ordinal());
+        buffer.put(base + 19, (byte) ((payload.isPoint() ? 1 : 0) | (pos != null ? 2 : 0)));
+        if (pos != null) {
+            buffer.putLong(base + FIELDS_OFFSET, pos.getX());
+            buffer.putLong(base + FIELDS_OFFSET + 8, pos.getY());
+            buffer.putLong(base + FIELDS_OFFSET + 16, pos.getZ());
+        }
+        if (payload.action() == SpectateStatePayload.Action.STOP) {
+            buffer.force();
+        }
+    }
+
+    public void recordParams(SpectateParamsPayload payload) {
+        int base = nextSlot(TYPE_PARAMS);
+        if (base < 0) {
+            return;
+        }
+        int offset = base + FIELDS_OFFSET;
+        buffer.putDouble(offset, payload.distance());
+        buffer.putDouble(offset + 8, payload.heightOffset());
+        buffer.putDouble(offset + 16, payload.rotationSpeed());
+        buffer.putDouble(offset + 24, payload.floatingStrength());
+        buffer.putDouble(offset + 32, payload.floatingSpeed());
+        buffer.putDouble(offset + 40, payload.dampingFactor());
+        buffer.putDouble(offset + 48, payload.attractionFactor());
+        buffer.putDouble(offset + 56, payload.initialAngle());
+        buffer.putLong(offset + 64, payload.startTimestamp());
+    }
+
+    public void recordTarget(TargetUpdatePayload payload) {
+        int base = nextSlot(TYPE_TARGET);
+        if (base < 0) {
+            return;
+        }
+        int offset = base + FIELDS_OFFSET;
+        buffer.putDouble(offset, payload.x());
+        buffer.putDouble(offset + 8, payload.y());
+        buffer.putDouble(offset + 16, payload.z());
+        buffer.putDouble(offset + 24, payload.velX());
+        buffer.putDouble(offset + 32, payload.velY());
+        buffer.putDouble(offset + 40, payload.velZ());
+        buffer.putLong(offset + 48, payload.serverTime());
+    }
+
+    /**
+     * 把已写入的记录刷到磁盘。离开服务器时调用。
+     */
+    public void flush() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * 分配下一个槽位并写入公共字段。
+     *
+     * @return 槽位在文件中的偏移；未开启或打开文件失败时返回 -1
+     */
+    private int nextSlot(byte type) {
+        if (!enabled) {
+            return -1;
+        }
+        if (buffer == null && !open()) {
+            enabled = false;
+            return -1;
+        }
+        long seq = nextSeq++;
+        int base = HEADER_SIZE + (int) ((seq - 1) % capacity) * SLOT_SIZE;
+        // 先清掉旧记录，再写新的序号，读取时序号为 0 的槽位视为空
+        for (int i = 0; i < SLOT_SIZE; i += 8) {
+            buffer.putLong(base + i, 0L);
+        }
+        buffer.putLong(base, seq);
+        buffer.putLong(base + 8, System.currentTimeMillis());
+        buffer.put(base + 16, type);
+        buffer.putLong(16, nextSeq);
+        return base;
+    }
+
+    private boolean open() {
+        Path file = FabricLoader.getInstance().getConfigDir().resolve("spectate").resolve("camera-trace.bin");
+        long size = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        try {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean reuse = channel.size() == size;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (reuse && buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION
+                    && buffer.getInt(8) == SLOT_SIZE && buffer.getInt(12) == capacity) {
+                // 同样容量的旧文件继续在环上追加，之前的会话仍可回放
+                nextSeq = Math.max(1L, buffer.getLong(16));
+            } else {
+                for (int i = 0; i < size; i += 8) {
+                    buffer.putLong(i, 0L);
+                }
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, SLOT_SIZE);
+                buffer.putInt(12, capacity);
+                nextSeq = 1L;
+                buffer.putLong(16, nextSeq);
+            }
+            SpectateMod.LOGGER.info("[Spectate] Recording camera traffic to {} ({} records)", file, capacity);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // 映射失败（地址空间或磁盘不足）时抛出的是运行时异常，同样只关闭记录，不影响旁观
+            SpectateMod.LOGGER.error("[Spectate] Failed to open camera trace file " + file, e);
+            close();
+            return false;
+        }
+    }
+
+    private void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * 按写入顺序读取记录文件。
+     *
+     * @return 读取的记录数
+     */
+    public static int read(Path file, Visitor visitor) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (data.remaining() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a camera trace file: " + file);
+        }
+        if (data.getInt(4) != VERSION || data.getInt(8) != SLOT_SIZE) {
+            throw new IOException("Unsupported camera trace version " + data.getInt(4) + " in " + file);
+        }
+        int slots = data.getInt(12);
+        long next = data.getLong(16);
+        // 环上的记录序号是 [next - slots, next) 中仍然存在的部分，从最旧的开始读
+        long first = Math.max(1L, next - slots);
+        ViewMode[] viewModes = ViewMode.values();
+        SpectateStatePayload.Action[] actions = SpectateStatePayload.Action.values();
+        int count = 0;
+        for (long seq = first; seq < next; seq++) {
+            int base = HEADER_SIZE + (int) ((seq - 1) % slots) * SLOT_SIZE;
+            if (data.getLong(base) != seq) {
+                continue;
+            }
+            long time = data.getLong(base + 8);
+            int f = base + FIELDS_OFFSET;
+            switch (data.get(base + 16)) {
+                case TYPE_STATE:
+                    int flags = data.get(base + 19);
+                    visitor.onState(time, actions[data.get(base + 17)], viewModes[data.get(base + 18)],
+                            (flags & 1) != 0, (flags & 2) != 0,
+                            (int) data.getLong(f), (int) data.getLong(f + 8), (int) data.getLong(f + 16));
+                    break;
+                case TYPE_PARAMS:
+                    visitor.onParams(time, new SpectateParamsPayload(
+                            data.getDouble(f), data.getDouble(f + 8), data.getDouble(f + 16),
+                            data.getDouble(f + 24), data.getDouble(f + 32), data.getDouble(f + 40),
+                            data.getDouble(f + 48), data.getDouble(f + 56), data.getLong(f + 64)));
+                    break;
+                case TYPE_TARGET:
+                    visitor.onTarget(time, new TargetUpdatePayload(
+                            data.getDouble(f), data.getDouble(f + 8), data.getDouble(f + 16),
+                            data.getDouble(f + 24), data.getDouble(f + 32), data.getDouble(f + 40),
+                            data.getLong(f + 48)));
+                    break;
+                default:
+                    continue;
+            }
+            count++;
+        }
+        return count;
+    }
+}
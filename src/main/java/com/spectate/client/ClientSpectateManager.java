@@ -39,6 +39,8 @@ public class ClientSpectateManager {
     private final SmoothCameraController cameraController;
     // 客户端移轴参数控制
     private final TiltShiftSettings tiltShiftSettings;
+    // 收到的数据包记录，用于离线回放
+    private final CameraTraceRecorder traceRecorder;
 
     // 上一帧时间（用于计算deltaTime）
     private long lastFrameTime = System.currentTimeMillis();
@@ -46,6 +48,8 @@ public class ClientSpectateManager {
     private ClientSpectateManager() {
         this.cameraController = new SmoothCameraController();
         this.tiltShiftSettings = new TiltShiftSettings();
+        this.traceRecorder = new CameraTraceRecorder();
+        this.traceRecorder.reloadFromConfig();
     }
 
     /**
@@ -68,6 +72,13 @@ public class ClientSpectateManager {
         return cameraController.getInterpolated(tickDelta);
     }
 
+    /**
+     * 摄像机到旁观目标的距离，供移轴景深模式对焦使用。
+     */
+    public double getFocusDistance(double cameraX, double cameraY, double cameraZ) {
+        return cameraController.getFocusDistance(cameraX, cameraY, cameraZ);
+    }
+
     /**
      * 每帧更新（在客户端主循环中调用）
      */
@@ -90,6 +101,7 @@ public class ClientSpectateManager {
      * 处理服务端发来的旁观状态包
      */
     public void handleStatePayload(SpectateStatePayload payload) {
+        traceRecorder.recordState(payload);
         switch (payload.action()) {
             case START:
                 startSpectating(payload);
@@ -107,6 +119,7 @@ public class ClientSpectateManager {
      * 处理服务端发来的参数包
      */
     public void handleParamsPayload(SpectateParamsPayload payload) {
+        traceRecorder.recordParams(payload);
         cameraController.setParams(
                 payload.distance(),
                 payload.heightOffset(),
@@ -124,6 +137,7 @@ public class ClientSpectateManager {
      * 处理服务端发来的目标位置更新包
      */
     public void handleTargetUpdate(TargetUpdatePayload payload) {
+        traceRecorder.recordTarget(payload);
         cameraController.updateTarget(
                 payload.x(),
                 payload.y(),
@@ -192,6 +206,7 @@ public class ClientSpectateManager {
      */
     public void onLeaveServer() {
         stopSpectating();
+        traceRecorder.flush();
     }
 
     /**
@@ -199,6 +214,7 @@ public class ClientSpectateManager {
      */
     public void reloadClientConfig() {
         tiltShiftSettings.reloadFromConfig();
+        traceRecorder.reloadFromConfig();
         // 将最新玩家配置重新上报给服务端，支持在线热更新玩家级参数。
         sendCapabilityPacket();
     }
@@ -1,12 +1,16 @@
 package com.spectate.client;
 
 import com.spectate.service.FloatingCamera;
+import com.spectate.service.PointPathCache;
 import com.spectate.service.ViewMode;
 import net.minecraft.util.math.Vec3d;
 
+import java.util.function.LongSupplier;
+
 /**
  * Client-side smooth camera controller.
  * Computes camera position each frame from server target updates.
+ * All timing goes through the supplied clock, so a recorded session can be replayed deterministically.
  */
 public class SmoothCameraController {
     private static final double TARGET_POSITION_SMOOTH_TIME_SEC = 0.10;
@@ -39,18 +43,35 @@ public class SmoothCameraController {
     private boolean targetStateInitialized;
     private long lastTargetUpdateTime;
 
+    // Target position used by the latest update, for depth-of-field focusing
+    private double focusTargetX, focusTargetY, focusTargetZ;
+
     // Frame interpolation cache
     private CameraPosition lastPosition;
     private CameraPosition currentPosition;
     private long lastUpdateTime;
 
     private final FloatingCamera floatingCamera;
+    private final LongSupplier clock;
+
+    // Precomputed path for periodic modes, resolved lazily after params or mode change
+    private PointPathCache.PathTable pathTable;
+    private boolean pathTableResolved;
+    private final double[] pose = new double[5];
 
     public SmoothCameraController() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock millisecond clock, {@code System::currentTimeMillis} in game
+     */
+    public SmoothCameraController(LongSupplier clock) {
+        this.clock = clock;
         this.floatingCamera = new FloatingCamera();
-        this.startTimestamp = System.currentTimeMillis();
-        this.lastUpdateTime = System.currentTimeMillis();
-        this.lastTargetUpdateTime = System.currentTimeMillis();
+        this.startTimestamp = clock.getAsLong();
+        this.lastUpdateTime = clock.getAsLong();
+        this.lastTargetUpdateTime = clock.getAsLong();
     }
 
     public void setParams(double distance, double heightOffset, double rotationSpeed,
@@ -72,10 +93,12 @@ public class SmoothCameraController {
         floatingCamera.setDampingFactor(dampingFactor);
         floatingCamera.setAttractionFactor(attractionFactor);
         floatingCamera.setOrbitRadius(distance);
+        pathTableResolved = false;
     }
 
     public void setViewMode(ViewMode viewMode) {
         this.viewMode = viewMode;
+        this.pathTableResolved = false;
         if (viewMode == ViewMode.CINEMATIC_FLOATING) {
             floatingCamera.reset();
         }
@@ -90,7 +113,7 @@ public class SmoothCameraController {
         this.targetVelZ = velZ;
 
         // Use client receive time as the baseline for prediction.
-        this.lastTargetUpdateTime = System.currentTimeMillis();
+        this.lastTargetUpdateTime = clock.getAsLong();
 
         if (!targetStateInitialized) {
             this.smoothTargetX = x;
@@ -104,7 +127,7 @@ public class SmoothCameraController {
     }
 
     public void updateTarget(double x, double y, double z) {
-        updateTarget(x, y, z, 0, 0, 0, System.currentTimeMillis());
+        updateTarget(x, y, z, 0, 0, 0, clock.getAsLong());
     }
 
     private void updateTargetSmoothing(double deltaTime) {
@@ -129,7 +152,7 @@ public class SmoothCameraController {
             return new Vec3d(targetX, targetY, targetZ);
         }
 
-        long now = System.currentTimeMillis();
+        long now = clock.getAsLong();
         double deltaSeconds = (now - lastTargetUpdateTime) / 1000.0;
         deltaSeconds = Math.max(0.0, Math.min(deltaSeconds, MAX_PREDICTION_AHEAD_SEC));
 
@@ -144,6 +167,9 @@ public class SmoothCameraController {
         lastPosition = currentPosition;
         updateTargetSmoothing(deltaTime);
         Vec3d target = getPredictedTargetPosition();
+        focusTargetX = target.x;
+        focusTargetY = target.y;
+        focusTargetZ = target.z;
 
         switch (viewMode) {
             case ORBIT:
@@ -165,31 +191,30 @@ public class SmoothCameraController {
                 break;
         }
 
-        lastUpdateTime = System.currentTimeMillis();
+        lastUpdateTime = clock.getAsLong();
     }
 
     private CameraPosition updateOrbit(Vec3d target, double deltaTime) {
-        double elapsedSeconds = (System.currentTimeMillis() - startTimestamp) / 1000.0;
-
-        double angleRad = 0;
-        if (rotationSpeed > 0) {
-            double periodSec = 360.0 / rotationSpeed;
-            angleRad = (elapsedSeconds % periodSec) / periodSec * 2 * Math.PI;
+        PointPathCache.PathTable table = viewMode == ViewMode.ORBIT ? getPathTable() : null;
+        if (table == null) {
+            table = PointPathCache.getInstance().getTable(ViewMode.ORBIT, distance, heightOffset, rotationSpeed);
         }
+        return evaluatePath(target, table);
+    }
 
-        double camXo = Math.sin(angleRad) * distance;
-        double camZo = Math.cos(angleRad) * distance;
-        double camX = target.x + camXo;
-        double camY = target.y + heightOffset;
-        double camZ = target.z + camZo;
-
-        double dx = target.x - camX;
-        double dy = target.y - camY;
-        double dz = target.z - camZ;
-        float yaw = (float) (Math.atan2(dz, dx) * 180.0 / Math.PI) - 90f;
-        float pitch = (float) (-Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz))));
+    private CameraPosition evaluatePath(Vec3d target, PointPathCache.PathTable table) {
+        double elapsedSeconds = (clock.getAsLong() - startTimestamp) / 1000.0;
+        table.evaluate(elapsedSeconds, pose);
+        return new CameraPosition(target.x + pose[0], target.y + pose[1], target.z + pose[2],
+                (float) pose[3], (float) pose[4]);
+    }
 
-        return new CameraPosition(camX, camY, camZ, yaw, pitch);
+    private PointPathCache.PathTable getPathTable() {
+        if (!pathTableResolved) {
+            pathTable = PointPathCache.getInstance().getTable(viewMode, distance, heightOffset, rotationSpeed);
+            pathTableResolved = true;
+        }
+        return pathTable;
     }
 
     private CameraPosition updateFollow(Vec3d target, double deltaTime) {
@@ -216,7 +241,12 @@ public class SmoothCameraController {
     }
 
     private CameraPosition updateCinematicOther(Vec3d target, double deltaTime) {
-        double elapsedSeconds = (System.currentTimeMillis() - startTimestamp) / 1000.0;
+        PointPathCache.PathTable table = getPathTable();
+        if (table != null) {
+            return evaluatePath(target, table);
+        }
+
+        double elapsedSeconds = (clock.getAsLong() - startTimestamp) / 1000.0;
         double camX;
         double camY;
         double camZ;
@@ -264,18 +294,28 @@ public class SmoothCameraController {
         return currentPosition;
     }
 
+    /**
+     * Distance from the given camera position to the tracked target.
+     */
+    public double getFocusDistance(double cameraX, double cameraY, double cameraZ) {
+        double dx = focusTargetX - cameraX;
+        double dy = focusTargetY - cameraY;
+        double dz = focusTargetZ - cameraZ;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
     public void reset() {
         lastPosition = null;
         currentPosition = null;
         floatingCamera.reset();
         currentAngle = 0;
-        startTimestamp = System.currentTimeMillis();
+        startTimestamp = clock.getAsLong();
 
         targetX = targetY = targetZ = 0;
         targetVelX = targetVelY = targetVelZ = 0;
         smoothTargetX = smoothTargetY = smoothTargetZ = 0;
         smoothTargetVelX = smoothTargetVelY = smoothTargetVelZ = 0;
         targetStateInitialized = false;
-        lastTargetUpdateTime = System.currentTimeMillis();
+        lastTargetUpdateTime = clock.getAsLong();
     }
 }
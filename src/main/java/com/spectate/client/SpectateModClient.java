@@ -14,6 +14,7 @@ import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
 import net.minecraft.text.Text;
@@ -31,9 +32,13 @@ public class SpectateModClient implements ClientModInitializer {
 
     private static final String KEY_CATEGORY = "key.categories.spectate";
     private static final String MESSAGE_PREFIX = "[Spectate] ";
+    private static final double BLUR_RADIUS_STEP = 5.0;
+    private static final double FOCUS_Y_STEP = 0.05;
 
     private KeyBinding openConfigKey;
     private KeyBinding toggleTiltShiftKey;
+    private KeyBinding decreaseTiltShiftKey;
+    private KeyBinding increaseTiltShiftKey;
 
     @Override
     public void onInitializeClient() {
@@ -42,6 +47,7 @@ public class SpectateModClient implements ClientModInitializer {
         // Register client packet receivers.
         registerClientPacketReceivers();
         registerClientKeyBindings();
+        TiltShiftRenderer.getInstance().registerReloadListener();
 
         // Register end-client-tick callback.
         ClientTickEvents.END_CLIENT_TICK.register(client -> {
@@ -71,13 +77,19 @@ public class SpectateModClient implements ClientModInitializer {
         this.toggleTiltShiftKey = KeyBindingHelper.registerKeyBinding(
                 new KeyBinding("key.spectate.tiltshift.toggle", InputUtil.Type.KEYSYM, GLFW.GLFW_KEY_UNKNOWN, KEY_CATEGORY)
         );
+        this.decreaseTiltShiftKey = KeyBindingHelper.registerKeyBinding(
+                new KeyBinding("key.spectate.tiltshift.decrease", InputUtil.Type.KEYSYM, GLFW.GLFW_KEY_UNKNOWN, KEY_CATEGORY)
+        );
+        this.increaseTiltShiftKey = KeyBindingHelper.registerKeyBinding(
+                new KeyBinding("key.spectate.tiltshift.increase", InputUtil.Type.KEYSYM, GLFW.GLFW_KEY_UNKNOWN, KEY_CATEGORY)
+        );
     }
 
     private void handleTiltShiftHotkeys(MinecraftClient client) {
         if (client.currentScreen != null) {
             return;
         }
-        if (openConfigKey == null || toggleTiltShiftKey == null) {
+        if (openConfigKey == null || toggleTiltShiftKey == null || decreaseTiltShiftKey == null || increaseTiltShiftKey == null) {
             return;
         }
 
@@ -102,6 +114,31 @@ public class SpectateModClient implements ClientModInitializer {
                 sendClientOverlayMessage(client, tr("warning.spectate.tiltshift.experimental"));
             }
         }
+
+        while (decreaseTiltShiftKey.wasPressed()) {
+            adjustTiltShift(client, manager, -1);
+        }
+        while (increaseTiltShiftKey.wasPressed()) {
+            adjustTiltShift(client, manager, 1);
+        }
+    }
+
+    /**
+     * Live tilt-shift adjustment: blur radius by default, focus Y while Shift is held.
+     */
+    private void adjustTiltShift(MinecraftClient client, ClientSpectateManager manager, int direction) {
+        if (!manager.isSpectating()) {
+            sendClientOverlayMessage(client, tr("message.spectate.tiltshift.only_spectating"));
+            return;
+        }
+        TiltShiftSettings tiltShift = manager.getTiltShiftSettings();
+        if (Screen.hasShiftDown()) {
+            double focusY = tiltShift.adjustFocusY(direction * FOCUS_Y_STEP);
+            sendClientOverlayMessage(client, tr("message.spectate.tiltshift.focus_y", String.format("%.2f", focusY)));
+        } else {
+            double blurRadius = tiltShift.adjustBlurRadius(direction * BLUR_RADIUS_STEP);
+            sendClientOverlayMessage(client, tr("message.spectate.tiltshift.blur_radius", String.format("%.1f", blurRadius)));
+        }
     }
 
     private void openConfigScreen(MinecraftClient client) {
@@ -112,11 +149,11 @@ public class SpectateModClient implements ClientModInitializer {
         //#endif
     }
 
-    private String tr(String key) {
+    private String tr(String key, Object... args) {
         //#if MC >= 11900
-        return Text.translatable(key).getString();
+        return Text.translatable(key, args).getString();
         //#else
-        //$$ return new net.minecraft.text.TranslatableText(key).getString();
+        //$$ return new net.minecraft.text.TranslatableText(key, args).getString();
         //#endif
     }
 
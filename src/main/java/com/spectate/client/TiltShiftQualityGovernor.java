@@ -0,0 +1,103 @@
+package com.spectate.client;
+
+/**
+ * 移轴效果的自适应画质调节器。
+ * 旁观期间以滑动窗口统计帧耗时，超出目标帧预算时降低模糊采样档位，余量充足时再逐级恢复。
+ * <p>
+ * 帧率受限（最大帧率或垂直同步）时帧间隔由限制器决定，与着色器开销无关：
+ * 预算取目标帧率和限制帧率中较低者，帧率稳定在限制值附近即视为有余量。
+ */
+public class TiltShiftQualityGovernor {
+
+    /** 滑动窗口大小（帧） */
+    private static final int WINDOW_SIZE = 90;
+    /** 平均帧耗时超过预算的该倍数时降档 */
+    private static final double DOWNGRADE_RATIO = 1.10;
+    /** 平均帧耗时低于预算的该倍数时升档 */
+    private static final double UPGRADE_RATIO = 0.75;
+    /** 帧率受限时，平均帧耗时不超过限制间隔的该倍数即视为跟上了限制器 */
+    private static final double LIMITER_SLACK = 1.05;
+    /** 单帧超过该耗时视为卡顿或暂停，丢弃当前窗口 */
+    private static final long HITCH_NANOS = 250_000_000L;
+    private static final long DOWNGRADE_COOLDOWN_NANOS = 1_000_000_000L;
+    /** 升档更保守，避免在临界点来回切换 */
+    private static final long UPGRADE_COOLDOWN_NANOS = 5_000_000_000L;
+
+    private final long[] frameNanos = new long[WINDOW_SIZE];
+    private int frameCount;
+    private int frameIndex;
+    private long frameSum;
+    private long lastFrameTime;
+    private long cooldownUntil;
+
+    /**
+     * 每个渲染了移轴效果的帧调用一次。
+     *
+     * @param settings 移轴参数，档位直接写回其中
+     * @param now      当前 {@link System#nanoTime()}
+     * @param limitFps 客户端最大帧率或垂直同步刷新率中较低者，未限制时为 0
+     */
+    public void onFrame(TiltShiftSettings settings, long now, int limitFps) {
+        if (!settings.isAdaptiveQuality()) {
+            reset();
+            return;
+        }
+
+        long previous = lastFrameTime;
+        lastFrameTime = now;
+        if (previous == 0L) {
+            return;
+        }
+        long delta = now - previous;
+        if (delta <= 0L || delta > HITCH_NANOS) {
+            clearWindow();
+            return;
+        }
+
+        if (frameCount == WINDOW_SIZE) {
+            frameSum -= frameNanos[frameIndex];
+        } else {
+            frameCount++;
+        }
+        frameNanos[frameIndex] = delta;
+        frameSum += delta;
+        frameIndex = (frameIndex + 1) % WINDOW_SIZE;
+
+        if (frameCount < WINDOW_SIZE || now < cooldownUntil) {
+            return;
+        }
+
+        double average = (double) frameSum / frameCount;
+        double budget = 1_000_000_000.0 / settings.getTargetFps();
+        // 限制器本身就让帧耗时够不到升档线时，按限制间隔判断：能跟上限制器说明后处理还有余量
+        double limitInterval = limitFps > 0 ? 1_000_000_000.0 / limitFps : 0.0;
+        boolean paced = limitInterval >= budget * UPGRADE_RATIO;
+        budget = Math.max(budget, limitInterval);
+        int level = settings.getQualityLevel();
+        if (average > budget * DOWNGRADE_RATIO && level > 0) {
+            settings.setQualityLevel(level - 1);
+            clearWindow();
+            cooldownUntil = now + DOWNGRADE_COOLDOWN_NANOS;
+        } else if ((average < budget * UPGRADE_RATIO || paced && average < limitInterval * LIMITER_SLACK)
+                && level < TiltShiftSettings.MAX_QUALITY_LEVEL) {
+            settings.setQualityLevel(level + 1);
+            clearWindow();
+            cooldownUntil = now + UPGRADE_COOLDOWN_NANOS;
+        }
+    }
+
+    /**
+     * 停止旁观或关闭效果时调用，下次重新开始计时。
+     */
+    public void reset() {
+        clearWindow();
+        lastFrameTime = 0L;
+        cooldownUntil = 0L;
+    }
+
+    private void clearWindow() {
+        frameCount = 0;
+        frameIndex = 0;
+        frameSum = 0L;
+    }
+}
@@ -0,0 +1,429 @@
+package com.spectate.client;
+
+import com.spectate.SpectateMod;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.util.Identifier;
+//#if MC >= 12107
+//$$ import com.spectate.mixin.client.PostEffectPassAccessor;
+//$$ import com.spectate.mixin.client.PostEffectProcessorAccessor;
+//#elseif MC == 11605
+//$$ import com.spectate.mixin.client.ShaderEffectAccessor;
+//#endif
+
+/**
+ * 移轴后处理渲染器。
+ * 跨帧复用后处理链与中间帧缓冲，只在参数变化时上传 uniform，
+ * 资源重载或窗口尺寸变化时失效重建；整帧效果不可见时直接跳过该 pass。
+ * 景深对焦模式仅在 1.21.4+ 的后处理链上可用（需要深度缓冲输入）。
+ */
+public class TiltShiftRenderer {
+
+    private static final TiltShiftRenderer INSTANCE = new TiltShiftRenderer();
+
+    //#if MC >= 12104
+    private static final Identifier EFFECT_ID = Identifier.of(SpectateMod.MOD_ID, "tiltshift");
+    //#elseif MC >= 12100
+    //$$ private static final Identifier EFFECT_ID = Identifier.of(SpectateMod.MOD_ID, "shaders/post/tiltshift.json");
+    //#else
+    //$$ private static final Identifier EFFECT_ID = new Identifier(SpectateMod.MOD_ID, "shaders/post/tiltshift.json");
+    //#endif
+
+    //#if MC >= 12100
+    private static final Identifier RELOAD_LISTENER_ID = Identifier.of(SpectateMod.MOD_ID, "tiltshift_renderer");
+    //#else
+    //$$ private static final Identifier RELOAD_LISTENER_ID = new Identifier(SpectateMod.MOD_ID, "tiltshift_renderer");
+    //#endif
+
+    //#if MC >= 12107
+    //$$ private static final String UNIFORM_BLOCK_NAME = "TiltShiftConfig";
+    //$$ private static final int UNIFORM_BLOCK_FLOATS = 11;
+    //#endif
+
+    /** 与原版投影矩阵一致的近平面距离 */
+    private static final float NEAR_PLANE = 0.05F;
+    /** 对焦距离变化小于该值（方块）时不重新上传 */
+    private static final float FOCUS_DISTANCE_EPSILON = 0.05F;
+
+    /** 帧率限制滑条的最大值，表示不限制 */
+    private static final int UNLIMITED_FPS = 260;
+
+    /** 加载或渲染失败后的重试间隔，避免每帧刷屏日志 */
+    private static final long RETRY_DELAY_MS = 5000L;
+
+    //#if MC >= 12104
+    private net.minecraft.client.gl.PostEffectProcessor processor;
+    /** 自有帧缓冲池：中间 target 跨帧复用，而不是每帧经 TRIVIAL 分配和释放 */
+    private final net.minecraft.client.util.Pool pool = new net.minecraft.client.util.Pool(3);
+    private boolean poolInUse;
+    /** 景深模式下逐帧跟踪的对焦距离与远平面，变化超过阈值才重新上传 */
+    private float focusDistance = -1.0F;
+    private float farPlane = -1.0F;
+    //#elseif MC >= 12100
+    //$$ private net.minecraft.client.gl.PostEffectProcessor processor;
+    //#else
+    //$$ private net.minecraft.client.gl.ShaderEffect processor;
+    //#endif
+
+    //#if MC == 12105
+    private final float[] focusYValue = new float[1];
+    private final float[] focusWidthValue = new float[1];
+    private final float[] blurRadiusValue = new float[1];
+    private final float[] falloffValue = new float[1];
+    private final float[] saturationBoostValue = new float[1];
+    private final float[] depthFocusValue = new float[1];
+    private final float[] focusDistanceValue = new float[1];
+    private final float[] depthRangeValue = new float[1];
+    private final float[] nearPlaneValue = new float[1];
+    private final float[] farPlaneValue = new float[1];
+    private final float[] qualityValue = new float[1];
+    private final java.util.function.Consumer<com.mojang.blaze3d.systems.RenderPass> uniformSetter = renderPass -> {
+        renderPass.setUniform("FocusY", focusYValue);
+        renderPass.setUniform("FocusWidth", focusWidthValue);
+        renderPass.setUniform("BlurRadius", blurRadiusValue);
+        renderPass.setUniform("Falloff", falloffValue);
+        renderPass.setUniform("SaturationBoost", saturationBoostValue);
+        renderPass.setUniform("DepthFocus", depthFocusValue);
+        renderPass.setUniform("FocusDistance", focusDistanceValue);
+        renderPass.setUniform("DepthRange", depthRangeValue);
+        renderPass.setUniform("NearPlane", nearPlaneValue);
+        renderPass.setUniform("FarPlane", farPlaneValue);
+        renderPass.setUniform("Quality", qualityValue);
+    };
+    //#endif
+
+    private final TiltShiftQualityGovernor qualityGovernor = new TiltShiftQualityGovernor();
+
+    private int uploadedRevision = -1;
+    private int identityRevision = -1;
+    private boolean identity;
+    private int framebufferWidth = -1;
+    private int framebufferHeight = -1;
+    private long retryAfterMillis;
+
+    private TiltShiftRenderer() {
+    }
+
+    public static TiltShiftRenderer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 注册资源重载监听：重载后旧的后处理链与着色器全部失效，需要在下一帧重新获取。
+     */
+    public void registerReloadListener() {
+        ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(new SimpleSynchronousResourceReloadListener() {
+            @Override
+            public Identifier getFabricId() {
+                return RELOAD_LISTENER_ID;
+            }
+
+            @Override
+            public void reload(ResourceManager manager) {
+                invalidate();
+            }
+        });
+    }
+
+    /**
+     * 在世界渲染完成后调用，按当前移轴参数渲染后处理。
+     *
+     * @param client    客户端实例
+     * @param tickDelta 旧版后处理链需要的 tick 插值，1.21.4+ 忽略
+     */
+    public void render(MinecraftClient client, float tickDelta) {
+        ClientSpectateManager manager = ClientSpectateManager.getInstance();
+        TiltShiftSettings settings = manager.getTiltShiftSettings();
+        if (client.world == null || !manager.isSpectating() || !settings.isEnabled()) {
+            releaseIdleResources();
+            qualityGovernor.reset();
+            return;
+        }
+
+        int width = client.getWindow().getFramebufferWidth();
+        int height = client.getWindow().getFramebufferHeight();
+        if (width != framebufferWidth || height != framebufferHeight) {
+            onResize(width, height);
+        }
+
+        int revision = settings.getRevision();
+        if (identityRevision != revision) {
+            identity = settings.isEffectivelyIdentity(width, height);
+            identityRevision = revision;
+        }
+        if (identity) {
+            return;
+        }
+
+        if (retryAfterMillis != 0L) {
+            if (System.currentTimeMillis() < retryAfterMillis) {
+                return;
+            }
+            retryAfterMillis = 0L;
+        }
+
+        qualityGovernor.onFrame(settings, System.nanoTime(), getFrameRateLimit(client));
+        revision = settings.getRevision();
+
+        try {
+            renderEffect(client, settings, revision, tickDelta);
+        } catch (Exception e) {
+            invalidate();
+            retryAfterMillis = System.currentTimeMillis() + RETRY_DELAY_MS;
+            SpectateMod.LOGGER.warn("[Spectate] Failed to apply tilt-shift post effect", e);
+        }
+    }
+
+    /**
+     * 丢弃缓存的后处理链与中间帧缓冲，下一帧重新获取并重新上传 uniform。
+     */
+    public void invalidate() {
+        //#if MC >= 12104
+        processor = null;
+        pool.clear();
+        poolInUse = false;
+        focusDistance = -1.0F;
+        farPlane = -1.0F;
+        //#else
+        //$$ if (processor != null) {
+        //$$     processor.close();
+        //$$     processor = null;
+        //$$ }
+        //#endif
+        uploadedRevision = -1;
+        framebufferWidth = -1;
+        framebufferHeight = -1;
+        retryAfterMillis = 0L;
+    }
+
+    private void onResize(int width, int height) {
+        framebufferWidth = width;
+        framebufferHeight = height;
+        identityRevision = -1;
+        //#if MC >= 12104
+        // 旧尺寸的中间 target 不会再被命中，立即释放而不是等池子自然过期
+        pool.clear();
+        //#else
+        //$$ if (processor != null) {
+        //$$     processor.setupDimensions(width, height);
+        //$$ }
+        //#endif
+    }
+
+    /**
+     * @return 最大帧率与垂直同步刷新率中较低者，都未限制时为 0
+     */
+    private static int getFrameRateLimit(MinecraftClient client) {
+        //#if MC >= 11900
+        int maxFps = client.options.getMaxFps().getValue();
+        boolean vsync = client.options.getEnableVsync().getValue();
+        //#else
+        //$$ int maxFps = client.options.maxFps;
+        //$$ boolean vsync = client.options.enableVsync;
+        //#endif
+        int limit = maxFps < UNLIMITED_FPS ? maxFps : 0;
+        if (vsync) {
+            int refreshRate = client.getWindow().getRefreshRate();
+            if (refreshRate > 0 && (limit == 0 || refreshRate < limit)) {
+                limit = refreshRate;
+            }
+        }
+        return limit;
+    }
+
+    private void releaseIdleResources() {
+        //#if MC >= 12104
+        if (poolInUse) {
+            pool.clear();
+            poolInUse = false;
+        }
+        //#endif
+    }
+
+    //#if MC >= 12104
+    @SuppressWarnings("deprecation")
+    private void renderEffect(MinecraftClient client, TiltShiftSettings settings, int revision, float tickDelta) {
+        if (processor == null) {
+            processor = client.getShaderLoader().loadPostEffect(EFFECT_ID, net.minecraft.client.render.DefaultFramebufferSet.MAIN_ONLY);
+            uploadedRevision = -1;
+            if (processor == null) {
+                retryAfterMillis = System.currentTimeMillis() + RETRY_DELAY_MS;
+                return;
+            }
+        }
+
+        pool.decrementLifespan();
+        poolInUse = true;
+        boolean depthChanged = updateDepthFocus(client, settings);
+
+        //#if MC == 12105
+        // 1.21.5 每帧新建 RenderPass，uniform 必须逐帧设置；这里只在参数变化时刷新缓存数组
+        if (uploadedRevision != revision || depthChanged) {
+            focusYValue[0] = (float) settings.getFocusY();
+            focusWidthValue[0] = (float) settings.getFocusWidth();
+            blurRadiusValue[0] = (float) settings.getBlurRadius();
+            falloffValue[0] = (float) settings.getFalloff();
+            saturationBoostValue[0] = (float) settings.getSaturationBoost();
+            depthFocusValue[0] = settings.isDepthFocus() ? 1.0F : 0.0F;
+            focusDistanceValue[0] = focusDistance;
+            depthRangeValue[0] = (float) settings.getDepthRange();
+            nearPlaneValue[0] = NEAR_PLANE;
+            farPlaneValue[0] = Math.max(farPlane, 1.0F);
+            qualityValue[0] = settings.getQualityLevel();
+            uploadedRevision = revision;
+        }
+        processor.render(client.getFramebuffer(), pool, uniformSetter);
+        //#elseif MC >= 12107
+        //$$ // 1.21.7+ 的 uniform 存放在每个 pass 的 UBO 里，参数变化时原地写入，渲染时无额外开销
+        //$$ if (uploadedRevision != revision || depthChanged) {
+        //$$     uploadUniformBuffer(settings);
+        //$$     uploadedRevision = revision;
+        //$$ }
+        //$$ processor.render(client.getFramebuffer(), pool);
+        //#else
+        //$$ if (uploadedRevision != revision || depthChanged) {
+        //$$     processor.setUniforms("FocusY", (float) settings.getFocusY());
+        //$$     processor.setUniforms("FocusWidth", (float) settings.getFocusWidth());
+        //$$     processor.setUniforms("BlurRadius", (float) settings.getBlurRadius());
+        //$$     processor.setUniforms("Falloff", (float) settings.getFalloff());
+        //$$     processor.setUniforms("SaturationBoost", (float) settings.getSaturationBoost());
+        //$$     processor.setUniforms("DepthFocus", settings.isDepthFocus() ? 1.0F : 0.0F);
+        //$$     processor.setUniforms("FocusDistance", focusDistance);
+        //$$     processor.setUniforms("DepthRange", (float) settings.getDepthRange());
+        //$$     processor.setUniforms("NearPlane", NEAR_PLANE);
+        //$$     processor.setUniforms("FarPlane", Math.max(farPlane, 1.0F));
+        //$$     processor.setUniforms("Quality", (float) settings.getQualityLevel());
+        //$$     uploadedRevision = revision;
+        //$$ }
+        //$$ processor.render(client.getFramebuffer(), pool);
+        //#endif
+    }
+
+    /**
+     * 景深模式下按当前渲染摄像机刷新对焦距离（摄像机到旁观目标）与远平面。
+     *
+     * @return 是否有超过阈值的变化需要重新上传
+     */
+    private boolean updateDepthFocus(MinecraftClient client, TiltShiftSettings settings) {
+        if (!settings.isDepthFocus()) {
+            return false;
+        }
+        net.minecraft.util.math.Vec3d cameraPos = client.gameRenderer.getCamera().getPos();
+        float distance = (float) ClientSpectateManager.getInstance().getFocusDistance(cameraPos.x, cameraPos.y, cameraPos.z);
+        float far = client.gameRenderer.getFarPlaneDistance();
+        if (Math.abs(distance - focusDistance) < FOCUS_DISTANCE_EPSILON && far == farPlane) {
+            return false;
+        }
+        focusDistance = distance;
+        farPlane = far;
+        return true;
+    }
+
+    //#if MC >= 12107
+    //$$ /**
+    //$$  * 按 tiltshift.fsh 中 TiltShiftConfig 的 std140 布局写入每个 pass 的 UBO。
+    //$$  * 原版创建的缓冲不带 COPY_DST 用途，第一次上传时换成可写的缓冲（旧缓冲随即关闭，新缓冲由 pass 在重载时负责释放），
+    //$$  * 之后对焦距离等参数变化只通过命令编码器原地写入，不再分配缓冲。
+    //$$  */
+    //$$ private void uploadUniformBuffer(TiltShiftSettings settings) {
+    //$$     com.mojang.blaze3d.buffers.Std140SizeCalculator sizeCalculator = new com.mojang.blaze3d.buffers.Std140SizeCalculator();
+    //$$     for (int i = 0; i < UNIFORM_BLOCK_FLOATS; i++) {
+    //$$         sizeCalculator.putFloat();
+    //$$     }
+    //$$     int size = sizeCalculator.get();
+    //$$     com.mojang.blaze3d.systems.GpuDevice device = com.mojang.blaze3d.systems.RenderSystem.getDevice();
+    //$$     try (org.lwjgl.system.MemoryStack stack = org.lwjgl.system.MemoryStack.stackPush()) {
+    //$$         java.nio.ByteBuffer data = com.mojang.blaze3d.buffers.Std140Builder.onStack(stack, size)
+    //$$                 .putFloat((float) settings.getFocusY())
+    //$$                 .putFloat((float) settings.getFocusWidth())
+    //$$                 .putFloat((float) settings.getBlurRadius())
+    //$$                 .putFloat((float) settings.getFalloff())
+    //$$                 .putFloat((float) settings.getSaturationBoost())
+    //$$                 .putFloat(settings.isDepthFocus() ? 1.0F : 0.0F)
+    //$$                 .putFloat(focusDistance)
+    //$$                 .putFloat((float) settings.getDepthRange())
+    //$$                 .putFloat(NEAR_PLANE)
+    //$$                 .putFloat(Math.max(farPlane, 1.0F))
+    //$$                 .putFloat((float) settings.getQualityLevel())
+    //$$                 .get();
+    //$$         for (Object pass : ((PostEffectProcessorAccessor) processor).spectate$getPasses()) {
+    //$$             java.util.Map<String, com.mojang.blaze3d.buffers.GpuBuffer> buffers = ((PostEffectPassAccessor) pass).spectate$getUniformBuffers();
+    //$$             com.mojang.blaze3d.buffers.GpuBuffer buffer = buffers.get(UNIFORM_BLOCK_NAME);
+    //$$             if (buffer == null) {
+    //$$                 continue;
+    //$$             }
+    //$$             if ((buffer.usage() & com.mojang.blaze3d.buffers.GpuBuffer.USAGE_COPY_DST) != 0) {
+    //$$                 device.createCommandEncoder().writeToBuffer(buffer.slice(), data);
+    //$$             } else {
+    //$$                 buffers.put(UNIFORM_BLOCK_NAME, device.createBuffer(
+    //$$                         () -> "spectate tiltshift / " + UNIFORM_BLOCK_NAME,
+    //$$                         com.mojang.blaze3d.buffers.GpuBuffer.USAGE_UNIFORM | com.mojang.blaze3d.buffers.GpuBuffer.USAGE_COPY_DST,
+    //$$                         data
+    //$$                 ));
+    //$$                 buffer.close();
+    //$$             }
+    //$$             data.rewind();
+    //$$         }
+    //$$     }
+    //$$ }
+    //#endif
+    //#elseif MC >= 12100
+    //$$ private void renderEffect(MinecraftClient client, TiltShiftSettings settings, int revision, float tickDelta) throws Exception {
+    //$$     if (processor == null) {
+    //$$         processor = new net.minecraft.client.gl.PostEffectProcessor(
+    //$$                 client.getTextureManager(),
+    //$$                 client.getResourceManager(),
+    //$$                 client.getFramebuffer(),
+    //$$                 EFFECT_ID
+    //$$         );
+    //$$         processor.setupDimensions(framebufferWidth, framebufferHeight);
+    //$$         uploadedRevision = -1;
+    //$$     }
+    //$$
+    //$$     if (uploadedRevision != revision) {
+    //$$         processor.setUniforms("FocusY", (float) settings.getFocusY());
+    //$$         processor.setUniforms("FocusWidth", (float) settings.getFocusWidth());
+    //$$         processor.setUniforms("BlurRadius", (float) settings.getBlurRadius());
+    //$$         processor.setUniforms("Falloff", (float) settings.getFalloff());
+    //$$         processor.setUniforms("SaturationBoost", (float) settings.getSaturationBoost());
+    //$$         processor.setUniforms("Quality", (float) settings.getQualityLevel());
+    //$$         uploadedRevision = revision;
+    //$$     }
+    //$$     processor.render(tickDelta);
+    //$$ }
+    //#else
+    //$$ private void renderEffect(MinecraftClient client, TiltShiftSettings settings, int revision, float tickDelta) throws Exception {
+    //$$     if (processor == null) {
+    //$$         processor = new net.minecraft.client.gl.ShaderEffect(
+    //$$                 client.getTextureManager(),
+    //$$                 client.getResourceManager(),
+    //$$                 client.getFramebuffer(),
+    //$$                 EFFECT_ID
+    //$$         );
+    //$$         processor.setupDimensions(framebufferWidth, framebufferHeight);
+    //$$         uploadedRevision = -1;
+    //$$     }
+    //$$
+    //$$     if (uploadedRevision != revision) {
+    //$$         setLegacyUniform("FocusY", (float) settings.getFocusY());
+    //$$         setLegacyUniform("FocusWidth", (float) settings.getFocusWidth());
+    //$$         setLegacyUniform("BlurRadius", (float) settings.getBlurRadius());
+    //$$         setLegacyUniform("Falloff", (float) settings.getFalloff());
+    //$$         setLegacyUniform("SaturationBoost", (float) settings.getSaturationBoost());
+    //$$         setLegacyUniform("Quality", (float) settings.getQualityLevel());
+    //$$         uploadedRevision = revision;
+    //$$     }
+    //$$     processor.render(tickDelta);
+    //$$ }
+    //$$
+    //$$ private void setLegacyUniform(String uniformName, float value) {
+    //$$     for (Object passObj : ((ShaderEffectAccessor) (Object) processor).spectate$getPasses()) {
+    //$$         net.minecraft.client.gl.PostProcessShader pass = (net.minecraft.client.gl.PostProcessShader) passObj;
+    //$$         pass.getProgram().getUniformByNameOrDummy(uniformName).set(value);
+    //$$     }
+    //$$ }
+    //#endif
+}
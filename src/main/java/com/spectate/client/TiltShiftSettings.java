@@ -10,6 +10,9 @@ import com.spectate.config.SpectateConfig;
  */
 public class TiltShiftSettings {
 
+    /** 最高画质档位（7 次采样），0 为最低档（3 次采样） */
+    public static final int MAX_QUALITY_LEVEL = 2;
+
     private static final double MIN_FOCUS_Y = 0.0;
     private static final double MAX_FOCUS_Y = 1.0;
     private static final double MIN_FOCUS_WIDTH = 0.01;
@@ -20,6 +23,10 @@ public class TiltShiftSettings {
     private static final double MAX_FALLOFF = 1.0;
     private static final double MIN_SATURATION_BOOST = 1.0;
     private static final double MAX_SATURATION_BOOST = 2.0;
+    private static final double MIN_DEPTH_RANGE = 1.0;
+    private static final double MAX_DEPTH_RANGE = 64.0;
+    private static final int MIN_TARGET_FPS = 30;
+    private static final int MAX_TARGET_FPS = 240;
 
     private static final double DEFAULT_FOCUS_Y = 0.5;
     private static final double DEFAULT_FOCUS_WIDTH = 0.1;
@@ -27,6 +34,8 @@ public class TiltShiftSettings {
     private static final double DEFAULT_FALLOFF = 0.5;
     private static final double DEFAULT_SATURATION_BOOST = 1.5;
 
+    private static final double QUANTIZATION_STEP = 1.0 / 255.0;
+
     private final ConfigManager configManager;
 
     private boolean enabled;
@@ -35,6 +44,13 @@ public class TiltShiftSettings {
     private double blurRadius;
     private double falloff;
     private double saturationBoost;
+    private boolean depthFocus;
+    private double depthRange;
+    private boolean adaptiveQuality;
+    private int targetFps;
+    /** 运行时画质档位，由 {@link TiltShiftQualityGovernor} 调整，不写回配置 */
+    private int qualityLevel = MAX_QUALITY_LEVEL;
+    private int revision;
 
     public TiltShiftSettings() {
         this.configManager = ConfigManager.getInstance();
@@ -52,6 +68,22 @@ public class TiltShiftSettings {
         this.blurRadius = clamp(settings.tiltshift_blur_radius, MIN_BLUR_RADIUS, MAX_BLUR_RADIUS);
         this.falloff = clamp(settings.tiltshift_falloff, MIN_FALLOFF, MAX_FALLOFF);
         this.saturationBoost = clamp(settings.tiltshift_saturation_boost, MIN_SATURATION_BOOST, MAX_SATURATION_BOOST);
+        this.depthFocus = settings.tiltshift_depth_focus;
+        this.depthRange = clamp(settings.tiltshift_depth_range, MIN_DEPTH_RANGE, MAX_DEPTH_RANGE);
+        this.adaptiveQuality = settings.tiltshift_adaptive_quality;
+        this.targetFps = Math.max(MIN_TARGET_FPS, Math.min(MAX_TARGET_FPS, settings.tiltshift_target_fps));
+        if (!adaptiveQuality) {
+            this.qualityLevel = MAX_QUALITY_LEVEL;
+        }
+        revision++;
+    }
+
+    /**
+     * 参数版本号，每次参数变化时递增。
+     * 渲染器据此判断是否需要重新上传 uniform。
+     */
+    public int getRevision() {
+        return revision;
     }
 
     public boolean isEnabled() {
@@ -60,6 +92,7 @@ public class TiltShiftSettings {
 
     public boolean toggleEnabled() {
         enabled = !enabled;
+        revision++;
         persistBoolean("tiltshift_enabled", enabled);
         return enabled;
     }
@@ -70,6 +103,7 @@ public class TiltShiftSettings {
 
     public double adjustFocusY(double delta) {
         focusY = clamp(focusY + delta, MIN_FOCUS_Y, MAX_FOCUS_Y);
+        revision++;
         persistDouble("tiltshift_focus_y", focusY);
         return focusY;
     }
@@ -80,6 +114,7 @@ public class TiltShiftSettings {
 
     public double adjustBlurRadius(double delta) {
         blurRadius = clamp(blurRadius + delta, MIN_BLUR_RADIUS, MAX_BLUR_RADIUS);
+        revision++;
         persistDouble("tiltshift_blur_radius", blurRadius);
         return blurRadius;
     }
@@ -96,6 +131,62 @@ public class TiltShiftSettings {
         return saturationBoost;
     }
 
+    /**
+     * 是否按深度对焦到旁观目标（景深模式），否则使用屏幕空间的 FocusY 横带。
+     */
+    public boolean isDepthFocus() {
+        return depthFocus;
+    }
+
+    public double getDepthRange() {
+        return depthRange;
+    }
+
+    public boolean isAdaptiveQuality() {
+        return adaptiveQuality;
+    }
+
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    public int getQualityLevel() {
+        return qualityLevel;
+    }
+
+    /**
+     * 设置运行时画质档位（仅内存，不持久化）。
+     */
+    public void setQualityLevel(int level) {
+        int clamped = Math.max(0, Math.min(MAX_QUALITY_LEVEL, level));
+        if (clamped != qualityLevel) {
+            qualityLevel = clamped;
+            revision++;
+        }
+    }
+
+    /**
+     * 判断当前参数下整帧的输出是否与原画面无法区分（模糊与饱和度变化都低于 8 位量化精度），
+     * 此时可以直接跳过后处理。计算方式与 tiltshift.fsh 保持一致。
+     *
+     * @param framebufferWidth  帧缓冲宽度（像素）
+     * @param framebufferHeight 帧缓冲高度（像素）
+     */
+    public boolean isEffectivelyIdentity(int framebufferWidth, int framebufferHeight) {
+        if (depthFocus) {
+            // 景深模式的模糊量取决于画面内容（天空总在焦外），无法预先判定
+            return false;
+        }
+        double edge = focusWidth * 0.5;
+        double maxDistance = Math.max(focusY, 1.0 - focusY);
+        double maxBlurFactor = smoothstep(edge, edge + falloff * 0.5, maxDistance);
+        double maxShiftPixels = Math.max(0.0016 * framebufferWidth, 0.0010 * framebufferHeight)
+                * (blurRadius / 8.0) * maxBlurFactor;
+        boolean blurVisible = maxBlurFactor * Math.min(1.0, maxShiftPixels) >= QUANTIZATION_STEP;
+        boolean saturationVisible = Math.abs(saturationBoost - 1.0) >= QUANTIZATION_STEP;
+        return !blurVisible && !saturationVisible;
+    }
+
     private void migrateMissingDefaults(SpectateConfig.Settings settings) {
         boolean likelyMissingTiltShiftFields =
                 settings.tiltshift_focus_width <= 0.0
@@ -128,6 +219,11 @@ public class TiltShiftSettings {
         }
     }
 
+    private static double smoothstep(double edge0, double edge1, double x) {
+        double t = clamp((x - edge0) / (edge1 - edge0), 0.0, 1.0);
+        return t * t * (3.0 - 2.0 * t);
+    }
+
     private static double clamp(double value, double min, double max) {
         if (value < min) {
             return min;
@@ -61,6 +61,13 @@ public final class SpectateConfigScreenFactory {
                 .setSaveConsumer(value -> saveDouble(manager, "settings.spectate_rotation_speed", value))
                 .build());
 
+        generalCategory.addEntry(entryBuilder
+                .startBooleanToggle(tr("option.spectate.camera_recorder_enabled"), config.settings.camera_recorder_enabled)
+                .setDefaultValue(false)
+                .setTooltip(tr("tooltip.spectate.camera_recorder_enabled"))
+                .setSaveConsumer(value -> saveBoolean(manager, "settings.camera_recorder_enabled", value))
+                .build());
+
         floatingCategory.addEntry(entryBuilder
                 .startDoubleField(tr("option.spectate.floating_strength"), config.settings.floating_strength)
                 .setDefaultValue(0.5)
@@ -161,6 +168,43 @@ public final class SpectateConfigScreenFactory {
                 .setSaveConsumer(value -> saveDouble(manager, "settings.tiltshift_saturation_boost", value))
                 .build());
 
+        tiltShiftCategory.addEntry(entryBuilder
+                .startBooleanToggle(tr("option.spectate.tiltshift_depth_focus"), config.settings.tiltshift_depth_focus)
+                .setDefaultValue(false)
+                .setTooltip(tr("tooltip.spectate.tiltshift_depth_focus"))
+                .setSaveConsumer(value -> saveBoolean(manager, "settings.tiltshift_depth_focus", value))
+                .build());
+
+        tiltShiftCategory.addEntry(entryBuilder
+                .startDoubleField(tr("option.spectate.tiltshift_depth_range"), config.settings.tiltshift_depth_range)
+                .setDefaultValue(6.0)
+                .setMin(1.0)
+                .setMax(64.0)
+                .setTooltip(tr("tooltip.spectate.tiltshift_depth_range"))
+                .setSaveConsumer(value -> saveDouble(manager, "settings.tiltshift_depth_range", value))
+                .build());
+
+        tiltShiftCategory.addEntry(entryBuilder
+                .startBooleanToggle(tr("option.spectate.tiltshift_adaptive_quality"), config.settings.tiltshift_adaptive_quality)
+                .setDefaultValue(true)
+                .setTooltip(tr("tooltip.spectate.tiltshift_adaptive_quality"))
+                .setSaveConsumer(value -> saveBoolean(manager, "settings.tiltshift_adaptive_quality", value))
+                .build());
+
+        tiltShiftCategory.addEntry(entryBuilder
+                .startIntField(tr("option.spectate.tiltshift_target_fps"), config.settings.tiltshift_target_fps)
+                .setDefaultValue(60)
+                .setMin(30)
+                .setMax(240)
+                .setTooltip(tr("tooltip.spectate.tiltshift_target_fps"))
+                .setSaveConsumer(value -> saveInt(manager, "settings.tiltshift_target_fps", value))
+                .build());
+
+        int qualityLevel = ClientSpectateManager.getInstance().getTiltShiftSettings().getQualityLevel();
+        tiltShiftCategory.addEntry(entryBuilder
+                .startTextDescription(tr("option.spectate.tiltshift_quality_level", tr("quality.spectate.tiltshift." + qualityLevel)))
+                .build());
+
         return builder.build();
     }
 
@@ -188,11 +232,11 @@ public final class SpectateConfigScreenFactory {
         ClientSpectateManager.getInstance().reloadClientConfig();
     }
 
-    private static Text tr(String key) {
+    private static Text tr(String key, Object... args) {
         //#if MC >= 11900
-        return Text.translatable(key);
+        return Text.translatable(key, args);
         //#else
-        //$$ return new net.minecraft.text.TranslatableText(key);
+        //$$ return new net.minecraft.text.TranslatableText(key, args);
         //#endif
     }
 }
@@ -2,14 +2,24 @@ package com.spectate.command;
 
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.DoubleArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.builder.RequiredArgumentBuilder;
 import com.spectate.command.suggestion.CyclePointSuggestionProvider;
+import com.spectate.command.suggestion.GroupSuggestionProvider;
 import com.spectate.command.suggestion.PointSuggestionProvider;
 import com.spectate.config.ConfigManager;
 import com.spectate.config.SpectateConfig;
 import com.spectate.data.SpectatePointData;
+import com.spectate.metrics.LatencyRecorder;
+import com.spectate.metrics.PrometheusExporter;
+import com.spectate.metrics.SpectateJfr;
+import com.spectate.metrics.SpectateMetrics;
+import com.spectate.service.CutTrigger;
+import com.spectate.service.CycleSchedule;
+import com.spectate.service.PointTransferService;
+import com.spectate.service.SessionCost;
 import com.spectate.service.SpectatePointManager;
 import com.spectate.service.ServerSpectateManager;
 import com.spectate.service.SpectateSessionManager;
@@ -32,9 +42,11 @@ import net.minecraft.command.CommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.command.argument.Vec3ArgumentType;
 import net.minecraft.util.math.Vec3d;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -46,6 +58,7 @@ public class SpectateCommand {
     private static final ConfigManager CONFIG_MANAGER = ConfigManager.getInstance();
     private static final PointSuggestionProvider POINT_SUGGESTIONS = new PointSuggestionProvider();
     private static final CyclePointSuggestionProvider CYCLE_SUGGESTIONS = new CyclePointSuggestionProvider();
+    private static final GroupSuggestionProvider GROUP_SUGGESTIONS = new GroupSuggestionProvider();
 
     // 跨版本 sendFeedback 的辅助方法
     private static void sendFeedback(ServerCommandSource source, Text text, boolean broadcastToOps) {
@@ -101,6 +114,8 @@ public class SpectateCommand {
         root.then(buildWhoCommand());
         root.then(buildStatsCommand());
         root.then(buildTopCommand());
+        root.then(buildMetricsCommand());
+        root.then(buildDebugCommand());
     }
 
     /**
@@ -168,6 +183,7 @@ public class SpectateCommand {
 
     private static LiteralArgumentBuilder<ServerCommandSource> buildPointCommandWithLiteral(String literal) {
         return CommandManager.literal(literal)
+                .then(buildPointNearestCommand())
                 .then(CommandManager.argument("name", StringArgumentType.word())
                         .suggests(POINT_SUGGESTIONS)
                         .executes(ctx -> {
@@ -207,6 +223,10 @@ public class SpectateCommand {
         RequiredArgumentBuilder<ServerCommandSource, ?> posArg = CommandManager.argument("pos", Vec3ArgumentType.vec3())
                 .executes(ctx -> {
                     String name = StringArgumentType.getString(ctx, "name");
+                    if (SpectatePointManager.isReservedName(name)) {
+                        sendError(ctx.getSource(), CONFIG_MANAGER.getFormattedMessage("point_name_reserved", Map.of("name", name)));
+                        return 0;
+                    }
                     Vec3d pos = Vec3ArgumentType.getVec3(ctx, "pos");
                     SpectateConfig.Settings settings = CONFIG_MANAGER.getConfig().settings;
                     //#if MC >= 11900
@@ -222,6 +242,10 @@ public class SpectateCommand {
                 .then(CommandManager.argument("description", StringArgumentType.greedyString())
                         .executes(ctx -> {
                             String name = StringArgumentType.getString(ctx, "name");
+                            if (SpectatePointManager.isReservedName(name)) {
+                                sendError(ctx.getSource(), CONFIG_MANAGER.getFormattedMessage("point_name_reserved", Map.of("name", name)));
+                                return 0;
+                            }
                             Vec3d pos = Vec3ArgumentType.getVec3(ctx, "pos");
                             String desc = StringArgumentType.getString(ctx, "description");
                             SpectateConfig.Settings settings = CONFIG_MANAGER.getConfig().settings;
@@ -276,7 +300,7 @@ public class SpectateCommand {
                     return 1;
                 })
                 .then(CommandManager.argument("group", StringArgumentType.word())
-                        .suggests((c, b) -> CommandSource.suggestMatching(SpectatePointManager.getInstance().listGroups(), b))
+                        .suggests(GROUP_SUGGESTIONS)
                         .executes(ctx -> {
                              String group = StringArgumentType.getString(ctx, "group");
                              Collection<String> pointNames = SpectatePointManager.getInstance().listPointNamesByGroup(group);
@@ -290,6 +314,9 @@ public class SpectateCommand {
                              return 1;
                         })));
 
+        points.then(buildPointsNearCommand());
+        addPointsTransferCommands(points);
+
         return points;
     }
 
@@ -353,7 +380,7 @@ public class SpectateCommand {
 
         cycle.then(CommandManager.literal("addgroup")
                 .then(CommandManager.argument("group", StringArgumentType.word())
-                        .suggests((c, b) -> CommandSource.suggestMatching(SpectatePointManager.getInstance().listGroups(), b))
+                        .suggests(GROUP_SUGGESTIONS)
                         .executes(ctx -> {
                             manager.addCycleGroup(ctx.getSource().getPlayer(), StringArgumentType.getString(ctx, "group"));
                             return 1;
@@ -435,10 +462,20 @@ public class SpectateCommand {
                         }, b))
                         .executes(ctx -> {
                             String modeStr = StringArgumentType.getString(ctx, "mode");
-                            ViewMode viewMode = ViewMode.fromString(modeStr);
-                            manager.startCycle(ctx.getSource().getPlayer(), viewMode);
+                            ViewMode viewMode = ViewMode.fromString(modeStr);
+                            manager.startCycle(ctx.getSource().getPlayer(), viewMode);
                             return 1;
-                        })));
+                        })
+                        .then(CommandManager.argument("schedule", StringArgumentType.word())
+                                .suggests((c,b)->CommandSource.suggestMatching(new String[]{
+                                    "round_robin", "activity"
+                                }, b))
+                                .executes(ctx -> {
+                                    ViewMode viewMode = ViewMode.fromString(StringArgumentType.getString(ctx, "mode"));
+                                    CycleSchedule schedule = CycleSchedule.fromString(StringArgumentType.getString(ctx, "schedule"));
+                                    manager.startCycle(ctx.getSource().getPlayer(), viewMode, schedule);
+                                    return 1;
+                                }))));
 
         cycle.then(CommandManager.literal("next")
                 .executes(ctx -> {
@@ -446,9 +483,225 @@ public class SpectateCommand {
                     return 1;
                 }));
 
+        cycle.then(buildCycleCutsCommand());
+        cycle.then(buildCycleAddNearCommand());
+
         return cycle;
     }
 
+    /**
+     * cycle cuts [event] [on|off]：查看或设置触发立即切换的事件。
+     */
+    private static LiteralArgumentBuilder<ServerCommandSource> buildCycleCutsCommand() {
+        ServerSpectateManager manager = ServerSpectateManager.getInstance();
+        String[] triggerNames = new String[CutTrigger.values().length];
+        for (CutTrigger trigger : CutTrigger.values()) {
+            triggerNames[trigger.ordinal()] = trigger.getName();
+        }
+
+        return CommandManager.literal("cuts")
+                .executes(ctx -> {
+                    java.util.Set<CutTrigger> enabled = manager.getCutTriggers(ctx.getSource().getPlayer());
+                    StringBuilder sb = new StringBuilder("§e[Spectate] 事件切换:");
+                    for (CutTrigger trigger : CutTrigger.values()) {
+                        sb.append("\n  §7").append(trigger.getName()).append(" (").append(trigger.getDisplayName()).append("): ")
+                                .append(enabled.contains(trigger) ? "§a开启" : "§c关闭");
+                    }
+                    sendFeedback(ctx.getSource(),
+                        //#if MC >= 11900
+                        Text.literal(sb.toString())
+                        //#else
+                        //$$new LiteralText(sb.toString())
+                        //#endif
+                        , false);
+                    return 1;
+                })
+                .then(CommandManager.argument("event", StringArgumentType.word())
+                        .suggests((c,b)->CommandSource.suggestMatching(triggerNames, b))
+                        .then(CommandManager.argument("state", StringArgumentType.word())
+                                .suggests((c,b)->CommandSource.suggestMatching(new String[]{"on", "off"}, b))
+                                .executes(ctx -> {
+                                    String eventName = StringArgumentType.getString(ctx, "event");
+                                    CutTrigger trigger = CutTrigger.fromString(eventName);
+                                    if (trigger == null) {
+                                        sendError(ctx.getSource(),
+                                            //#if MC >= 11900
+                                            Text.literal("§c[Spectate] 未知的事件: " + eventName)
+                                            //#else
+                                            //$$new LiteralText("§c[Spectate] 未知的事件: " + eventName)
+                                            //#endif
+                                        );
+                                        return 0;
+                                    }
+                                    boolean enabled = "on".equalsIgnoreCase(StringArgumentType.getString(ctx, "state"));
+                                    manager.setCutTrigger(ctx.getSource().getPlayer(), trigger, enabled);
+                                    return 1;
+                                })));
+    }
+
+    /**
+     * point nearest：观察当前维度中离自己最近的观察点。
+     */
+    private static LiteralArgumentBuilder<ServerCommandSource> buildPointNearestCommand() {
+        return CommandManager.literal("nearest")
+                .executes(ctx -> {
+                    ServerPlayerEntity player = ctx.getSource().getPlayer();
+                    //#if MC >= 11900
+                    String dimension = player.getWorld().getRegistryKey().getValue().toString();
+                    //#else
+                    //$$String dimension = player.getServerWorld().getRegistryKey().getValue().toString();
+                    //#endif
+                    String name = SpectatePointManager.getInstance().findNearestPoint(dimension, player.getX(), player.getY(), player.getZ());
+                    SpectatePointData point = name != null ? SpectatePointManager.getInstance().getPoint(name) : null;
+                    if (point == null) {
+                        sendError(ctx.getSource(),
+                            //#if MC >= 11900
+                            Text.literal("§c[Spectate] 当前维度没有任何观察点。")
+                            //#else
+                            //$$new LiteralText("§c[Spectate] 当前维度没有任何观察点。")
+                            //#endif
+                        );
+                        return 0;
+                    }
+                    ServerSpectateManager.getInstance().spectatePoint(player, point);
+                    return 1;
+                });
+    }
+
+    /**
+     * points near <radius>：按距离列出当前维度中附近的观察点。
+     */
+    private static LiteralArgumentBuilder<ServerCommandSource> buildPointsNearCommand() {
+        return CommandManager.literal("near")
+                .then(CommandManager.argument("radius", DoubleArgumentType.doubleArg(1))
+                        .executes(ctx -> {
+                            ServerPlayerEntity player = ctx.getSource().getPlayer();
+                            double radius = DoubleArgumentType.getDouble(ctx, "radius");
+                            //#if MC >= 11900
+                            String dimension = player.getWorld().getRegistryKey().getValue().toString();
+                            //#else
+                            //$$String dimension = player.getServerWorld().getRegistryKey().getValue().toString();
+                            //#endif
+                            List<String> pointNames = SpectatePointManager.getInstance()
+                                    .listPointsWithin(dimension, player.getX(), player.getY(), player.getZ(), radius);
+                            if (pointNames.isEmpty()) {
+                                sendFeedback(ctx.getSource(), CONFIG_MANAGER.getMessage("point_list_empty"), false);
+                                return 1;
+                            }
+                            StringBuilder sb = new StringBuilder("§e[Spectate] ").append((long) radius).append(" 格内的观察点:");
+                            for (String name : pointNames) {
+                                SpectatePointData point = SpectatePointManager.getInstance().getPoint(name);
+                                if (point == null) {
+                                    continue;
+                                }
+                                BlockPos pos = point.getPosition();
+                                double distance = Math.sqrt(pos.getSquaredDistance(player.getBlockPos()));
+                                sb.append("\n  §7").append(name).append(" §f(").append((long) distance).append(" 格)");
+                            }
+                            sendFeedback(ctx.getSource(),
+                                //#if MC >= 11900
+                                Text.literal(sb.toString())
+                                //#else
+                                //$$new LiteralText(sb.toString())
+                                //#endif
+                                , false);
+                            return 1;
+                        }));
+    }
+
+    /**
+     * points import|export <file>：从 config/spectate/exchange/ 下的 CSV 或 JSONL 文件批量导入导出观察点。
+     * 读写文件在后台线程进行，完成后回到服务器线程反馈结果。
+     */
+    private static void addPointsTransferCommands(LiteralArgumentBuilder<ServerCommandSource> points) {
+        points.then(CommandManager.literal("import")
+                .requires(source -> source.hasPermissionLevel(2))
+                .then(CommandManager.argument("file", StringArgumentType.string())
+                        .executes(ctx -> {
+                            ServerCommandSource source = ctx.getSource();
+                            String fileName = StringArgumentType.getString(ctx, "file");
+                            sendFeedback(source,
+                                //#if MC >= 11900
+                                Text.literal("§7[Spectate] 正在导入 " + fileName + " ...")
+                                //#else
+                                //$$new LiteralText("§7[Spectate] 正在导入 " + fileName + " ...")
+                                //#endif
+                                , false);
+                            PointTransferService.getInstance().importAsync(fileName).whenComplete((result, error) ->
+                                source.getServer().execute(() -> {
+                                    if (error != null) {
+                                        sendTransferError(source, error);
+                                        return;
+                                    }
+                                    StringBuilder sb = new StringBuilder("§a[Spectate] 已从 ").append(result.getFileName())
+                                            .append(" 导入观察点: 新增 ").append(result.getAdded())
+                                            .append("，覆盖 ").append(result.getUpdated());
+                                    if (result.getInvalid() > 0) {
+                                        sb.append("，§c跳过 ").append(result.getInvalid()).append(" 行无效数据");
+                                        for (String err : result.getErrors()) {
+                                            sb.append("\n  §7").append(err);
+                                        }
+                                    }
+                                    sendFeedback(source,
+                                        //#if MC >= 11900
+                                        Text.literal(sb.toString())
+                                        //#else
+                                        //$$new LiteralText(sb.toString())
+                                        //#endif
+                                        , true);
+                                }));
+                            return 1;
+                        })));
+
+        points.then(CommandManager.literal("export")
+                .requires(source -> source.hasPermissionLevel(2))
+                .then(CommandManager.argument("file", StringArgumentType.string())
+                        .executes(ctx -> {
+                            ServerCommandSource source = ctx.getSource();
+                            String fileName = StringArgumentType.getString(ctx, "file");
+                            PointTransferService.getInstance().exportAsync(fileName).whenComplete((result, error) ->
+                                source.getServer().execute(() -> {
+                                    if (error != null) {
+                                        sendTransferError(source, error);
+                                        return;
+                                    }
+                                    String message = "§a[Spectate] 已将 " + result.getAdded() + " 个观察点导出到 config/spectate/exchange/" + result.getFileName();
+                                    sendFeedback(source,
+                                        //#if MC >= 11900
+                                        Text.literal(message)
+                                        //#else
+                                        //$$new LiteralText(message)
+                                        //#endif
+                                        , false);
+                                }));
+                            return 1;
+                        })));
+    }
+
+    private static void sendTransferError(ServerCommandSource source, Throwable error) {
+        Throwable cause = error instanceof java.util.concurrent.CompletionException && error.getCause() != null ? error.getCause() : error;
+        sendError(source,
+            //#if MC >= 11900
+            Text.literal("§c[Spectate] " + cause.getMessage())
+            //#else
+            //$$new LiteralText("§c[Spectate] " + cause.getMessage())
+            //#endif
+        );
+    }
+
+    /**
+     * cycle addnear <radius>：把附近的观察点加入循环列表。
+     */
+    private static LiteralArgumentBuilder<ServerCommandSource> buildCycleAddNearCommand() {
+        return CommandManager.literal("addnear")
+                .then(CommandManager.argument("radius", DoubleArgumentType.doubleArg(1))
+                        .executes(ctx -> {
+                            ServerSpectateManager.getInstance().addCycleNear(ctx.getSource().getPlayer(),
+                                DoubleArgumentType.getDouble(ctx, "radius"));
+                            return 1;
+                        }));
+    }
+
     private static LiteralArgumentBuilder<ServerCommandSource> buildStopCommandWithLiteral(String literal) {
         return CommandManager.literal(literal)
                 .executes(ctx->{
@@ -508,6 +761,10 @@ public class SpectateCommand {
         RequiredArgumentBuilder<ServerCommandSource, ?> posArg = CommandManager.argument("pos", Vec3ArgumentType.vec3())
                 .executes(ctx -> {
                     String name = StringArgumentType.getString(ctx, "name");
+                    if (SpectatePointManager.isReservedName(name)) {
+                        sendError(ctx.getSource(), CONFIG_MANAGER.getFormattedMessage("point_name_reserved", Map.of("name", name)));
+                        return 0;
+                    }
                     Vec3d pos = Vec3ArgumentType.getVec3(ctx, "pos");
                     SpectateConfig.Settings settings = CONFIG_MANAGER.getConfig().settings;
                     //#if MC >= 11900
@@ -523,6 +780,10 @@ public class SpectateCommand {
                 .then(CommandManager.argument("description", StringArgumentType.greedyString())
                         .executes(ctx -> {
                             String name = StringArgumentType.getString(ctx, "name");
+                            if (SpectatePointManager.isReservedName(name)) {
+                                sendError(ctx.getSource(), CONFIG_MANAGER.getFormattedMessage("point_name_reserved", Map.of("name", name)));
+                                return 0;
+                            }
                             Vec3d pos = Vec3ArgumentType.getVec3(ctx, "pos");
                             String desc = StringArgumentType.getString(ctx, "description");
                             SpectateConfig.Settings settings = CONFIG_MANAGER.getConfig().settings;
@@ -577,7 +838,7 @@ public class SpectateCommand {
                     return 1;
                 })
                 .then(CommandManager.argument("group", StringArgumentType.word())
-                        .suggests((c, b) -> CommandSource.suggestMatching(SpectatePointManager.getInstance().listGroups(), b))
+                        .suggests(GROUP_SUGGESTIONS)
                         .executes(ctx -> {
                              String group = StringArgumentType.getString(ctx, "group");
                              Collection<String> pointNames = SpectatePointManager.getInstance().listPointNamesByGroup(group);
@@ -591,11 +852,18 @@ public class SpectateCommand {
                              return 1;
                         })));
 
+        // points near <半径>
+        points.then(buildPointsNearCommand());
+
+        // points import|export <文件> - 批量导入导出（需要OP权限）
+        addPointsTransferCommands(points);
+
         return points;
     }
 
     private static LiteralArgumentBuilder<ServerCommandSource> buildPointCommand() {
         return CommandManager.literal("point")
+                .then(buildPointNearestCommand())
                 .then(CommandManager.argument("name", StringArgumentType.word())
                         .suggests(POINT_SUGGESTIONS)
                         .executes(ctx -> {
@@ -656,7 +924,7 @@ public class SpectateCommand {
         // cycle addgroup <分组>
         cycle.then(CommandManager.literal("addgroup")
                 .then(CommandManager.argument("group", StringArgumentType.word())
-                        .suggests((c, b) -> CommandSource.suggestMatching(SpectatePointManager.getInstance().listGroups(), b))
+                        .suggests(GROUP_SUGGESTIONS)
                         .executes(ctx -> {
                             manager.addCycleGroup(ctx.getSource().getPlayer(), StringArgumentType.getString(ctx, "group"));
                             return 1;
@@ -745,10 +1013,20 @@ public class SpectateCommand {
                         }, b))
                         .executes(ctx -> {
                             String modeStr = StringArgumentType.getString(ctx, "mode");
-                            ViewMode viewMode = ViewMode.fromString(modeStr);
-                            manager.startCycle(ctx.getSource().getPlayer(), viewMode);
+                            ViewMode viewMode = ViewMode.fromString(modeStr);
+                            manager.startCycle(ctx.getSource().getPlayer(), viewMode);
                             return 1;
-                        })));
+                        })
+                        .then(CommandManager.argument("schedule", StringArgumentType.word())
+                                .suggests((c,b)->CommandSource.suggestMatching(new String[]{
+                                    "round_robin", "activity"
+                                }, b))
+                                .executes(ctx -> {
+                                    ViewMode viewMode = ViewMode.fromString(StringArgumentType.getString(ctx, "mode"));
+                                    CycleSchedule schedule = CycleSchedule.fromString(StringArgumentType.getString(ctx, "schedule"));
+                                    manager.startCycle(ctx.getSource().getPlayer(), viewMode, schedule);
+                                    return 1;
+                                }))));
 
         // cycle next (下一个)
         cycle.then(CommandManager.literal("next")
@@ -757,6 +1035,12 @@ public class SpectateCommand {
                     return 1;
                 }));
 
+        // cycle cuts (事件切换)
+        cycle.then(buildCycleCutsCommand());
+
+        // cycle addnear <半径> - 添加附近的观察点
+        cycle.then(buildCycleAddNearCommand());
+
         return cycle;
     }
 
@@ -851,7 +1135,12 @@ public class SpectateCommand {
         config.then(CommandManager.literal("reload")
                 .requires(source -> source.hasPermissionLevel(2)) // 需要OP权限
                 .executes(ctx -> {
+                    SpectateJfr.Span span = SpectateJfr.begin(SpectateJfr.Kind.CONFIG_RELOAD);
                     CONFIG_MANAGER.reloadConfig();
+                    SpectateMetrics.configureCsvDump(CONFIG_MANAGER.getConfig().settings.metrics_csv_interval_seconds);
+                    PrometheusExporter.getInstance().configure(CONFIG_MANAGER.getConfig().settings);
+                    SpectateJfr.configure(CONFIG_MANAGER.getConfig().settings.jfr_events_enabled);
+                    span.finish(ctx.getSource().getName(), null, null);
                     sendFeedback(ctx.getSource(), 
                         //#if MC >= 11900
                         Text.literal("§a[Spectate] 配置已重新加载")
@@ -1129,6 +1418,15 @@ public class SpectateCommand {
     private static String getFieldComment(String fieldName) {
         switch (fieldName) {
             case "cycle_interval_seconds": return "循环模式下，每个观察点停留的秒数";
+            case "action_bar_min_interval_ms": return "旁观 ActionBar 两次发送之间的最小间隔，单位：毫秒";
+            case "metrics_csv_interval_seconds": return "每隔多少秒把性能指标追加到 config/spectate/metrics.csv，0 表示不写入";
+            case "prometheus_textfile_path": return "Prometheus textfile collector 的输出文件，留空表示不写入";
+            case "prometheus_http_port": return "在 127.0.0.1 上开放 Prometheus /metrics 端点的端口，0 表示不开放";
+            case "prometheus_interval_seconds": return "写入 Prometheus textfile 的间隔，单位：秒";
+            case "jfr_events_enabled": return "是否向 Java Flight Recorder 发出旁观操作事件";
+            case "tick_budget_enabled": return "服务器卡顿时是否限制每 tick 的旁观工作量";
+            case "tick_budget_mspt_threshold": return "主线程 MSPT 超过该值（毫秒）时开始限制旁观工作量";
+            case "tick_budget_us": return "卡顿时每个服务器 tick 内旁观工作的总预算，单位：微秒";
             case "spectate_distance": return "默认旁观距离，单位：方块";
             case "spectate_height_offset": return "默认旁观高度偏移，单位：方块";
             case "spectate_rotation_speed": return "默认旋转速度，数值越大越快";
@@ -1144,6 +1442,151 @@ public class SpectateCommand {
         }
     }
 
+    private static LiteralArgumentBuilder<ServerCommandSource> buildMetricsCommand() {
+        LiteralArgumentBuilder<ServerCommandSource> metrics = CommandManager.literal("metrics")
+                .requires(source -> source.hasPermissionLevel(2));
+
+        // metrics：显示各热路径的耗时百分位和计数
+        metrics.executes(ctx -> {
+            showMetrics(ctx.getSource());
+            return 1;
+        });
+
+        // metrics reset：清空已记录的指标
+        metrics.then(CommandManager.literal("reset")
+                .executes(ctx -> {
+                    SpectateMetrics.reset();
+                    SessionCost.resetModeTotals();
+                    sendFeedback(ctx.getSource(),
+                        //#if MC >= 11900
+                        Text.literal("§a[Spectate] 性能指标已清空")
+                        //#else
+                        //$$new LiteralText("§a[Spectate] 性能指标已清空")
+                        //#endif
+                        , false);
+                    return 1;
+                }));
+
+        return metrics;
+    }
+
+    private static void showMetrics(ServerCommandSource source) {
+        List<String> lines = new ArrayList<>();
+        lines.add("§6=== Spectate 性能指标（单位：微秒）===");
+        for (SpectateMetrics.Timer timer : SpectateMetrics.Timer.values()) {
+            LatencyRecorder.Snapshot s = SpectateMetrics.snapshot(timer);
+            lines.add(String.format(Locale.ROOT, "§e%s §7n=%d §fmean=%.1f p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f",
+                    timer.getDisplayName(), s.getCount(), s.getMean() / 1000.0,
+                    s.getPercentile(0.50) / 1000.0, s.getPercentile(0.90) / 1000.0,
+                    s.getPercentile(0.99) / 1000.0, s.getPercentile(0.999) / 1000.0, s.getMax() / 1000.0));
+        }
+        StringBuilder counters = new StringBuilder("§b计数:");
+        for (SpectateMetrics.Counter counter : SpectateMetrics.Counter.values()) {
+            counters.append(" §7").append(counter.getDisplayName()).append("=§f").append(SpectateMetrics.get(counter));
+        }
+        lines.add(counters.toString());
+
+        for (String line : lines) {
+            sendFeedback(source,
+                //#if MC >= 11900
+                Text.literal(line)
+                //#else
+                //$$new LiteralText(line)
+                //#endif
+                , false);
+        }
+    }
+
+    private static LiteralArgumentBuilder<ServerCommandSource> buildDebugCommand() {
+        LiteralArgumentBuilder<ServerCommandSource> debug = CommandManager.literal("debug")
+                .requires(source -> source.hasPermissionLevel(2));
+
+        // debug top [count]：列出最耗 CPU 的旁观会话和视角模式
+        debug.then(CommandManager.literal("top")
+                .executes(ctx -> {
+                    showTopSessions(ctx.getSource(), 10);
+                    return 1;
+                })
+                .then(CommandManager.argument("count", IntegerArgumentType.integer(1, 100))
+                        .executes(ctx -> {
+                            showTopSessions(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "count"));
+                            return 1;
+                        })));
+
+        return debug;
+    }
+
+    private static void showTopSessions(ServerCommandSource source, int count) {
+        List<String> lines = new ArrayList<>();
+        List<SpectateSessionManager.SessionCostEntry> entries = SpectateSessionManager.getInstance().listSessionCosts();
+        lines.add("§6=== 最耗时的旁观会话（调度线程 CPU，单位：微秒）===");
+        if (entries.isEmpty()) {
+            lines.add("§7当前没有旁观会话");
+        }
+        for (int i = 0; i < Math.min(count, entries.size()); i++) {
+            SpectateSessionManager.SessionCostEntry entry = entries.get(i);
+            long updates = entry.getUpdates();
+            long packetTasks = entry.getPacketTasks();
+            long pose = entry.getNanos(SessionCost.Kind.POSE);
+            long packet = entry.getNanos(SessionCost.Kind.PACKET);
+            lines.add(String.format(Locale.ROOT, "§e%d. %s §7-> §f%s §7[%s%s] §f%.1f/s §7%s=%.1f %s=%.1f %s=%.1f 机位每次=%.1f 发包每次=%.1f",
+                    i + 1, SpectateStatsManager.getInstance().getName(entry.getViewerId()), entry.getTarget(),
+                    entry.getViewMode().getName(), entry.isSmoothClient() ? ", smooth" : "",
+                    entry.getNanosPerSecond() / 1000.0,
+                    SessionCost.Kind.POSE.getDisplayName(), pose / 1000.0,
+                    SessionCost.Kind.TELEPORT.getDisplayName(), entry.getNanos(SessionCost.Kind.TELEPORT) / 1000.0,
+                    SessionCost.Kind.PACKET.getDisplayName(), packet / 1000.0,
+                    updates > 0 ? (pose + entry.getNanos(SessionCost.Kind.TELEPORT)) / 1000.0 / updates : 0.0,
+                    packetTasks > 0 ? packet / 1000.0 / packetTasks : 0.0));
+        }
+
+        // 按视角模式汇总，包括已经结束的会话
+        // 机位和传送按机位更新次数平均，发包按发包次数单独平均：平滑客户端的观察点会话只发包、不更新机位
+        lines.add("§6=== 按视角模式（机位+传送按每次机位更新，发包按每次发包）===");
+        // 汇总值会被调度线程持续累加，先取快照再排序
+        double[] perUpdate = new double[ViewMode.values().length];
+        List<ViewMode> modes = new ArrayList<>();
+        for (ViewMode mode : ViewMode.values()) {
+            if (SessionCost.getModeUpdates(mode) > 0 || SessionCost.getModePacketTasks(mode) > 0) {
+                perUpdate[mode.ordinal()] = perUpdateMicros(mode);
+                modes.add(mode);
+            }
+        }
+        modes.sort((a, b) -> Double.compare(perUpdate[b.ordinal()], perUpdate[a.ordinal()]));
+        for (ViewMode mode : modes) {
+            long updates = SessionCost.getModeUpdates(mode);
+            long packetTasks = SessionCost.getModePacketTasks(mode);
+            lines.add(String.format(Locale.ROOT, "§e%s §7n=%d §f%.1f §7%s=%.1f %s=%.1f §7| %s n=%d 每次=%.1f",
+                    mode.getName(), updates, perUpdate[mode.ordinal()],
+                    SessionCost.Kind.POSE.getDisplayName(), perCall(SessionCost.getModeNanos(mode, SessionCost.Kind.POSE), updates),
+                    SessionCost.Kind.TELEPORT.getDisplayName(), perCall(SessionCost.getModeNanos(mode, SessionCost.Kind.TELEPORT), updates),
+                    SessionCost.Kind.PACKET.getDisplayName(), packetTasks,
+                    perCall(SessionCost.getModeNanos(mode, SessionCost.Kind.PACKET), packetTasks)));
+        }
+
+        for (String line : lines) {
+            sendFeedback(source,
+                //#if MC >= 11900
+                Text.literal(line)
+                //#else
+                //$$new LiteralText(line)
+                //#endif
+                , false);
+        }
+    }
+
+    /**
+     * 每次机位更新的平均耗时（机位计算加传送），不含发包。
+     */
+    private static double perUpdateMicros(ViewMode mode) {
+        return perCall(SessionCost.getModeNanos(mode, SessionCost.Kind.POSE)
+                + SessionCost.getModeNanos(mode, SessionCost.Kind.TELEPORT), SessionCost.getModeUpdates(mode));
+    }
+
+    private static double perCall(long nanos, long calls) {
+        return calls > 0 ? nanos / 1000.0 / calls : 0.0;
+    }
+
     private static LiteralArgumentBuilder<ServerCommandSource> buildStatsCommand() {
         LiteralArgumentBuilder<ServerCommandSource> stats = CommandManager.literal("stats");
 
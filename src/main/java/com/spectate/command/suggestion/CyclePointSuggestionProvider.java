@@ -6,11 +6,10 @@ import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import com.spectate.service.ServerSpectateManager;
-import net.minecraft.command.CommandSource;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
 
-import java.util.Collections;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -23,18 +22,23 @@ public class CyclePointSuggestionProvider implements SuggestionProvider<ServerCo
         //#if MC >= 11900
         ServerPlayerEntity player = context.getSource().getPlayer();
         if (player != null) {
-            return CommandSource.suggestMatching(ServerSpectateManager.getInstance().listCyclePoints(player), builder);
+            return suggestFor(player.getUuid(), builder);
         }
         //#else
         //$$ try {
         //$$     ServerPlayerEntity player = context.getSource().getPlayer();
         //$$     if (player != null) {
-        //$$         return CommandSource.suggestMatching(ServerSpectateManager.getInstance().listCyclePoints(player), builder);
+        //$$         return suggestFor(player.getUuid(), builder);
         //$$     }
         //$$ } catch (CommandSyntaxException e) {
         //$$     // Ignored
         //$$ }
         //#endif
-        return CommandSource.suggestMatching(Collections.emptyList(), builder);
+        return builder.buildFuture();
+    }
+
+    private static CompletableFuture<Suggestions> suggestFor(UUID playerId, SuggestionsBuilder builder) {
+        return PrefixSuggestions.suggest(builder,
+                prefix -> ServerSpectateManager.getInstance().suggestCyclePoints(playerId, prefix, PrefixSuggestions.MAX_SUGGESTIONS));
     }
 }
\ No newline at end of file
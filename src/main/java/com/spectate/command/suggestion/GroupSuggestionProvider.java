@@ -0,0 +1,22 @@
+package com.spectate.command.suggestion;
+
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.SuggestionProvider;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.spectate.service.SpectatePointManager;
+import net.minecraft.server.command.ServerCommandSource;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 观察点分组名称的建议提供者。
+ */
+public class GroupSuggestionProvider implements SuggestionProvider<ServerCommandSource> {
+
+    @Override
+    public CompletableFuture<Suggestions> getSuggestions(CommandContext<ServerCommandSource> context, SuggestionsBuilder builder) {
+        return PrefixSuggestions.suggest(builder,
+                prefix -> SpectatePointManager.getInstance().suggestGroups(prefix, PrefixSuggestions.MAX_SUGGESTIONS));
+    }
+}
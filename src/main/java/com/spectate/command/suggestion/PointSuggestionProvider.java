@@ -5,7 +5,6 @@ import com.mojang.brigadier.suggestion.SuggestionProvider;
 import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import com.spectate.service.SpectatePointManager;
-import net.minecraft.command.CommandSource;
 import net.minecraft.server.command.ServerCommandSource;
 
 import java.util.concurrent.CompletableFuture;
@@ -17,6 +16,7 @@ public class PointSuggestionProvider implements SuggestionProvider<ServerCommand
 
     @Override
     public CompletableFuture<Suggestions> getSuggestions(CommandContext<ServerCommandSource> context, SuggestionsBuilder builder) {
-        return CommandSource.suggestMatching(SpectatePointManager.getInstance().listPointNames(), builder);
+        return PrefixSuggestions.suggest(builder,
+                prefix -> SpectatePointManager.getInstance().suggestPointNames(prefix, PrefixSuggestions.MAX_SUGGESTIONS));
     }
-}
\ No newline at end of file
+}
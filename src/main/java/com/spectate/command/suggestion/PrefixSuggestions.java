@@ -0,0 +1,41 @@
+package com.spectate.command.suggestion;
+
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * 基于前缀索引的异步补全：在独立线程上按已输入的前缀查询，只返回前 {@link #MAX_SUGGESTIONS} 个匹配项。
+ */
+final class PrefixSuggestions {
+
+    /** 每次补全最多返回的条目数 */
+    static final int MAX_SUGGESTIONS = 50;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SpectateSuggestions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PrefixSuggestions() {
+    }
+
+    /**
+     * @param lookup 根据前缀返回匹配项，在补全线程上调用，必须是线程安全的
+     */
+    static CompletableFuture<Suggestions> suggest(SuggestionsBuilder builder, Function<String, List<String>> lookup) {
+        String prefix = builder.getRemaining();
+        return CompletableFuture.supplyAsync(() -> {
+            for (String match : lookup.apply(prefix)) {
+                builder.suggest(match);
+            }
+            return builder.build();
+        }, EXECUTOR);
+    }
+}
@@ -12,8 +12,11 @@ import net.minecraft.text.Text;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -24,16 +27,26 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ConfigManager {
 
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private static final ConfigManager INSTANCE = new ConfigManager();
     private static final String CONFIG_FILE_NAME = "config.json";
 
     private final Path configFile;
     private SpectateConfig config;
+    // 预解析的消息模板，加载或修改配置后整体替换
+    private volatile Map<String, MessageTemplate> messageTemplates = Collections.emptyMap();
+    // 缺失的消息键只警告一次
+    private final Map<String, MessageTemplate> missingTemplates = new ConcurrentHashMap<>();
 
-    private ConfigManager() {
-        Path configDir = FabricLoader.getInstance().getConfigDir();
-        Path spectateDir = configDir.resolve("spectate");
-        this.configFile = spectateDir.resolve(CONFIG_FILE_NAME);
+    // 单例在第一次使用时才创建，这样不依赖 Fabric 环境也能单独构造（如基准测试）
+    private static final class Holder {
+        private static final ConfigManager INSTANCE = new ConfigManager(
+                FabricLoader.getInstance().getConfigDir().resolve("spectate").resolve(CONFIG_FILE_NAME));
+    }
+
+    /**
+     * 使用指定的配置文件创建实例，文件不存在时会写入默认配置。
+     */
+    ConfigManager(Path configFile) {
+        this.configFile = configFile;
         loadConfig();
     }
 
@@ -42,7 +55,7 @@ public class ConfigManager {
      * @return 单例实例。
      */
     public static ConfigManager getInstance() {
-        return INSTANCE;
+        return Holder.INSTANCE;
     }
 
     /**
@@ -80,6 +93,30 @@ public class ConfigManager {
             // 如果所有方法都失败，使用内存中的默认配置
             config = new SpectateConfig();
         }
+        compileMessageTemplates();
+    }
+
+    /**
+     * 解析所有消息模板。只在加载配置和修改消息时调用，发送消息时不再使用反射。
+     */
+    private void compileMessageTemplates() {
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        SpectateConfig.Messages lang = config.lang != null ? config.lang : new SpectateConfig.Messages();
+        for (Field field : SpectateConfig.Messages.class.getFields()) {
+            if (field.getType() != String.class) {
+                continue;
+            }
+            try {
+                Object value = field.get(lang);
+                if (value != null) {
+                    templates.put(field.getName(), MessageTemplate.compile((String) value));
+                }
+            } catch (IllegalAccessException e) {
+                SpectateMod.LOGGER.warn("[Spectate] 无法读取消息键: " + field.getName());
+            }
+        }
+        messageTemplates = templates;
+        missingTemplates.clear();
     }
 
     private void createDefaultConfig() throws IOException {
@@ -97,13 +134,7 @@ public class ConfigManager {
      * @return 格式化后的 Text 对象
      */
     public Text getFormattedMessage(String messageKey, Map<String, String> placeholders) {
-        String messageTemplate = getMessageTemplate(messageKey);
-        String formatted = messageTemplate;
-        if (placeholders != null) {
-            for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-                formatted = formatted.replace("{" + entry.getKey() + "}", entry.getValue());
-            }
-        }
+        String formatted = getMessageTemplate(messageKey).format(placeholders);
         //#if MC >= 11900
         return Text.literal(formatted);
         //#else
@@ -122,14 +153,15 @@ public class ConfigManager {
         return getFormattedMessage(messageKey, null);
     }
 
-    private String getMessageTemplate(String key) {
-        try {
-            // 使用反射从配置对象中获取消息
-            return (String) SpectateConfig.Messages.class.getField(key).get(config.lang);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            SpectateMod.LOGGER.warn("[Spectate] 配置中缺少消息键: " + key);
-            return "Missing message: " + key;
+    private MessageTemplate getMessageTemplate(String key) {
+        MessageTemplate template = messageTemplates.get(key);
+        if (template != null) {
+            return template;
         }
+        return missingTemplates.computeIfAbsent(key, k -> {
+            SpectateMod.LOGGER.warn("[Spectate] 配置中缺少消息键: " + k);
+            return MessageTemplate.compile("Missing message: " + k);
+        });
     }
 
     /**
@@ -209,6 +241,9 @@ public class ConfigManager {
             }
 
             field.set(targetObject, convertedValue);
+            if (targetObject == config.lang) {
+                compileMessageTemplates();
+            }
 
             // 保存配置到文件
             try (FileWriter writer = new FileWriter(configFile.toFile())) {
@@ -0,0 +1,86 @@
+package com.spectate.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预先解析的消息模板。模板在加载时拆成交替的文本片段和占位符名，
+ * 格式化时只需一次顺序拼接，不再逐个占位符替换整个字符串。
+ * 没有提供值的占位符原样保留。
+ */
+final class MessageTemplate {
+
+    private final String source;
+    // literals 比 placeholders 多一个：literals[0] {placeholders[0]} literals[1] ... literals[n]
+    private final String[] literals;
+    private final String[] placeholders;
+
+    private MessageTemplate(String source, String[] literals, String[] placeholders) {
+        this.source = source;
+        this.literals = literals;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * 解析模板，占位符格式为 {name}，name 由字母、数字和下划线组成。
+     */
+    static MessageTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int literalStart = 0;
+        int open = source.indexOf('{');
+        while (open >= 0) {
+            int close = source.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            if (isPlaceholderName(source, open + 1, close)) {
+                literals.add(source.substring(literalStart, open));
+                placeholders.add(source.substring(open + 1, close));
+                literalStart = close + 1;
+                open = source.indexOf('{', literalStart);
+            } else {
+                open = source.indexOf('{', open + 1);
+            }
+        }
+        literals.add(source.substring(literalStart));
+        return new MessageTemplate(source, literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    private static boolean isPlaceholderName(String s, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '_')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 用给定的值填充占位符。
+     *
+     * @param values 占位符名到值的映射，可为 null
+     */
+    String format(Map<String, String> values) {
+        if (placeholders.length == 0) {
+            return source;
+        }
+        StringBuilder sb = new StringBuilder(source.length() + 16 * placeholders.length);
+        for (int i = 0; i < placeholders.length; i++) {
+            sb.append(literals[i]);
+            String value = values != null ? values.get(placeholders[i]) : null;
+            if (value != null) {
+                sb.append(value);
+            } else {
+                sb.append('{').append(placeholders[i]).append('}');
+            }
+        }
+        sb.append(literals[placeholders.length]);
+        return sb.toString();
+    }
+}
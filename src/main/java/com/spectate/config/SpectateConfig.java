@@ -15,6 +15,33 @@ public class SpectateConfig {
     public static class Settings {
         /** 循环模式下，每个观察点停留的秒数 */
         public int cycle_interval_seconds = 60;
+
+        /** 旁观 ActionBar 两次发送之间的最小间隔，单位：毫秒。内容不变时不会重复发送 */
+        public int action_bar_min_interval_ms = 100;
+
+        /** 每隔多少秒把性能指标追加到 config/spectate/metrics.csv，0 表示不写入 */
+        public int metrics_csv_interval_seconds = 0;
+
+        /** Prometheus textfile collector 的输出文件（.prom），相对路径以服务器目录为基准，留空表示不写入 */
+        public String prometheus_textfile_path = "";
+
+        /** 在 127.0.0.1 上开放 Prometheus /metrics 端点的端口，0 表示不开放 */
+        public int prometheus_http_port = 0;
+
+        /** 写入 Prometheus textfile 的间隔，单位：秒 */
+        public int prometheus_interval_seconds = 15;
+
+        /** 是否向 Java Flight Recorder 发出旁观操作事件（类别 Spectate），需要 1.17 及以上版本 */
+        public boolean jfr_events_enabled = false;
+
+        /** 服务器卡顿时是否限制每 tick 的旁观工作量 */
+        public boolean tick_budget_enabled = true;
+
+        /** 主线程 MSPT 超过该值（毫秒）时开始限制旁观工作量 */
+        public double tick_budget_mspt_threshold = 50.0;
+
+        /** 卡顿时每个服务器 tick 内旁观工作（传送、目标更新包、ActionBar）的总预算，单位：微秒 */
+        public int tick_budget_us = 5000;
         
         /** 默认旁观距离，单位：方块 */
         public double spectate_distance = 20.0;
@@ -66,12 +93,31 @@ public class SpectateConfig {
 
         /** 饱和度增强 (1.0-1.5) */
         public double tiltshift_saturation_boost = 1.5;
+
+        /** 景深对焦模式：按深度缓冲对焦到旁观目标，而不是固定的屏幕横带（需 1.21.4+ 客户端） */
+        public boolean tiltshift_depth_focus = false;
+
+        /** 景深模式下焦点前后保持清晰的深度范围，单位：方块 (1.0-64.0) */
+        public double tiltshift_depth_range = 6.0;
+
+        /** 自适应画质：旁观时按帧耗时自动升降移轴模糊采样数，以维持目标帧率 */
+        public boolean tiltshift_adaptive_quality = true;
+
+        /** 自适应画质的目标帧率 (30-240) */
+        public int tiltshift_target_fps = 60;
+
+        /** 客户端记录收到的平滑旁观数据包，写入 config/spectate/camera-trace.bin，用于离线回放 */
+        public boolean camera_recorder_enabled = false;
+
+        /** 镜头记录文件保留的最大记录数，写满后覆盖最旧的记录（每条 96 字节，取值 1024 ~ 1048576） */
+        public int camera_recorder_capacity = 65536;
     }
 
     public static class Messages {
         public String point_added = "已添加观察点: {name}";
         public String point_removed = "已移除观察点: {name}";
         public String point_not_found = "未找到观察点: {name}";
+        public String point_name_reserved = "观察点名称 {name} 与命令冲突，请换一个名称";
         public String point_list_header = "观察点列表:";
         public String point_list_group_header = "分组 {group} 的观察点列表:";
         public String point_list_item = " - {name}";
@@ -88,6 +134,7 @@ public class SpectateConfig {
         public String cycle_started = "已开始观察循环。";
         public String cycle_started_with_mode = "已开始观察循环 ({mode})。";
         public String cycle_stopped = "已停止观察循环。";
+        public String cycle_resumed = "已恢复上次的观察循环 ({mode})。";
         public String cycle_next_point = "已切换至下个观察点: {index}/{total}";
         public String cycle_not_running = "您不在循环模式中，或您的循环列表为空。";
 
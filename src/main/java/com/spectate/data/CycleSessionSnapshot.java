@@ -0,0 +1,25 @@
+package com.spectate.data;
+
+import com.spectate.service.CutTrigger;
+import com.spectate.service.CycleSchedule;
+import com.spectate.service.ViewMode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 循环观察会话的持久化快照，写入后不再修改。
+ */
+public class CycleSessionSnapshot {
+    public List<String> points = new ArrayList<>();
+    public int index = 0;
+    public long intervalSeconds = 0; // 0 表示使用配置中的默认间隔
+    public ViewMode viewMode = ViewMode.ORBIT;
+    public CycleSchedule schedule = CycleSchedule.ROUND_ROBIN;
+    /** 保存时是否在循环中，下次加入服务器时据此自动恢复 */
+    public boolean running = false;
+    public boolean autoAddAllPlayers = false;
+    public String excludePrefix;
+    public String excludeSuffix;
+    public List<CutTrigger> cutTriggers = new ArrayList<>();
+}
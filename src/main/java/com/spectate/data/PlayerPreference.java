@@ -1,8 +1,10 @@
 package com.spectate.data;
 
+import com.spectate.service.CycleSchedule;
 import com.spectate.service.ViewMode;
 
 public class PlayerPreference {
     public ViewMode lastSpectateViewMode = ViewMode.ORBIT;
     public ViewMode lastCycleViewMode = ViewMode.ORBIT;
+    public CycleSchedule lastCycleSchedule = CycleSchedule.ROUND_ROBIN;
 }
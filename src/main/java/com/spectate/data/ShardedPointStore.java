@@ -0,0 +1,191 @@
+package com.spectate.data;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.spectate.SpectateMod;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按名称哈希分桶存储观察点，每个桶一个文件（points/bucket_XX.json）。
+ * 桶在第一次访问时才从磁盘读取，保存时只重写被修改过的桶。
+ * 列出全部名称会读入所有桶；服务器启动后由写入线程在后台完成这一步，见 {@link SpectateStateSaver#preloadPoints(Runnable)}。
+ * 写入由 {@link SpectateStateSaver} 的延迟写入线程执行。
+ * 读取失败的桶只在内存中可用，不会写回磁盘，避免用残缺的数据覆盖原文件。
+ */
+class ShardedPointStore {
+
+    static final int SHARD_COUNT = 64;
+    private static final Type SHARD_TYPE = new TypeToken<Map<String, SpectatePointData>>() {}.getType();
+
+    private static final class Shard {
+        private final Path file;
+        private final Map<String, SpectatePointData> points = new ConcurrentHashMap<>();
+        private volatile boolean loaded;
+        private volatile boolean dirty;
+        // 文件读取或解析失败，内存中的数据不完整，不能写回
+        private volatile boolean failed;
+
+        private Shard(Path file) {
+            this.file = file;
+        }
+    }
+
+    private final Gson gson;
+    private final Path directory;
+    private final Shard[] shards = new Shard[SHARD_COUNT];
+    // 所有桶都读入后维护的名称集合，避免每次列出名称都合并 64 个桶
+    private final Set<String> allNames = ConcurrentHashMap.newKeySet();
+    private volatile boolean allLoaded;
+
+    ShardedPointStore(Path directory, Gson gson) {
+        this.directory = directory;
+        this.gson = gson;
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            shards[i] = new Shard(directory.resolve(String.format("bucket_%02d.json", i)));
+        }
+    }
+
+    /**
+     * 丢弃内存中的所有数据，下次访问时重新从磁盘读取。
+     */
+    synchronized void reset() {
+        for (Shard shard : shards) {
+            shard.points.clear();
+            shard.loaded = false;
+            shard.dirty = false;
+            shard.failed = false;
+        }
+        allNames.clear();
+        allLoaded = false;
+    }
+
+    /**
+     * 磁盘上是否已经有分桶数据。
+     */
+    boolean existsOnDisk() {
+        for (Shard shard : shards) {
+            if (Files.exists(shard.file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Shard shardFor(String name) {
+        return shards[Math.floorMod(name.hashCode(), SHARD_COUNT)];
+    }
+
+    private Shard load(Shard shard) {
+        if (shard.loaded) {
+            return shard;
+        }
+        synchronized (this) {
+            if (!shard.loaded) {
+                if (Files.exists(shard.file)) {
+                    try (FileReader reader = new FileReader(shard.file.toFile())) {
+                        Map<String, SpectatePointData> loadedPoints = gson.fromJson(reader, SHARD_TYPE);
+                        if (loadedPoints != null) {
+                            shard.points.putAll(loadedPoints);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        shard.failed = true;
+                        SpectateMod.LOGGER.error("[Spectate] 从文件加载观察点失败，修复该文件并重载前不会写回: {}", shard.file, e);
+                    }
+                }
+                shard.loaded = true;
+            }
+        }
+        return shard;
+    }
+
+    private void loadAll() {
+        if (allLoaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!allLoaded) {
+                for (Shard shard : shards) {
+                    allNames.addAll(load(shard).points.keySet());
+                }
+                allLoaded = true;
+            }
+        }
+    }
+
+    SpectatePointData get(String name) {
+        return load(shardFor(name)).points.get(name);
+    }
+
+    synchronized void put(String name, SpectatePointData data) {
+        Shard shard = load(shardFor(name));
+        shard.points.put(name, data);
+        shard.dirty = true;
+        if (allLoaded) {
+            allNames.add(name);
+        }
+    }
+
+    synchronized SpectatePointData remove(String name) {
+        Shard shard = load(shardFor(name));
+        SpectatePointData removed = shard.points.remove(name);
+        if (removed != null) {
+            shard.dirty = true;
+            allNames.remove(name);
+        }
+        return removed;
+    }
+
+    /**
+     * 列出所有观察点名称，第一次调用时会读入所有桶。
+     */
+    Collection<String> names() {
+        loadAll();
+        return Collections.unmodifiableSet(allNames);
+    }
+
+    /**
+     * 只重写被修改过的桶。
+     */
+    void saveDirty() {
+        for (Shard shard : shards) {
+            if (!shard.dirty) {
+                continue;
+            }
+            if (shard.failed) {
+                shard.dirty = false;
+                SpectateMod.LOGGER.warn("[Spectate] 观察点分桶 {} 加载失败，本次修改只保留在内存中", shard.file);
+                continue;
+            }
+            // 先清除标记，写入期间的新修改会在下一次保存时写出
+            shard.dirty = false;
+            try {
+                Files.createDirectories(directory);
+                Path tmp = shard.file.resolveSibling(shard.file.getFileName() + ".tmp");
+                try (FileWriter writer = new FileWriter(tmp.toFile())) {
+                    gson.toJson(shard.points, SHARD_TYPE, writer);
+                }
+                try {
+                    Files.move(tmp, shard.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, shard.file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                shard.dirty = true;
+                SpectateMod.LOGGER.error("[Spectate] Failed to save spectate points: {}", shard.file, e);
+            }
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.spectate.SpectateMod;
+import com.spectate.metrics.SpectateJfr;
+import com.spectate.metrics.SpectateMetrics;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.util.math.BlockPos;
 
@@ -11,33 +13,49 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * SpectateStateSaver 负责将观察点和循环列表持久化到磁盘。
  * 单例实现，线程安全。
+ * 观察点按名称哈希分桶存储，按需加载，只重写修改过的分桶。
+ * 观察点、循环会话和玩家偏好采用延迟写入：修改只更新内存并标记为脏，由后台线程合并后写盘，
+ * 服务器停止时调用 {@link #flush()} 同步写出。
  */
 public class SpectateStateSaver {
 
-    private static final String POINTS_FILE_NAME = "spectate_points.json";
+    private static final String POINTS_FILE_NAME = "spectate_points.json"; // 旧版单文件，只用于迁移
+    private static final String POINTS_DIR_NAME = "points";
     private static final String CYCLE_FILE_NAME = "cycle_lists.json";
+    private static final String CYCLE_SESSIONS_FILE_NAME = "cycle_sessions.json";
     private static final String PLAYER_STATES_FILE_NAME = "player_spectate_states.json";
     private static final String PREFERENCES_FILE_NAME = "player_preferences.json";
 
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    /** 延迟写入的合并窗口 */
+    private static final long WRITE_BEHIND_DELAY_MS = 2000L;
+    private static final long FLUSH_TIMEOUT_SECONDS = 10L;
     private static final SpectateStateSaver INSTANCE = new SpectateStateSaver();
 
     public static SpectateStateSaver getInstance() {
         return INSTANCE;
     }
 
-    // 观察点缓存：名称 -> 数据
-    private final Map<String, SpectatePointData> pointCache = new ConcurrentHashMap<>();
-    // 玩家循环列表缓存：玩家UUID字符串 -> 点名称列表
-    private final Map<String, List<String>> cycleCache = new ConcurrentHashMap<>();
+    // 观察点：按名称哈希分桶，按需加载
+    private final ShardedPointStore pointStore;
+    // 循环会话快照缓存：玩家UUID字符串 -> 快照
+    private final Map<String, CycleSessionSnapshot> cycleSessionCache = new ConcurrentHashMap<>();
     // 玩家观察状态缓存：玩家UUID字符串 -> 状态字符串
     private final Map<String, String> playerStateCache = new ConcurrentHashMap<>();
     // 玩家偏好缓存：玩家UUID字符串 -> 偏好对象
@@ -45,9 +63,21 @@ public class SpectateStateSaver {
 
     private final Path pointsFile;
     private final Path cycleFile;
+    private final Path cycleSessionsFile;
     private final Path playerStatesFile;
     private final Path preferencesFile;
 
+    /** 需要延迟写入的存储 */
+    private enum Store { POINTS, CYCLE_SESSIONS, PREFERENCES }
+
+    private final Set<Store> dirtyStores = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "SpectateStateWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private SpectateStateSaver() {
         Path configDir = FabricLoader.getInstance().getConfigDir();
         Path spectateDir = configDir.resolve("spectate"); // 创建专用子目录
@@ -60,7 +90,9 @@ public class SpectateStateSaver {
             throw new RuntimeException(errorMessage, e);
         }
         this.pointsFile = spectateDir.resolve(POINTS_FILE_NAME);
+        this.pointStore = new ShardedPointStore(spectateDir.resolve(POINTS_DIR_NAME), GSON);
         this.cycleFile = spectateDir.resolve(CYCLE_FILE_NAME);
+        this.cycleSessionsFile = spectateDir.resolve(CYCLE_SESSIONS_FILE_NAME);
         this.playerStatesFile = spectateDir.resolve(PLAYER_STATES_FILE_NAME);
         this.preferencesFile = spectateDir.resolve(PREFERENCES_FILE_NAME);
     }
@@ -76,9 +108,9 @@ public class SpectateStateSaver {
             SpectateMod.LOGGER.error("[Spectate] 从文件加载观察点失败: {}", pointsFile, e);
         }
         try {
-            loadCycles();
+            loadCycleSessions();
         } catch (IOException e) {
-            SpectateMod.LOGGER.error("[Spectate] 从文件加载循环列表失败: {}", cycleFile, e);
+            SpectateMod.LOGGER.error("[Spectate] 从文件加载循环会话失败: {}", cycleSessionsFile, e);
         }
         try {
             loadPlayerStates();
@@ -95,24 +127,24 @@ public class SpectateStateSaver {
     /* ------------------- 观察点 ------------------- */
 
     /**
-     * 添加一个新的观察点到缓存中，并可选择是否立即保存到磁盘。
+     * 添加一个新的观察点到缓存中，并可选择是否安排写入磁盘。
      *
      * @param name 观察点的唯一名称。
      * @param data 包含观察点详细信息的 {@link SpectatePointData} 对象。
-     * @param save 如果为 true，则在添加后立即保存所有点到磁盘。
+     * @param save 如果为 true，则安排将所在的分桶写入磁盘。
      * @throws NullPointerException 如果 name 或 data 为 null。
      */
     public synchronized void addSpectatePoint(String name, SpectatePointData data, boolean save) {
         Objects.requireNonNull(name, "name");
         Objects.requireNonNull(data, "data");
-        pointCache.put(name, data);
+        pointStore.put(name, data);
         if (save) {
-            savePoints();
+            markDirty(Store.POINTS);
         }
     }
 
     /**
-     * 添加一个新的观察点到缓存中，并立即保存到磁盘。
+     * 添加一个新的观察点到缓存中，并安排写入磁盘。
      *
      * @param name 观察点的唯一名称。
      * @param data 包含观察点详细信息的 {@link SpectatePointData} 对象。
@@ -122,15 +154,29 @@ public class SpectateStateSaver {
     }
 
     /**
-     * 从缓存中移除指定的观察点，并在成功移除后更新磁盘文件。
+     * 批量添加观察点，只安排一次写盘。已存在的同名观察点会被覆盖。
+     *
+     * @param points 名称到观察点数据的映射。
+     */
+    public synchronized void addSpectatePoints(Map<String, SpectatePointData> points) {
+        for (Map.Entry<String, SpectatePointData> entry : points.entrySet()) {
+            pointStore.put(Objects.requireNonNull(entry.getKey(), "name"), Objects.requireNonNull(entry.getValue(), "data"));
+        }
+        if (!points.isEmpty()) {
+            markDirty(Store.POINTS);
+        }
+    }
+
+    /**
+     * 从缓存中移除指定的观察点，并在成功移除后安排更新磁盘文件。
      *
      * @param name 要移除的观察点名称。
      * @return 如果存在并被移除，返回被移除的 {@link SpectatePointData}；否则返回 null。
      */
     public synchronized SpectatePointData removeSpectatePoint(String name) {
-        SpectatePointData removed = pointCache.remove(name);
+        SpectatePointData removed = pointStore.remove(name);
         if (removed != null) {
-            savePoints();
+            markDirty(Store.POINTS);
         }
         return removed;
     }
@@ -142,22 +188,37 @@ public class SpectateStateSaver {
      * @return 对应的 {@link SpectatePointData} 对象，如果不存在则返回 null。
      */
     public SpectatePointData getSpectatePoint(String name) {
-        return pointCache.get(name);
+        return pointStore.get(name);
     }
 
     /**
-     * 获取所有已注册观察点的名称列表。
+     * 获取所有已注册观察点的名称列表。第一次调用时会读入所有分桶。
      *
      * @return 包含所有点名称的不可变集合。
      */
     public Collection<String> listPointNames() {
-        return Collections.unmodifiableSet(pointCache.keySet());
+        return pointStore.names();
+    }
+
+    /**
+     * 在写入线程上读入所有分桶，完成后在同一线程上执行回调。
+     * 服务器启动后调用，使第一次名称或索引查询不必在主线程上读取全部分桶。
+     */
+    public void preloadPoints(Runnable then) {
+        writer.execute(() -> {
+            try {
+                pointStore.names();
+                then.run();
+            } catch (RuntimeException e) {
+                SpectateMod.LOGGER.error("[Spectate] 后台加载观察点失败", e);
+            }
+        });
     }
 
     /* ------------------- 循环列表 ------------------- */
     
     /**
-     * 设置玩家的个人循环观察列表，并立即保存到磁盘。
+     * 设置玩家的个人循环观察列表，其余会话设置保持不变。
      *
      * @param playerUUID 玩家的 UUID。
      * @param list 观察点名称的列表。
@@ -166,8 +227,21 @@ public class SpectateStateSaver {
     public synchronized void setPlayerCycleList(UUID playerUUID, List<String> list) {
         Objects.requireNonNull(playerUUID);
         Objects.requireNonNull(list);
-        cycleCache.put(playerUUID.toString(), new ArrayList<>(list));
-        saveCycles();
+        CycleSessionSnapshot previous = cycleSessionCache.get(playerUUID.toString());
+        CycleSessionSnapshot snapshot = new CycleSessionSnapshot();
+        if (previous != null) {
+            snapshot.index = previous.index;
+            snapshot.intervalSeconds = previous.intervalSeconds;
+            snapshot.viewMode = previous.viewMode;
+            snapshot.schedule = previous.schedule;
+            snapshot.running = previous.running;
+            snapshot.autoAddAllPlayers = previous.autoAddAllPlayers;
+            snapshot.excludePrefix = previous.excludePrefix;
+            snapshot.excludeSuffix = previous.excludeSuffix;
+            snapshot.cutTriggers = previous.cutTriggers;
+        }
+        snapshot.points = new ArrayList<>(list);
+        saveCycleSession(playerUUID, snapshot);
     }
 
     /**
@@ -177,7 +251,31 @@ public class SpectateStateSaver {
      * @return 观察点名称的列表，如果玩家没有设置过，则返回空列表。
      */
     public List<String> getPlayerCycleList(UUID playerUUID) {
-        return cycleCache.getOrDefault(playerUUID.toString(), Collections.emptyList());
+        CycleSessionSnapshot snapshot = cycleSessionCache.get(playerUUID.toString());
+        return snapshot != null ? Collections.unmodifiableList(snapshot.points) : Collections.emptyList();
+    }
+
+    /**
+     * 保存玩家的循环会话快照。只更新内存，磁盘写入延迟合并执行。
+     *
+     * @param playerUUID 玩家的 UUID。
+     * @param snapshot 会话快照，保存后调用方不应再修改。
+     */
+    public void saveCycleSession(UUID playerUUID, CycleSessionSnapshot snapshot) {
+        Objects.requireNonNull(playerUUID, "playerUUID");
+        Objects.requireNonNull(snapshot, "snapshot");
+        cycleSessionCache.put(playerUUID.toString(), snapshot);
+        markDirty(Store.CYCLE_SESSIONS);
+    }
+
+    /**
+     * 获取玩家的循环会话快照。只读取内存，可在玩家加入时直接调用。
+     *
+     * @param playerUUID 玩家的 UUID。
+     * @return 快照，如果没有保存过则返回 null。
+     */
+    public CycleSessionSnapshot getCycleSession(UUID playerUUID) {
+        return cycleSessionCache.get(playerUUID.toString());
     }
 
     /* ------------------- 玩家状态 ------------------- */
@@ -235,62 +333,155 @@ public class SpectateStateSaver {
      * @param playerUUID 玩家的 UUID。
      * @param preference 新的偏好对象。
      */
-    public synchronized void savePlayerPreference(UUID playerUUID, PlayerPreference preference) {
+    public void savePlayerPreference(UUID playerUUID, PlayerPreference preference) {
         preferenceCache.put(playerUUID.toString(), preference);
-        savePreferences();
+        markDirty(Store.PREFERENCES);
+    }
+
+    /* ------------------- 延迟写入 ------------------- */
+
+    private void markDirty(Store store) {
+        dirtyStores.add(store);
+        if (flushScheduled.compareAndSet(false, true)) {
+            writer.schedule(this::flushDirty, WRITE_BEHIND_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushDirty() {
+        // 先清除标记，写盘期间的新修改会安排下一次写入
+        flushScheduled.set(false);
+        if (dirtyStores.isEmpty()) {
+            return;
+        }
+        long start = SpectateMetrics.start();
+        SpectateJfr.Span span = SpectateJfr.begin(SpectateJfr.Kind.PERSISTENCE_FLUSH);
+        StringJoiner written = span.isActive() ? new StringJoiner(",") : null;
+        for (Store store : Store.values()) {
+            if (dirtyStores.remove(store)) {
+                if (written != null) {
+                    written.add(store.name());
+                }
+                switch (store) {
+                    case POINTS:
+                        pointStore.saveDirty();
+                        break;
+                    case CYCLE_SESSIONS:
+                        saveCycleSessions();
+                        break;
+                    case PREFERENCES:
+                        savePreferences();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        SpectateMetrics.record(SpectateMetrics.Timer.PERSISTENCE_FLUSH, start);
+        span.finish(null, written != null ? written.toString() : null, null);
+    }
+
+    /**
+     * 立即写出所有待写入的修改并等待完成。应在服务器停止时调用。
+     */
+    public void flush() {
+        try {
+            writer.submit(this::flushDirty).get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            SpectateMod.LOGGER.error("[Spectate] 写出待保存的数据失败", e);
+        }
     }
 
     /* ------------------- 内部加载 / 保存 ------------------- */
 
+    /**
+     * 分桶在第一次访问时才读取，这里只处理旧版数据迁移和首次运行时的默认观察点。
+     */
     private void loadPoints() throws IOException {
+        pointStore.reset();
+        if (pointStore.existsOnDisk()) {
+            return;
+        }
         if (Files.notExists(pointsFile)) {
             createDefaultPoint();
             return;
         }
+        migrateLegacyPoints();
+    }
+
+    /**
+     * 将旧版的 spectate_points.json 拆分到分桶文件中，完成后将旧文件重命名保留。
+     */
+    private void migrateLegacyPoints() throws IOException {
+        int count = 0;
         try (FileReader reader = new FileReader(pointsFile.toFile())) {
             Type type = new TypeToken<Map<String, SpectatePointData>>() {}.getType();
             Map<String, SpectatePointData> loadedPoints = GSON.fromJson(reader, type);
             if (loadedPoints != null) {
-                pointCache.putAll(loadedPoints);
+                for (Map.Entry<String, SpectatePointData> entry : loadedPoints.entrySet()) {
+                    pointStore.put(entry.getKey(), entry.getValue());
+                    count++;
+                }
             }
         }
-        if (pointCache.isEmpty()) {
+        if (count == 0) {
             createDefaultPoint();
+            return;
         }
+        // 同步写出，确保重命名旧文件之前新数据已经落盘
+        pointStore.saveDirty();
+        Files.move(pointsFile, pointsFile.resolveSibling(POINTS_FILE_NAME + ".migrated"),
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+        SpectateMod.LOGGER.info("[Spectate] 已将 {} 个观察点迁移到分桶存储 {}/", count, POINTS_DIR_NAME);
     }
 
-    private void savePoints() {
-        try {
-            Files.createDirectories(pointsFile.getParent());
-            try (FileWriter writer = new FileWriter(pointsFile.toFile())) {
-                GSON.toJson(pointCache, writer);
+    private void loadCycleSessions() throws IOException {
+        if (Files.exists(cycleSessionsFile)) {
+            try (FileReader reader = new FileReader(cycleSessionsFile.toFile())) {
+                Type type = new TypeToken<Map<String, CycleSessionSnapshot>>() {}.getType();
+                Map<String, CycleSessionSnapshot> loadedSessions = GSON.fromJson(reader, type);
+                if (loadedSessions != null) {
+                    cycleSessionCache.putAll(loadedSessions);
+                }
             }
-        } catch (IOException e) {
-            SpectateMod.LOGGER.error("[Spectate] Failed to save spectate points.", e);
+            return;
         }
+        migrateLegacyCycles();
     }
 
-    private void loadCycles() throws IOException {
+    /**
+     * 旧版本只保存了循环列表本身，迁移为只包含列表的会话快照。
+     */
+    private void migrateLegacyCycles() throws IOException {
         if (Files.notExists(cycleFile)) {
             return;
         }
         try (FileReader reader = new FileReader(cycleFile.toFile())) {
             Type type = new TypeToken<Map<String, List<String>>>() {}.getType();
             Map<String, List<String>> loadedCycles = GSON.fromJson(reader, type);
-            if (loadedCycles != null) {
-                cycleCache.putAll(loadedCycles);
+            if (loadedCycles == null) {
+                return;
+            }
+            for (Map.Entry<String, List<String>> entry : loadedCycles.entrySet()) {
+                CycleSessionSnapshot snapshot = new CycleSessionSnapshot();
+                if (entry.getValue() != null) {
+                    snapshot.points = new ArrayList<>(entry.getValue());
+                }
+                cycleSessionCache.put(entry.getKey(), snapshot);
             }
         }
+        if (!cycleSessionCache.isEmpty()) {
+            SpectateMod.LOGGER.info("[Spectate] 已将 {} 个旧版循环列表迁移到 {}", cycleSessionCache.size(), CYCLE_SESSIONS_FILE_NAME);
+            markDirty(Store.CYCLE_SESSIONS);
+        }
     }
 
-    private void saveCycles() {
+    private void saveCycleSessions() {
         try {
-            Files.createDirectories(cycleFile.getParent());
-            try (FileWriter writer = new FileWriter(cycleFile.toFile())) {
-                GSON.toJson(cycleCache, writer);
-            }
+            writeJson(cycleSessionsFile, cycleSessionCache);
         } catch (IOException e) {
-            SpectateMod.LOGGER.error("[Spectate] Failed to save cycle lists.", e);
+            SpectateMod.LOGGER.error("[Spectate] Failed to save cycle sessions.", e);
         }
     }
 
@@ -309,10 +500,7 @@ public class SpectateStateSaver {
 
     private void savePlayerStates() {
         try {
-            Files.createDirectories(playerStatesFile.getParent());
-            try (FileWriter writer = new FileWriter(playerStatesFile.toFile())) {
-                GSON.toJson(playerStateCache, writer);
-            }
+            writeJson(playerStatesFile, playerStateCache);
         } catch (IOException e) {
             SpectateMod.LOGGER.error("[Spectate] Failed to save player states.", e);
         }
@@ -333,15 +521,28 @@ public class SpectateStateSaver {
 
     private void savePreferences() {
         try {
-            Files.createDirectories(preferencesFile.getParent());
-            try (FileWriter writer = new FileWriter(preferencesFile.toFile())) {
-                GSON.toJson(preferenceCache, writer);
-            }
+            writeJson(preferencesFile, preferenceCache);
         } catch (IOException e) {
             SpectateMod.LOGGER.error("[Spectate] Failed to save player preferences.", e);
         }
     }
 
+    /**
+     * 先写入同目录下的临时文件再原子替换，写入途中崩溃或被杀时保留上一次完整的文件。
+     */
+    private static void writeJson(Path file, Object data) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileWriter writer = new FileWriter(tmp.toFile())) {
+            GSON.toJson(data, writer);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     /* ------------------- 默认点 ------------------- */
     private void createDefaultPoint() {
         addSpectatePoint("origin", new SpectatePointData("minecraft:overworld", BlockPos.ORIGIN, 10.0, 3.0, "(auto) world spawn"));
@@ -17,7 +17,6 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class SpectateStatsManager {
-    private static final SpectateStatsManager INSTANCE = new SpectateStatsManager();
     private static final String STATS_FILE_NAME = "spectate_stats.json";
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
@@ -25,11 +24,16 @@ public class SpectateStatsManager {
     private final Map<UUID, String> nameCache = new ConcurrentHashMap<>();
     private final Path statsFile;
 
-    public static SpectateStatsManager getInstance() { return INSTANCE; }
+    // 单例在第一次使用时才创建，这样不依赖 Fabric 环境也能单独构造（如基准测试）
+    private static final class Holder {
+        private static final SpectateStatsManager INSTANCE = new SpectateStatsManager(
+                FabricLoader.getInstance().getConfigDir().resolve("spectate").resolve(STATS_FILE_NAME));
+    }
+
+    public static SpectateStatsManager getInstance() { return Holder.INSTANCE; }
 
-    private SpectateStatsManager() {
-        Path configDir = FabricLoader.getInstance().getConfigDir();
-        this.statsFile = configDir.resolve("spectate").resolve(STATS_FILE_NAME);
+    SpectateStatsManager(Path statsFile) {
+        this.statsFile = statsFile;
     }
 
     public void initialize() {
@@ -56,6 +60,13 @@ public class SpectateStatsManager {
         saveStats();
     }
 
+    /**
+     * @return 内存中缓存的统计条目数
+     */
+    public int getCachedStatsCount() {
+        return statsCache.size();
+    }
+
     public SpectateStats getStats(UUID uuid) {
         return statsCache.getOrDefault(uuid, new SpectateStats());
     }
@@ -0,0 +1,137 @@
+package com.spectate.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的延迟直方图。按 HdrHistogram 的思路把数值分到对数-线性桶中：
+ * 每个 2 的幂区间再均分为 16 个子桶，百分位的相对误差不超过 1/16。
+ * 记录一次只是几次原子累加，可在任意线程调用。
+ */
+public final class LatencyRecorder {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 最大可区分约 2^41 纳秒（约 36 分钟），更大的值计入最后一个桶
+    private static final int MAX_MSB = 40;
+    private static final long MAX_VALUE = (1L << (MAX_MSB + 1)) - 1;
+    private static final int BUCKETS = (MAX_MSB - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * 记录一个耗时。
+     *
+     * @param nanos 纳秒，负数按 0 计
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, Math.min(MAX_VALUE, nanos));
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * 清空所有记录。与并发的记录之间不保证原子性。
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0L);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new Snapshot(counts, count.sum(), sum.sum(), max.get());
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * 桶的代表值：桶内区间的中点。
+     */
+    private static long valueOf(int index) {
+        if (index < SUB_BUCKETS * 2) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long lower = (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+
+    /**
+     * 某一时刻的直方图副本。
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+        private final long total;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.total = total;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /** 所有记录值之和，纳秒 */
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count > 0 ? (double) sum / count : 0.0;
+        }
+
+        /**
+         * @param quantile 0 到 1 之间，例如 0.99
+         * @return 对应百分位的近似值，纳秒；没有记录时为 0
+         */
+        public long getPercentile(double quantile) {
+            if (total == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(valueOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
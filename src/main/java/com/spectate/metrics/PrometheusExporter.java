@@ -0,0 +1,229 @@
+package com.spectate.metrics;
+
+import com.spectate.SpectateMod;
+import com.spectate.config.SpectateConfig;
+import com.spectate.data.SpectateStatsManager;
+import com.spectate.network.ServerNetworkHandler;
+import com.spectate.service.CycleService;
+import com.spectate.service.SpectateSessionManager;
+import com.spectate.service.TickBudgetManager;
+import com.spectate.service.ViewMode;
+import com.sun.net.httpserver.HttpServer;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以 Prometheus 文本格式导出指标，供运维系统抓取。
+ * 两种方式都可选：定期写入 node_exporter textfile collector 读取的文件，
+ * 或在回环地址上开放 /metrics 端点。
+ * 所有数据都从并发容器和计数器中读取，导出工作在独立线程上进行，不会占用服务器主线程。
+ */
+public final class PrometheusExporter {
+
+    private static final PrometheusExporter INSTANCE = new PrometheusExporter();
+
+    public static PrometheusExporter getInstance() {
+        return INSTANCE;
+    }
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> fileFuture;
+    private HttpServer httpServer;
+
+    private PrometheusExporter() {
+    }
+
+    /**
+     * 按配置启动或停止导出。服务器启动和配置重载后调用。
+     */
+    public synchronized void configure(SpectateConfig.Settings settings) {
+        stop();
+        String textfile = settings.prometheus_textfile_path != null ? settings.prometheus_textfile_path.trim() : "";
+        int port = settings.prometheus_http_port;
+        if (textfile.isEmpty() && port <= 0) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SpectateMetricsExporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (!textfile.isEmpty()) {
+            Path path = Paths.get(textfile);
+            if (!path.isAbsolute()) {
+                path = FabricLoader.getInstance().getGameDir().resolve(path);
+            }
+            Path file = path.toAbsolutePath().normalize();
+            int interval = Math.max(1, settings.prometheus_interval_seconds);
+            fileFuture = executor.scheduleAtFixedRate(() -> writeTextfile(file), 0, interval, TimeUnit.SECONDS);
+            SpectateMod.LOGGER.info("[Spectate] 指标每 {} 秒写入 {}", interval, file);
+        }
+
+        if (port > 0) {
+            try {
+                HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+                server.createContext("/metrics", exchange -> {
+                    try {
+                        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+                        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                        exchange.sendResponseHeaders(200, body.length);
+                        try (OutputStream out = exchange.getResponseBody()) {
+                            out.write(body);
+                        }
+                    } finally {
+                        exchange.close();
+                    }
+                });
+                server.setExecutor(executor);
+                server.start();
+                httpServer = server;
+                SpectateMod.LOGGER.info("[Spectate] 指标端点已开放: http://127.0.0.1:{}/metrics", port);
+            } catch (IOException e) {
+                SpectateMod.LOGGER.error("[Spectate] 无法在端口 " + port + " 开放指标端点", e);
+            }
+        }
+    }
+
+    /**
+     * 停止所有导出。服务器停止时调用。
+     */
+    public synchronized void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (fileFuture != null) {
+            fileFuture.cancel(false);
+            fileFuture = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private void writeTextfile(Path file) {
+        try {
+            Files.createDirectories(file.getParent());
+            // node_exporter 只读取 .prom 文件，先写入临时文件再原子替换，避免读到写了一半的内容
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, render().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            SpectateMod.LOGGER.error("[Spectate] 写入指标文件失败: " + file, e);
+        }
+    }
+
+    /**
+     * 生成 Prometheus 文本格式的指标。
+     */
+    String render() {
+        StringBuilder sb = new StringBuilder(2048);
+
+        int[] byViewMode = new int[ViewMode.values().length];
+        int smooth = SpectateSessionManager.getInstance().countSessions(byViewMode);
+        int total = 0;
+        header(sb, "spectate_sessions", "gauge", "Active spectate sessions by view mode.");
+        for (ViewMode mode : ViewMode.values()) {
+            int count = byViewMode[mode.ordinal()];
+            total += count;
+            sb.append("spectate_sessions{mode=\"").append(mode.getName()).append("\"} ").append(count).append('\n');
+        }
+
+        header(sb, "spectate_session_clients", "gauge", "Active spectate sessions by client type.");
+        sb.append("spectate_session_clients{client=\"smooth\"} ").append(smooth).append('\n');
+        sb.append("spectate_session_clients{client=\"vanilla\"} ").append(total - smooth).append('\n');
+
+        header(sb, "spectate_smooth_clients_connected", "gauge", "Connected clients with the smooth camera capability.");
+        sb.append("spectate_smooth_clients_connected ")
+                .append(ServerNetworkHandler.getInstance().getSmoothClientIds().size()).append('\n');
+
+        int[] cycles = CycleService.getInstance().countCycleSessions();
+        header(sb, "spectate_cycle_sessions", "gauge", "Loaded cycle sessions.");
+        sb.append("spectate_cycle_sessions{state=\"running\"} ").append(cycles[1]).append('\n');
+        sb.append("spectate_cycle_sessions{state=\"idle\"} ").append(cycles[0] - cycles[1]).append('\n');
+
+        header(sb, "spectate_payloads_total", "counter", "Custom payloads sent by type.");
+        payloadLine(sb, "spectate_payloads_total", "state", SpectateMetrics.Counter.STATE_PACKETS);
+        payloadLine(sb, "spectate_payloads_total", "params", SpectateMetrics.Counter.PARAMS_PACKETS);
+        payloadLine(sb, "spectate_payloads_total", "target_update", SpectateMetrics.Counter.TARGET_UPDATE_PACKETS);
+
+        header(sb, "spectate_payload_bytes_total", "counter", "Encoded payload bytes sent by type.");
+        payloadLine(sb, "spectate_payload_bytes_total", "state", SpectateMetrics.Counter.STATE_BYTES);
+        payloadLine(sb, "spectate_payload_bytes_total", "params", SpectateMetrics.Counter.PARAMS_BYTES);
+        payloadLine(sb, "spectate_payload_bytes_total", "target_update", SpectateMetrics.Counter.TARGET_UPDATE_BYTES);
+
+        header(sb, "spectate_action_bars_total", "counter", "Action bar updates by outcome.");
+        sb.append("spectate_action_bars_total{outcome=\"sent\"} ")
+                .append(SpectateMetrics.get(SpectateMetrics.Counter.ACTION_BARS_SENT)).append('\n');
+        sb.append("spectate_action_bars_total{outcome=\"skipped\"} ")
+                .append(SpectateMetrics.get(SpectateMetrics.Counter.ACTION_BARS_SKIPPED)).append('\n');
+
+        header(sb, "spectate_budget_shed_total", "counter", "Spectate work skipped by the tick budget.");
+        sb.append("spectate_budget_shed_total ")
+                .append(SpectateMetrics.get(SpectateMetrics.Counter.BUDGET_SHED)).append('\n');
+
+        header(sb, "spectate_server_mspt", "gauge", "Smoothed main thread milliseconds per tick.");
+        sb.append("spectate_server_mspt ")
+                .append(String.format(Locale.ROOT, "%.3f", TickBudgetManager.getInstance().getAverageMspt())).append('\n');
+
+        header(sb, "spectate_operation_seconds", "summary",
+                "Latency of spectate hot path operations, including persistence flushes.");
+        for (SpectateMetrics.Timer timer : SpectateMetrics.Timer.values()) {
+            LatencyRecorder.Snapshot s = SpectateMetrics.snapshot(timer);
+            for (double q : QUANTILES) {
+                sb.append("spectate_operation_seconds{op=\"").append(timer.getId())
+                        .append("\",quantile=\"").append(q).append("\"} ")
+                        .append(seconds(s.getPercentile(q))).append('\n');
+            }
+            sb.append("spectate_operation_seconds_sum{op=\"").append(timer.getId()).append("\"} ")
+                    .append(seconds(s.getSum())).append('\n');
+            sb.append("spectate_operation_seconds_count{op=\"").append(timer.getId()).append("\"} ")
+                    .append(s.getCount()).append('\n');
+        }
+
+        header(sb, "spectate_stats_cache_entries", "gauge", "Players held in the stats cache.");
+        sb.append("spectate_stats_cache_entries ")
+                .append(SpectateStatsManager.getInstance().getCachedStatsCount()).append('\n');
+
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void payloadLine(StringBuilder sb, String name, String payload, SpectateMetrics.Counter counter) {
+        sb.append(name).append("{payload=\"").append(payload).append("\"} ")
+                .append(SpectateMetrics.get(counter)).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000.0);
+    }
+}
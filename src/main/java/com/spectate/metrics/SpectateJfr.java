@@ -0,0 +1,96 @@
+package com.spectate.metrics;
+
+import com.spectate.SpectateMod;
+
+/**
+ * 旁观操作的 Java Flight Recorder 自定义事件入口。
+ * <p>
+ * 通过配置项 {@code jfr_events_enabled} 开启，默认关闭。关闭时 {@link #begin(Kind)} 只读取一个静态字段并返回共享的空实现，
+ * 不创建事件对象；开启后事件类别为 "Spectate"，在 JFR 时间线上与服务器 tick 并列显示，
+ * 每个事件带有旁观者、目标、模式和耗时。
+ * 用法：
+ * <pre>
+ * SpectateJfr.Span span = SpectateJfr.begin(SpectateJfr.Kind.SESSION_START);
+ * ... 执行操作 ...
+ * span.finish(viewer, target, mode);
+ * </pre>
+ * 1.17 以下版本运行在 Java 8 上，不一定带有 jdk.jfr，这些版本中事件始终关闭。
+ */
+public final class SpectateJfr {
+
+    /**
+     * 事件类型，每种对应一个独立的 JFR 事件。
+     */
+    public enum Kind {
+        SESSION_START,
+        SESSION_STOP,
+        CYCLE_SWITCH,
+        TELEPORT_BATCH,
+        PERSISTENCE_FLUSH,
+        CONFIG_RELOAD,
+        CAPABILITY_HANDSHAKE
+    }
+
+    /**
+     * 一次正在计时的操作。
+     */
+    public interface Span {
+
+        /**
+         * @return 事件是否会被记录。字段需要额外计算时可以先检查它
+         */
+        boolean isActive();
+
+        /**
+         * 结束计时并提交事件。参数均可为 null。
+         */
+        void finish(String viewer, String target, String mode);
+    }
+
+    private static final Span NOOP = new Span() {
+        @Override
+        public boolean isActive() {
+            return false;
+        }
+
+        @Override
+        public void finish(String viewer, String target, String mode) {
+        }
+    };
+
+    private static volatile boolean enabled;
+
+    private SpectateJfr() {
+    }
+
+    /**
+     * 按配置开启或关闭事件。服务器启动和配置重载后调用。
+     */
+    public static void configure(boolean enable) {
+        //#if MC >= 11700
+        if (enable && !enabled) {
+            SpectateMod.LOGGER.info("[Spectate] 已启用 JFR 事件（类别 Spectate）");
+        }
+        enabled = enable;
+        //#else
+        //$$if (enable) {
+        //$$    SpectateMod.LOGGER.warn("[Spectate] 当前版本不支持 JFR 事件，jfr_events_enabled 将被忽略");
+        //$$}
+        //$$enabled = false;
+        //#endif
+    }
+
+    /**
+     * 开始一次操作的计时。
+     */
+    public static Span begin(Kind kind) {
+        if (!enabled) {
+            return NOOP;
+        }
+        //#if MC >= 11700
+        return SpectateJfrEvents.begin(kind);
+        //#else
+        //$$return NOOP;
+        //#endif
+    }
+}
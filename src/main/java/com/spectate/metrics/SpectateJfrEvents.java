@@ -0,0 +1,123 @@
+package com.spectate.metrics;
+
+//#if MC >= 11700
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+//#endif
+
+/**
+ * {@link SpectateJfr} 的事件类型定义。只有事件开启后才会被加载，避免在没有 jdk.jfr 的环境中出错。
+ */
+final class SpectateJfrEvents {
+
+    private SpectateJfrEvents() {
+    }
+
+    //#if MC >= 11700
+    static SpectateJfr.Span begin(SpectateJfr.Kind kind) {
+        SpectateEvent event;
+        switch (kind) {
+            case SESSION_START:
+                event = new SessionStartEvent();
+                break;
+            case SESSION_STOP:
+                event = new SessionStopEvent();
+                break;
+            case CYCLE_SWITCH:
+                event = new CycleSwitchEvent();
+                break;
+            case TELEPORT_BATCH:
+                event = new TeleportBatchEvent();
+                break;
+            case PERSISTENCE_FLUSH:
+                event = new PersistenceFlushEvent();
+                break;
+            case CONFIG_RELOAD:
+                event = new ConfigReloadEvent();
+                break;
+            case CAPABILITY_HANDSHAKE:
+                event = new CapabilityHandshakeEvent();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown event kind: " + kind);
+        }
+        event.begin();
+        return event;
+    }
+
+    @Category("Spectate")
+    @StackTrace(false)
+    abstract static class SpectateEvent extends Event implements SpectateJfr.Span {
+        @Label("Viewer")
+        String viewer;
+
+        @Label("Target")
+        String target;
+
+        @Label("Mode")
+        String mode;
+
+        @Override
+        public boolean isActive() {
+            return isEnabled();
+        }
+
+        @Override
+        public void finish(String viewer, String target, String mode) {
+            end();
+            if (shouldCommit()) {
+                this.viewer = viewer;
+                this.target = target;
+                this.mode = mode;
+                commit();
+            }
+        }
+    }
+
+    @Name("spectate.SessionStart")
+    @Label("Spectate Session Start")
+    @Description("切换到旁观模式并启动会话任务")
+    static final class SessionStartEvent extends SpectateEvent {
+    }
+
+    @Name("spectate.SessionStop")
+    @Label("Spectate Session Stop")
+    @Description("结束旁观并恢复玩家原始状态")
+    static final class SessionStopEvent extends SpectateEvent {
+    }
+
+    @Name("spectate.CycleSwitch")
+    @Label("Spectate Cycle Switch")
+    @Description("循环模式切换到下一个观察目标")
+    static final class CycleSwitchEvent extends SpectateEvent {
+    }
+
+    @Name("spectate.TeleportBatch")
+    @Label("Spectate Camera Teleport Batch")
+    @Description("一次会话更新中的视角计算和传送")
+    static final class TeleportBatchEvent extends SpectateEvent {
+    }
+
+    @Name("spectate.PersistenceFlush")
+    @Label("Spectate Persistence Flush")
+    @Description("把待写入的数据写盘，目标为写入的存储")
+    static final class PersistenceFlushEvent extends SpectateEvent {
+    }
+
+    @Name("spectate.ConfigReload")
+    @Label("Spectate Config Reload")
+    @Description("重新加载配置文件")
+    static final class ConfigReloadEvent extends SpectateEvent {
+    }
+
+    @Name("spectate.CapabilityHandshake")
+    @Label("Spectate Capability Handshake")
+    @Description("处理客户端的平滑旁观能力声明")
+    static final class CapabilityHandshakeEvent extends SpectateEvent {
+    }
+    //#endif
+}
@@ -0,0 +1,211 @@
+package com.spectate.metrics;
+
+import com.spectate.SpectateMod;
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 常开的轻量级热路径指标：关键操作的耗时直方图和计数器。
+ * 记录只涉及无锁累加，可在服务器线程和观察调度线程上直接调用。
+ * 可选地按固定间隔把累计值追加到 config/spectate/metrics.csv，供离线分析。
+ */
+public final class SpectateMetrics {
+
+    /**
+     * 计时的操作。
+     */
+    public enum Timer {
+        SESSION_UPDATE("session_update", "会话更新"),
+        TELEPORT("teleport", "传送"),
+        PACKET_SEND("packet_send", "发包"),
+        PERSISTENCE_FLUSH("persistence_flush", "持久化写盘"),
+        CYCLE_SWITCH("cycle_switch", "循环切换");
+
+        private final String id;
+        private final String displayName;
+
+        Timer(String id, String displayName) {
+            this.id = id;
+            this.displayName = displayName;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 只计数的事件。
+     */
+    public enum Counter {
+        STATE_PACKETS("state_packets", "状态包"),
+        PARAMS_PACKETS("params_packets", "参数包"),
+        TARGET_UPDATE_PACKETS("target_update_packets", "目标更新包"),
+        ACTION_BARS_SENT("action_bars_sent", "ActionBar 发送"),
+        ACTION_BARS_SKIPPED("action_bars_skipped", "ActionBar 跳过"),
+        BUDGET_SHED("budget_shed", "超预算舍弃"),
+        STATE_BYTES("state_bytes", "状态包字节"),
+        PARAMS_BYTES("params_bytes", "参数包字节"),
+        TARGET_UPDATE_BYTES("target_update_bytes", "目标更新包字节");
+
+        private final String id;
+        private final String displayName;
+
+        Counter(String id, String displayName) {
+            this.id = id;
+            this.displayName = displayName;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static final String CSV_FILE_NAME = "metrics.csv";
+
+    private static final LatencyRecorder[] TIMERS = new LatencyRecorder[Timer.values().length];
+    private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+
+    static {
+        for (int i = 0; i < TIMERS.length; i++) {
+            TIMERS[i] = new LatencyRecorder();
+        }
+        for (int i = 0; i < COUNTERS.length; i++) {
+            COUNTERS[i] = new LongAdder();
+        }
+    }
+
+    private static final Object CSV_LOCK = new Object();
+    private static ScheduledExecutorService csvExecutor;
+    private static ScheduledFuture<?> csvFuture;
+
+    private SpectateMetrics() {
+    }
+
+    /**
+     * 开始计时，返回值交给 {@link #record(Timer, long)}。
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 记录从 startNanos 到现在的耗时。
+     *
+     * @return 记录的耗时（纳秒），供调用方复用
+     */
+    public static long record(Timer timer, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        TIMERS[timer.ordinal()].record(elapsed);
+        return elapsed;
+    }
+
+    public static void increment(Counter counter) {
+        COUNTERS[counter.ordinal()].increment();
+    }
+
+    public static void add(Counter counter, long amount) {
+        COUNTERS[counter.ordinal()].add(amount);
+    }
+
+    public static LatencyRecorder.Snapshot snapshot(Timer timer) {
+        return TIMERS[timer.ordinal()].snapshot();
+    }
+
+    public static long get(Counter counter) {
+        return COUNTERS[counter.ordinal()].sum();
+    }
+
+    /**
+     * 清空所有指标。
+     */
+    public static void reset() {
+        for (LatencyRecorder recorder : TIMERS) {
+            recorder.reset();
+        }
+        for (LongAdder counter : COUNTERS) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * 按间隔把指标追加写入 CSV 文件；间隔不大于 0 时停止写入。服务器启动或配置重载后调用。
+     *
+     * @param intervalSeconds 写入间隔，单位：秒
+     */
+    public static void configureCsvDump(int intervalSeconds) {
+        synchronized (CSV_LOCK) {
+            if (csvFuture != null) {
+                csvFuture.cancel(false);
+                csvFuture = null;
+            }
+            if (intervalSeconds <= 0) {
+                return;
+            }
+            if (csvExecutor == null) {
+                csvExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "SpectateMetricsWriter");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            Path file = FabricLoader.getInstance().getConfigDir().resolve("spectate").resolve(CSV_FILE_NAME);
+            csvFuture = csvExecutor.scheduleAtFixedRate(() -> writeCsv(file),
+                    intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 停止 CSV 写入。服务器停止时调用。
+     */
+    public static void stopCsvDump() {
+        configureCsvDump(0);
+    }
+
+    private static void writeCsv(Path file) {
+        try {
+            Files.createDirectories(file.getParent());
+            boolean newFile = Files.notExists(file);
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (newFile) {
+                    writer.write("timestamp,metric,count,mean_us,p50_us,p90_us,p99_us,p999_us,max_us\n");
+                }
+                long now = System.currentTimeMillis();
+                for (Timer timer : Timer.values()) {
+                    LatencyRecorder.Snapshot s = snapshot(timer);
+                    writer.write(String.format(Locale.ROOT, "%d,%s,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f\n",
+                            now, timer.getId(), s.getCount(), s.getMean() / 1000.0,
+                            s.getPercentile(0.50) / 1000.0, s.getPercentile(0.90) / 1000.0,
+                            s.getPercentile(0.99) / 1000.0, s.getPercentile(0.999) / 1000.0,
+                            s.getMax() / 1000.0));
+                }
+                for (Counter counter : Counter.values()) {
+                    writer.write(now + "," + counter.getId() + "," + get(counter) + ",,,,,,\n");
+                }
+            }
+        } catch (IOException e) {
+            SpectateMod.LOGGER.error("[Spectate] 写入指标文件失败", e);
+        }
+    }
+}
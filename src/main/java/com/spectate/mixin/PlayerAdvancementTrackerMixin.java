@@ -0,0 +1,45 @@
+package com.spectate.mixin;
+
+import com.spectate.service.CutEventCollector;
+//#if MC >= 12100
+import net.minecraft.advancement.AdvancementEntry;
+//#else
+//$$import net.minecraft.advancement.Advancement;
+//#endif
+import net.minecraft.advancement.PlayerAdvancementTracker;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * 玩家完成进度事件，用于循环观察的事件切换
+ */
+@Mixin(PlayerAdvancementTracker.class)
+public abstract class PlayerAdvancementTrackerMixin {
+
+    @Shadow
+    private ServerPlayerEntity owner;
+
+    //#if MC >= 12100
+    @Inject(method = "grantCriterion", at = @At("RETURN"))
+    private void spectate$onGrantCriterion(AdvancementEntry advancement, String criterionName, CallbackInfoReturnable<Boolean> cir) {
+        // 只关心会显示的进度（配方解锁等隐藏进度没有 display）
+        if (cir.getReturnValueZ() && advancement.value().display().isPresent()
+                && ((PlayerAdvancementTracker) (Object) this).getProgress(advancement).isDone()) {
+            CutEventCollector.getInstance().onAdvancement(owner);
+        }
+    }
+    //#else
+    //$$@Inject(method = "grantCriterion", at = @At("RETURN"))
+    //$$private void spectate$onGrantCriterion(Advancement advancement, String criterionName, CallbackInfoReturnable<Boolean> cir) {
+    //$$    // 只关心会显示的进度（配方解锁等隐藏进度没有 display）
+    //$$    if (cir.getReturnValueZ() && advancement.getDisplay() != null
+    //$$            && ((PlayerAdvancementTracker) (Object) this).getProgress(advancement).isDone()) {
+    //$$        CutEventCollector.getInstance().onAdvancement(owner);
+    //$$    }
+    //$$}
+    //#endif
+}
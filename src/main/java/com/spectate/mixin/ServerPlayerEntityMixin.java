@@ -0,0 +1,37 @@
+package com.spectate.mixin;
+
+import com.spectate.service.CutEventCollector;
+import net.minecraft.entity.damage.DamageSource;
+import net.minecraft.server.network.ServerPlayerEntity;
+//#if MC >= 12102
+import net.minecraft.server.world.ServerWorld;
+//#endif
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * 玩家死亡与受伤事件，用于循环观察的事件切换
+ */
+@Mixin(ServerPlayerEntity.class)
+public abstract class ServerPlayerEntityMixin {
+
+    @Inject(method = "onDeath", at = @At("TAIL"))
+    private void spectate$onDeath(DamageSource damageSource, CallbackInfo ci) {
+        CutEventCollector.getInstance().onPlayerDeath((ServerPlayerEntity) (Object) this, damageSource.getAttacker());
+    }
+
+    //#if MC >= 12102
+    @Inject(method = "damage", at = @At("RETURN"))
+    private void spectate$onDamage(ServerWorld world, DamageSource source, float amount, CallbackInfoReturnable<Boolean> cir) {
+    //#else
+    //$$@Inject(method = "damage", at = @At("RETURN"))
+    //$$private void spectate$onDamage(DamageSource source, float amount, CallbackInfoReturnable<Boolean> cir) {
+    //#endif
+        if (cir.getReturnValueZ()) {
+            CutEventCollector.getInstance().onPlayerDamaged((ServerPlayerEntity) (Object) this, source.getAttacker());
+        }
+    }
+}
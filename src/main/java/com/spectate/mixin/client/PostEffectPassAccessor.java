@@ -0,0 +1,20 @@
+package com.spectate.mixin.client;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Pseudo;
+//#if MC >= 12107
+//$$ import org.spongepowered.asm.mixin.gen.Accessor;
+//#endif
+
+/**
+ * Accessor for the per-pass uniform buffers introduced in MC 1.21.7.
+ * Empty on older versions, where uniforms can still be set through the public API.
+ */
+@Pseudo
+@Mixin(targets = "net.minecraft.client.gl.PostEffectPass")
+public interface PostEffectPassAccessor {
+    //#if MC >= 12107
+    //$$ @Accessor("uniformBuffers")
+    //$$ java.util.Map<String, com.mojang.blaze3d.buffers.GpuBuffer> spectate$getUniformBuffers();
+    //#endif
+}
@@ -0,0 +1,20 @@
+package com.spectate.mixin.client;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Pseudo;
+//#if MC >= 12107
+//$$ import org.spongepowered.asm.mixin.gen.Accessor;
+//#endif
+
+/**
+ * Accessor for PostEffectProcessor passes (MC 1.21.7+ uniform buffer path).
+ * Empty on older versions, where uniforms can still be set through the public API.
+ */
+@Pseudo
+@Mixin(targets = "net.minecraft.client.gl.PostEffectProcessor")
+public interface PostEffectProcessorAccessor {
+    //#if MC >= 12107
+    //$$ @Accessor("passes")
+    //$$ java.util.List<?> spectate$getPasses();
+    //#endif
+}
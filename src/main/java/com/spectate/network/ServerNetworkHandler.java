@@ -1,6 +1,8 @@
 package com.spectate.network;
 
 import com.spectate.SpectateMod;
+import com.spectate.metrics.SpectateJfr;
+import com.spectate.metrics.SpectateMetrics;
 import com.spectate.network.packet.ClientCapabilityPayload;
 import com.spectate.network.packet.SpectateParamsPayload;
 import com.spectate.network.packet.SpectateStatePayload;
@@ -21,6 +23,10 @@ public class ServerNetworkHandler {
 
     private static final ServerNetworkHandler INSTANCE = new ServerNetworkHandler();
 
+    // 定长负载的编码长度：参数包 8 个 double 加 1 个 long，目标更新包 6 个 double 加 1 个 long
+    private static final int PARAMS_PAYLOAD_BYTES = 8 * 8 + 8;
+    private static final int TARGET_UPDATE_PAYLOAD_BYTES = 6 * 8 + 8;
+
     public static ServerNetworkHandler getInstance() {
         return INSTANCE;
     }
@@ -97,6 +103,7 @@ public class ServerNetworkHandler {
      */
     private void handleClientCapability(ServerPlayerEntity player, ClientCapabilityPayload payload) {
         UUID playerId = player.getUuid();
+        SpectateJfr.Span span = SpectateJfr.begin(SpectateJfr.Kind.CAPABILITY_HANDSHAKE);
 
         if (payload.hasSmoothSpectate()) {
             ClientCapability capability = new ClientCapability(
@@ -120,6 +127,7 @@ public class ServerNetworkHandler {
         } else {
             smoothClients.remove(playerId);
         }
+        span.finish(player.getGameProfile().getName(), null, payload.hasSmoothSpectate() ? "smooth" : "vanilla");
     }
 
     /**
@@ -151,6 +159,59 @@ public class ServerNetworkHandler {
         return smoothClients.get(playerId);
     }
 
+    /**
+     * 旁观相关包的实际发送方式。
+     * 服务器上是 {@link #NETWORK}；无头负载模拟换成只编码计数的实现，
+     * 这样模拟统计到的包数、字节数和发送耗时走的是与服务器相同的代码路径。
+     *
+     * @param <V> 接收方类型
+     */
+    public interface PacketSink<V> {
+        void send(V viewer, SpectateStatePayload payload);
+
+        void send(V viewer, SpectateParamsPayload payload);
+
+        void send(V viewer, TargetUpdatePayload payload);
+    }
+
+    /**
+     * 通过 Fabric 网络层发送给玩家。
+     */
+    public static final PacketSink<ServerPlayerEntity> NETWORK = new PacketSink<ServerPlayerEntity>() {
+        @Override
+        public void send(ServerPlayerEntity player, SpectateStatePayload payload) {
+            //#if MC >= 12005
+            ServerPlayNetworking.send(player, payload);
+            //#else
+            //$$net.minecraft.network.PacketByteBuf buf = net.fabricmc.fabric.api.networking.v1.PacketByteBufs.create();
+            //$$payload.write(buf);
+            //$$ServerPlayNetworking.send(player, SpectateNetworking.STATE_PACKET_ID, buf);
+            //#endif
+        }
+
+        @Override
+        public void send(ServerPlayerEntity player, SpectateParamsPayload payload) {
+            //#if MC >= 12005
+            ServerPlayNetworking.send(player, payload);
+            //#else
+            //$$net.minecraft.network.PacketByteBuf buf = net.fabricmc.fabric.api.networking.v1.PacketByteBufs.create();
+            //$$payload.write(buf);
+            //$$ServerPlayNetworking.send(player, SpectateNetworking.PARAMS_PACKET_ID, buf);
+            //#endif
+        }
+
+        @Override
+        public void send(ServerPlayerEntity player, TargetUpdatePayload payload) {
+            //#if MC >= 12005
+            ServerPlayNetworking.send(player, payload);
+            //#else
+            //$$net.minecraft.network.PacketByteBuf buf = net.fabricmc.fabric.api.networking.v1.PacketByteBufs.create();
+            //$$payload.write(buf);
+            //$$ServerPlayNetworking.send(player, SpectateNetworking.TARGET_UPDATE_PACKET_ID, buf);
+            //#endif
+        }
+    };
+
     /**
      * 发送旁观状态包到客户端
      */
@@ -158,14 +219,7 @@ public class ServerNetworkHandler {
         if (!hasSmoothCapability(player.getUuid())) {
             return;
         }
-
-        //#if MC >= 12005
-        ServerPlayNetworking.send(player, payload);
-        //#else
-        //$$net.minecraft.network.PacketByteBuf buf = net.fabricmc.fabric.api.networking.v1.PacketByteBufs.create();
-        //$$payload.write(buf);
-        //$$ServerPlayNetworking.send(player, SpectateNetworking.STATE_PACKET_ID, buf);
-        //#endif
+        sendStatePacket(NETWORK, player, payload);
     }
 
     /**
@@ -175,14 +229,7 @@ public class ServerNetworkHandler {
         if (!hasSmoothCapability(player.getUuid())) {
             return;
         }
-
-        //#if MC >= 12005
-        ServerPlayNetworking.send(player, payload);
-        //#else
-        //$$net.minecraft.network.PacketByteBuf buf = net.fabricmc.fabric.api.networking.v1.PacketByteBufs.create();
-        //$$payload.write(buf);
-        //$$ServerPlayNetworking.send(player, SpectateNetworking.PARAMS_PACKET_ID, buf);
-        //#endif
+        sendParamsPacket(NETWORK, player, payload);
     }
 
     /**
@@ -192,13 +239,55 @@ public class ServerNetworkHandler {
         if (!hasSmoothCapability(player.getUuid())) {
             return;
         }
+        sendTargetUpdatePacket(NETWORK, player, payload);
+    }
 
-        //#if MC >= 12005
-        ServerPlayNetworking.send(player, payload);
-        //#else
-        //$$net.minecraft.network.PacketByteBuf buf = net.fabricmc.fabric.api.networking.v1.PacketByteBufs.create();
-        //$$payload.write(buf);
-        //$$ServerPlayNetworking.send(player, SpectateNetworking.TARGET_UPDATE_PACKET_ID, buf);
-        //#endif
+    /**
+     * 通过指定的发送方式发送状态包并记录指标，不检查客户端能力。
+     */
+    public static <V> void sendStatePacket(PacketSink<V> sink, V viewer, SpectateStatePayload payload) {
+        long start = SpectateMetrics.start();
+        sink.send(viewer, payload);
+        SpectateMetrics.record(SpectateMetrics.Timer.PACKET_SEND, start);
+        SpectateMetrics.increment(SpectateMetrics.Counter.STATE_PACKETS);
+        SpectateMetrics.add(SpectateMetrics.Counter.STATE_BYTES, estimateStateSize(payload));
+    }
+
+    /**
+     * 通过指定的发送方式发送参数包并记录指标，不检查客户端能力。
+     */
+    public static <V> void sendParamsPacket(PacketSink<V> sink, V viewer, SpectateParamsPayload payload) {
+        long start = SpectateMetrics.start();
+        sink.send(viewer, payload);
+        SpectateMetrics.record(SpectateMetrics.Timer.PACKET_SEND, start);
+        SpectateMetrics.increment(SpectateMetrics.Counter.PARAMS_PACKETS);
+        SpectateMetrics.add(SpectateMetrics.Counter.PARAMS_BYTES, PARAMS_PAYLOAD_BYTES);
+    }
+
+    /**
+     * 通过指定的发送方式发送目标位置更新包并记录指标，不检查客户端能力。
+     */
+    public static <V> void sendTargetUpdatePacket(PacketSink<V> sink, V viewer, TargetUpdatePayload payload) {
+        long start = SpectateMetrics.start();
+        sink.send(viewer, payload);
+        SpectateMetrics.record(SpectateMetrics.Timer.PACKET_SEND, start);
+        SpectateMetrics.increment(SpectateMetrics.Counter.TARGET_UPDATE_PACKETS);
+        SpectateMetrics.add(SpectateMetrics.Counter.TARGET_UPDATE_BYTES, TARGET_UPDATE_PAYLOAD_BYTES);
+    }
+
+    /**
+     * 估算状态包负载的编码长度，不实际编码。维度 ID 只含 ASCII 字符。
+     */
+    private static int estimateStateSize(SpectateStatePayload payload) {
+        int size = 1 + 1 + 1 + 1 + 1; // action、isPoint、两个存在标记、viewMode
+        if (payload.targetId() != null) {
+            size += 16;
+        }
+        if (payload.pointPos() != null) {
+            size += 8;
+        }
+        int length = payload.dimension().length();
+        size += (length < 128 ? 1 : 2) + length;
+        return size;
     }
 }
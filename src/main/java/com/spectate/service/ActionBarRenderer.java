@@ -0,0 +1,289 @@
+package com.spectate.service;
+
+import com.spectate.config.ConfigManager;
+import com.spectate.metrics.SpectateMetrics;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * 旁观者 ActionBar 的渲染器。
+ * 提示分为两部分：按观察目标共享的片段（名称、血量、方块坐标）和每个旁观者自己的循环倒计时后缀。
+ * 共享片段每个服务器 tick 最多读取一次目标状态，字段不变时不重新拼接，同一目标的所有旁观者共用；
+ * 没有后缀时直接复用片段对应的同一个 Text。
+ * 每个旁观者记录上次发送的片段和倒计时，只有可见内容变化时才发送，发送频率不超过配置的最小间隔；
+ * 内容不变时仅按保活间隔重发，避免客户端上的提示淡出。
+ * 所有渲染方法只在观察调度线程上调用。
+ * <p>
+ * 消息的创建和发送交给 {@link Sink}，时钟和最小间隔也由构造方传入，无头负载模拟用虚拟旁观者驱动同一套逻辑。
+ *
+ * @param <V> 旁观者类型
+ */
+final class ActionBarRenderer<V> {
+
+    // 原版 ActionBar 显示约 3 秒后开始淡出，保活间隔要比它短
+    private static final long KEEPALIVE_MS = 2000L;
+    // 超过这个时间没有被任何旁观者使用的共享片段会被清理
+    private static final long FRAGMENT_EXPIRE_MS = 10000L;
+
+    /** 表示没有循环倒计时 */
+    static final int NO_COUNTDOWN = -1;
+
+    /**
+     * ActionBar 的接收方。
+     *
+     * @param <V> 旁观者类型
+     */
+    interface Sink<V> {
+        UUID id(V viewer);
+
+        /** 把提示文本包装成要发送的消息，结果会被缓存复用 */
+        Text message(String text);
+
+        void send(V viewer, Text message);
+    }
+
+    /**
+     * 发送给服务器上的玩家，最小间隔读取当前配置。
+     */
+    static ActionBarRenderer<ServerPlayerEntity> forPlayers() {
+        return new ActionBarRenderer<>(new Sink<ServerPlayerEntity>() {
+            @Override
+            public UUID id(ServerPlayerEntity viewer) {
+                return viewer.getUuid();
+            }
+
+            @Override
+            public Text message(String text) {
+                //#if MC >= 11900
+                return Text.literal(text);
+                //#else
+                //$$return new net.minecraft.text.LiteralText(text);
+                //#endif
+            }
+
+            @Override
+            public void send(ServerPlayerEntity viewer, Text message) {
+                viewer.sendMessage(message, true);
+            }
+        }, System::currentTimeMillis, () -> ConfigManager.getInstance().getConfig().settings.action_bar_min_interval_ms);
+    }
+
+    private static final Fragment OFFLINE = new Fragment("§c目标已离线");
+
+    // 目标玩家 UUID 或观察点描述 -> 共享片段
+    private final Map<Object, Fragment> fragments = new ConcurrentHashMap<>();
+    private final Map<UUID, ViewerState> states = new ConcurrentHashMap<>();
+    // 调度器是单线程的，拼接缓冲区可以复用
+    private final StringBuilder buffer = new StringBuilder(96);
+    private final Sink<V> sink;
+    private final LongSupplier clock;
+    private final IntSupplier minIntervalMs;
+    private long lastSweepAt;
+
+    /**
+     * @param sink 消息的创建和发送
+     * @param clock 毫秒时钟
+     * @param minIntervalMs 内容变化时两次发送之间的最小间隔
+     */
+    ActionBarRenderer(Sink<V> sink, LongSupplier clock, IntSupplier minIntervalMs) {
+        this.sink = sink;
+        this.clock = clock;
+        this.minIntervalMs = minIntervalMs;
+    }
+
+    /**
+     * 同一观察目标的所有旁观者共享的提示片段。
+     * 内容变化时 text 换成新的字符串，旁观者按引用比较即可判断是否需要重发。
+     */
+    private static final class Fragment {
+        String text;
+        private Text message; // text 对应的消息，在没有后缀的旁观者第一次需要时创建
+
+        // 目标玩家的字段，观察点片段不使用
+        String label;
+        int healthTenths;
+        int maxHealthTenths;
+        int x, y, z;
+        int tick = -1;
+        long lastUsedAt;
+
+        Fragment() {
+        }
+
+        Fragment(String text) {
+            this.text = text;
+        }
+
+        Text message(Sink<?> sink) {
+            if (message == null) {
+                message = sink.message(text);
+            }
+            return message;
+        }
+
+        void setText(String text) {
+            this.text = text;
+            this.message = null;
+        }
+    }
+
+    /**
+     * 上次发送给某个旁观者的内容。
+     */
+    private static final class ViewerState {
+        String fragmentText;
+        int countdown = NO_COUNTDOWN;
+        boolean dirty = true;
+        long lastSentAt;
+    }
+
+    void renderPoint(V viewer, String description, int countdown) {
+        long now = clock.getAsLong();
+        Fragment fragment = fragments.computeIfAbsent("point:" + description,
+                k -> new Fragment("§e正在观察: §f" + description));
+        fragment.lastUsedAt = now;
+        render(viewer, fragment, countdown, now);
+    }
+
+    void renderPlayer(V viewer, ServerPlayerEntity target, int countdown) {
+        long now = clock.getAsLong();
+        Fragment fragment = fragments.computeIfAbsent(target.getUuid(), k -> new Fragment());
+        MinecraftServer server = target.getServer();
+        if (claimTick(fragment, server != null ? server.getTicks() : -1)) {
+            updatePlayerFragment(fragment, target.getName().getString(),
+                    Math.round(target.getHealth() * 10f), Math.round(target.getMaxHealth() * 10f),
+                    (int) Math.round(target.getX()), (int) Math.round(target.getY()), (int) Math.round(target.getZ()));
+        }
+        fragment.lastUsedAt = now;
+        render(viewer, fragment, countdown, now);
+    }
+
+    /**
+     * 与 {@link #renderPlayer} 相同，目标状态由调用方直接给出。
+     *
+     * @param targetKey 目标的唯一标识，同一目标的旁观者共享片段
+     * @param tick 当前服务器 tick，同一 tick 内只读取一次目标状态
+     */
+    void renderTarget(V viewer, Object targetKey, int tick, String name, float health, float maxHealth,
+                      double x, double y, double z, int countdown) {
+        long now = clock.getAsLong();
+        Fragment fragment = fragments.computeIfAbsent(targetKey, k -> new Fragment());
+        if (claimTick(fragment, tick)) {
+            updatePlayerFragment(fragment, name, Math.round(health * 10f), Math.round(maxHealth * 10f),
+                    (int) Math.round(x), (int) Math.round(y), (int) Math.round(z));
+        }
+        fragment.lastUsedAt = now;
+        render(viewer, fragment, countdown, now);
+    }
+
+    void renderOffline(V viewer, int countdown) {
+        render(viewer, OFFLINE, countdown, clock.getAsLong());
+    }
+
+    /**
+     * 丢弃旁观者的发送记录，下次渲染会立即发送。观察结束时调用。
+     */
+    void reset(UUID viewerId) {
+        states.remove(viewerId);
+    }
+
+    /**
+     * 同一 tick 内其他旁观者已经读过目标状态时返回 false，直接复用片段。
+     */
+    private static boolean claimTick(Fragment fragment, int tick) {
+        if (tick >= 0 && fragment.tick == tick) {
+            return false;
+        }
+        fragment.tick = tick;
+        return true;
+    }
+
+    private void updatePlayerFragment(Fragment fragment, String name, int healthTenths, int maxHealthTenths,
+                                      int x, int y, int z) {
+        if (fragment.text != null && name.equals(fragment.label)
+                && fragment.healthTenths == healthTenths && fragment.maxHealthTenths == maxHealthTenths
+                && fragment.x == x && fragment.y == y && fragment.z == z) {
+            return;
+        }
+        fragment.label = name;
+        fragment.healthTenths = healthTenths;
+        fragment.maxHealthTenths = maxHealthTenths;
+        fragment.x = x;
+        fragment.y = y;
+        fragment.z = z;
+
+        StringBuilder sb = buffer;
+        sb.setLength(0);
+        sb.append("§e正在观察: §f").append(name).append("  ");
+        // 与原先按原始血量比较一致：低于 30% 红色，低于 70% 黄色
+        if (healthTenths * 10 < maxHealthTenths * 3) {
+            sb.append("§c");
+        } else if (healthTenths * 10 < maxHealthTenths * 7) {
+            sb.append("§e");
+        } else {
+            sb.append("§a");
+        }
+        sb.append("❤ ");
+        appendTenths(sb, healthTenths);
+        sb.append('/');
+        appendTenths(sb, maxHealthTenths);
+        sb.append("  §b[").append(x).append(", ").append(y).append(", ").append(z).append(']');
+        fragment.setText(sb.toString());
+    }
+
+    private void render(V viewer, Fragment fragment, int countdown, long now) {
+        ViewerState state = states.computeIfAbsent(sink.id(viewer), k -> new ViewerState());
+        if (state.fragmentText != fragment.text || state.countdown != countdown) {
+            state.fragmentText = fragment.text;
+            state.countdown = countdown;
+            state.dirty = true;
+        }
+
+        long sinceLast = now - state.lastSentAt;
+        if (state.dirty) {
+            if (sinceLast < minIntervalMs.getAsInt()) {
+                SpectateMetrics.increment(SpectateMetrics.Counter.ACTION_BARS_SKIPPED);
+                return;
+            }
+        } else if (sinceLast < KEEPALIVE_MS) {
+            SpectateMetrics.increment(SpectateMetrics.Counter.ACTION_BARS_SKIPPED);
+            return;
+        }
+        state.dirty = false;
+        state.lastSentAt = now;
+
+        Text message;
+        if (countdown == NO_COUNTDOWN) {
+            message = fragment.message(sink);
+        } else {
+            StringBuilder sb = buffer;
+            sb.setLength(0);
+            sb.append(fragment.text).append("  §d[循环: ").append(countdown).append("s]");
+            message = sink.message(sb.toString());
+        }
+        long sendStart = SpectateMetrics.start();
+        sink.send(viewer, message);
+        SpectateMetrics.record(SpectateMetrics.Timer.PACKET_SEND, sendStart);
+        SpectateMetrics.increment(SpectateMetrics.Counter.ACTION_BARS_SENT);
+
+        if (now - lastSweepAt > FRAGMENT_EXPIRE_MS) {
+            lastSweepAt = now;
+            fragments.values().removeIf(f -> now - f.lastUsedAt > FRAGMENT_EXPIRE_MS);
+        }
+    }
+
+    private static void appendTenths(StringBuilder sb, int tenths) {
+        if (tenths < 0) {
+            sb.append('-');
+            tenths = -tenths;
+        }
+        sb.append(tenths / 10).append('.').append(tenths % 10);
+    }
+}
@@ -0,0 +1,135 @@
+package com.spectate.service;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.world.World;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 玩家活跃度追踪，供活跃度调度的循环观察挑选目标。
+ * 每个玩家每秒采样一次（按实体 ID 分散到 20 个 tick 中），综合移动距离、受到的伤害、
+ * 战斗状态和附近生物数量，得到一个 0~1 的平滑分数。查询只读取缓存的分数。
+ */
+public class ActivityTracker {
+
+    private static final ActivityTracker INSTANCE = new ActivityTracker();
+
+    private static final int SAMPLE_PERIOD_TICKS = 20;
+    /** 每秒移动超过该距离视为满分 */
+    private static final double FULL_MOVEMENT_BLOCKS = 8.0;
+    /** 每秒损失超过该血量视为满分 */
+    private static final double FULL_DAMAGE = 6.0;
+    /** 附近生物超过该数量视为满分 */
+    private static final double FULL_NEARBY_ENTITIES = 10.0;
+    private static final double NEARBY_RADIUS = 16.0;
+
+    private static final double MOVEMENT_WEIGHT = 0.35;
+    private static final double DAMAGE_WEIGHT = 0.25;
+    private static final double COMBAT_WEIGHT = 0.25;
+    private static final double NEARBY_WEIGHT = 0.15;
+    /** 新样本在平滑分数中的占比，约 3 秒后旧状态的影响降到 20% 以下 */
+    private static final double SMOOTHING = 0.4;
+
+    private final Map<UUID, Sample> samples = new ConcurrentHashMap<>();
+    private long tickCounter;
+
+    private ActivityTracker() {
+    }
+
+    public static ActivityTracker getInstance() {
+        return INSTANCE;
+    }
+
+    private static final class Sample {
+        private double lastX, lastY, lastZ;
+        private float lastHealth;
+        private boolean initialized;
+        private volatile double score;
+    }
+
+    /**
+     * 每个服务器 tick 调用一次，只采样本 tick 轮到的玩家。
+     */
+    public void tick(MinecraftServer server) {
+        int phase = (int) (tickCounter++ % SAMPLE_PERIOD_TICKS);
+        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+            if (Math.floorMod(player.getId(), SAMPLE_PERIOD_TICKS) == phase) {
+                sample(player);
+            }
+        }
+    }
+
+    private void sample(ServerPlayerEntity player) {
+        Sample sample = samples.computeIfAbsent(player.getUuid(), k -> new Sample());
+        double x = player.getX();
+        double y = player.getY();
+        double z = player.getZ();
+        float health = player.getHealth();
+
+        if (!sample.initialized) {
+            sample.lastX = x;
+            sample.lastY = y;
+            sample.lastZ = z;
+            sample.lastHealth = health;
+            sample.initialized = true;
+            return;
+        }
+
+        double dx = x - sample.lastX;
+        double dy = y - sample.lastY;
+        double dz = z - sample.lastZ;
+        double movement = Math.min(1.0, Math.sqrt(dx * dx + dy * dy + dz * dz) / FULL_MOVEMENT_BLOCKS);
+        double damage = Math.min(1.0, Math.max(0.0, sample.lastHealth - health) / FULL_DAMAGE);
+        double combat = player.getAttacker() != null || player.getAttacking() != null ? 1.0 : 0.0;
+
+        double nearby = 0.0;
+        if (!player.isSpectator()) {
+            //#if MC >= 11900
+            World world = player.getWorld();
+            //#else
+            //$$World world = player.getServerWorld();
+            //#endif
+            List<Entity> entities = world.getOtherEntities(player, player.getBoundingBox().expand(NEARBY_RADIUS),
+                    e -> e instanceof LivingEntity && e.isAlive());
+            nearby = Math.min(1.0, entities.size() / FULL_NEARBY_ENTITIES);
+        }
+
+        double raw = movement * MOVEMENT_WEIGHT + damage * DAMAGE_WEIGHT
+                + combat * COMBAT_WEIGHT + nearby * NEARBY_WEIGHT;
+        sample.score = sample.score + (raw - sample.score) * SMOOTHING;
+        sample.lastX = x;
+        sample.lastY = y;
+        sample.lastZ = z;
+        sample.lastHealth = health;
+    }
+
+    /**
+     * 获取玩家的活跃度分数。
+     *
+     * @return 0~1 之间的分数，未采样过的玩家返回 0
+     */
+    public double getScore(UUID playerId) {
+        Sample sample = samples.get(playerId);
+        return sample != null ? sample.score : 0.0;
+    }
+
+    /**
+     * 玩家离开服务器时移除其样本。
+     */
+    public void remove(UUID playerId) {
+        samples.remove(playerId);
+    }
+
+    /**
+     * 丢弃所有样本，下次采样重新记录起始位置。
+     */
+    public void clear() {
+        samples.clear();
+    }
+}
@@ -0,0 +1,170 @@
+package com.spectate.service;
+
+/**
+ * 服务端旁观机位的计算。
+ * <p>
+ * 只根据传入的目标位置、参数和已观察时长写出机位，不访问玩家、世界或会话，
+ * {@link SpectateSessionManager} 和无头负载模拟都调用这里，保证两边算的是同一套机位。
+ * 结果写入长度为 5 的数组：x、y、z、yaw、pitch。
+ */
+final class CameraPoses {
+
+    private CameraPoses() {
+    }
+
+    /**
+     * 计算观察点会话的机位。
+     *
+     * @param viewMode 视角模式
+     * @param pathTable 周期路径的预计算表，为 null 时按电影视角实时计算
+     * @param floatingCamera 浮游视角的摄像机，为 null 时浮游视角回退到慢速环绕
+     * @param centerX 观察点中心
+     * @param pointDistance 观察点配置的距离
+     * @param pointHeightOffset 观察点配置的高度偏移
+     * @param elapsedSeconds 已观察时长
+     * @param deltaTime 距上次更新的时间，只有浮游视角使用
+     * @param pose 输出
+     */
+    static void point(ViewMode viewMode, PointPathCache.PathTable pathTable, FloatingCamera floatingCamera,
+                      double centerX, double centerY, double centerZ,
+                      double pointDistance, double pointHeightOffset,
+                      double elapsedSeconds, double deltaTime, double[] pose) {
+        // 环绕、慢速环绕、高空俯瞰是周期路径，直接查预计算表
+        if (pathTable != null) {
+            pathTable.evaluate(elapsedSeconds, pose);
+            pose[0] += centerX;
+            pose[1] += centerY;
+            pose[2] += centerZ;
+            return;
+        }
+
+        double distance, heightOffset, angleRad;
+        switch (viewMode) {
+            case CINEMATIC_AERIAL_VIEW:
+                // 高空俯瞰
+                pose[0] = centerX;
+                pose[1] = centerY + 25.0;
+                pose[2] = centerZ;
+                break;
+
+            case CINEMATIC_SPIRAL_UP:
+                // 螺旋上升：1 度/秒，每秒上升 0.3 格
+                distance = Math.max(pointDistance, 8.0);
+                angleRad = (elapsedSeconds * 1.0) * Math.PI / 180.0;
+                heightOffset = pointHeightOffset + (elapsedSeconds * 0.3);
+                pose[0] = centerX + Math.sin(angleRad) * distance;
+                pose[1] = centerY + heightOffset;
+                pose[2] = centerZ + Math.cos(angleRad) * distance;
+                break;
+
+            case CINEMATIC_FLOATING:
+                // 浮游视角有自己的 yaw/pitch 计算
+                if (floatingCamera != null) {
+                    floatingCamera.updatePosition(centerX, centerY, centerZ, deltaTime, pose);
+                    return;
+                }
+                // 浮游摄像机未初始化时回退到慢速环绕
+                // fall through
+            case CINEMATIC_SLOW_ORBIT:
+            default:
+                // 慢速环绕，忽略观察点配置的旋转速度
+                distance = Math.max(pointDistance, 8.0);
+                heightOffset = pointHeightOffset + 2.0;
+                angleRad = (elapsedSeconds * 0.5) * Math.PI / 180.0;
+                pose[0] = centerX + Math.sin(angleRad) * distance;
+                pose[1] = centerY + heightOffset;
+                pose[2] = centerZ + Math.cos(angleRad) * distance;
+                break;
+        }
+        // 始终看向观察点中心
+        lookAt(centerX, centerY, centerZ, pose);
+    }
+
+    /**
+     * 计算玩家会话的机位。
+     *
+     * @param viewMode 视角模式
+     * @param floatingCamera 浮游视角的摄像机，为 null 时浮游视角回退到慢速环绕
+     * @param targetX 目标玩家位置
+     * @param targetYaw 目标玩家朝向，跟随视角使用
+     * @param orbitDistance 环绕视角的距离（服务端全局配置）
+     * @param orbitHeightOffset 环绕视角的高度偏移
+     * @param orbitRotationSpeed 环绕视角的旋转速度，度/秒
+     * @param elapsedSeconds 已观察时长
+     * @param deltaTime 距上次更新的时间，只有浮游视角使用
+     * @param pose 输出
+     */
+    static void player(ViewMode viewMode, FloatingCamera floatingCamera,
+                       double targetX, double targetY, double targetZ, float targetYaw,
+                       double orbitDistance, double orbitHeightOffset, double orbitRotationSpeed,
+                       double elapsedSeconds, double deltaTime, double[] pose) {
+        switch (viewMode) {
+            case FOLLOW: {
+                // 跟随：在目标朝向的后方 5 格、上方 1.5 格
+                double distance = 5.0;
+                pose[0] = targetX - Math.sin(Math.toRadians(targetYaw)) * distance;
+                pose[1] = targetY + 1.5;
+                pose[2] = targetZ + Math.cos(Math.toRadians(targetYaw)) * distance;
+                break;
+            }
+
+            case CINEMATIC_AERIAL_VIEW:
+                // 高空俯瞰
+                pose[0] = targetX;
+                pose[1] = targetY + 20.0;
+                pose[2] = targetZ;
+                break;
+
+            case CINEMATIC_SPIRAL_UP: {
+                // 螺旋上升：2 度/秒，每秒上升 0.5 格
+                double distance = 8.0;
+                double angleRad = (elapsedSeconds * 2.0) * Math.PI / 180.0;
+                pose[0] = targetX + Math.sin(angleRad) * distance;
+                pose[1] = targetY + 2.0 + (elapsedSeconds * 0.5);
+                pose[2] = targetZ + Math.cos(angleRad) * distance;
+                break;
+            }
+
+            case CINEMATIC_FLOATING:
+                // 浮游视角有自己的 yaw/pitch 计算
+                if (floatingCamera != null) {
+                    floatingCamera.updatePosition(targetX, targetY, targetZ, deltaTime, pose);
+                    return;
+                }
+                // 浮游摄像机未初始化时回退到慢速环绕
+                // fall through
+            case CINEMATIC_SLOW_ORBIT:
+                // 慢速环绕：12 格距离，1 度/秒
+                orbit(targetX, targetY, targetZ, 12.0, 3.0, 1.0, elapsedSeconds, pose);
+                break;
+
+            case ORBIT:
+            default:
+                orbit(targetX, targetY, targetZ, orbitDistance, orbitHeightOffset, orbitRotationSpeed,
+                        elapsedSeconds, pose);
+                break;
+        }
+        // 始终看向目标玩家
+        lookAt(targetX, targetY, targetZ, pose);
+    }
+
+    private static void orbit(double targetX, double targetY, double targetZ, double distance, double heightOffset,
+                              double rotationSpeed, double elapsedSeconds, double[] pose) {
+        double angleRad = 0;
+        if (rotationSpeed > 0) {
+            double periodSec = 360.0 / rotationSpeed;
+            angleRad = (elapsedSeconds % periodSec) / periodSec * 2 * Math.PI;
+        }
+        pose[0] = targetX + Math.sin(angleRad) * distance;
+        pose[1] = targetY + heightOffset;
+        pose[2] = targetZ + Math.cos(angleRad) * distance;
+    }
+
+    private static void lookAt(double x, double y, double z, double[] pose) {
+        double dx = x - pose[0];
+        double dy = y - pose[1];
+        double dz = z - pose[2];
+        pose[3] = (float) (Math.atan2(dz, dx) * 180.0 / Math.PI) - 90f;
+        pose[4] = (float) (-Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz))));
+    }
+}
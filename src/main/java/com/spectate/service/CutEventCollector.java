@@ -0,0 +1,150 @@
+package com.spectate.service;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * 收集会触发循环观察立即切换的服务器事件。
+ * 同一 tick 内同一玩家的多个事件合并为优先级最高的一个，tick 结束时由 {@link CycleService} 统一分发。
+ * 只在服务器主线程访问。
+ */
+public class CutEventCollector {
+
+    private static final CutEventCollector INSTANCE = new CutEventCollector();
+
+    private static final int REGION_CHECK_PERIOD_TICKS = 20;
+    /** 命名区域的最小半径，观察点的观察距离更大时以观察距离为准 */
+    private static final double MIN_REGION_RADIUS = 8.0;
+    private static final String NO_REGION = "";
+
+    // 本 tick 收集到的事件：玩家名 -> 优先级最高的事件
+    private final Map<String, CutTrigger> pending = new LinkedHashMap<>();
+    // 玩家当前所在的命名区域，NO_REGION 表示不在任何区域内
+    private final Map<UUID, String> currentRegions = new HashMap<>();
+    private final List<Map.Entry<String, CutTrigger>> drainBuffer = new ArrayList<>();
+    private long tickCounter;
+
+    private CutEventCollector() {
+    }
+
+    public static CutEventCollector getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 玩家死亡。优先切到死者，其次切到击杀者。
+     */
+    public void onPlayerDeath(ServerPlayerEntity victim, Entity killer) {
+        post(victim, CutTrigger.DEATH);
+        if (killer instanceof ServerPlayerEntity && killer != victim) {
+            post((ServerPlayerEntity) killer, CutTrigger.DEATH);
+        }
+    }
+
+    /**
+     * 玩家受到伤害，只有攻击者也是玩家时才算 PvP。
+     */
+    public void onPlayerDamaged(ServerPlayerEntity victim, Entity attacker) {
+        if (attacker instanceof ServerPlayerEntity && attacker != victim) {
+            post((ServerPlayerEntity) attacker, CutTrigger.PVP);
+            post(victim, CutTrigger.PVP);
+        }
+    }
+
+    /**
+     * 玩家完成了一个会显示的进度。
+     */
+    public void onAdvancement(ServerPlayerEntity player) {
+        post(player, CutTrigger.ADVANCEMENT);
+    }
+
+    private void post(ServerPlayerEntity player, CutTrigger trigger) {
+        if (!CycleService.getInstance().hasCutSubscribers(trigger)) {
+            return;
+        }
+        String name = player.getName().getString();
+        CutTrigger existing = pending.get(name);
+        if (existing == null || trigger.ordinal() < existing.ordinal()) {
+            pending.put(name, trigger);
+        }
+    }
+
+    /**
+     * 每个 tick 调用一次。每个玩家每秒检查一次所在的命名区域（按实体 ID 分散到 20 个 tick 中），
+     * 从一个区域进入另一个区域时产生事件。
+     */
+    public void tickRegions(MinecraftServer server) {
+        if (!CycleService.getInstance().hasCutSubscribers(CutTrigger.REGION)) {
+            currentRegions.clear();
+            return;
+        }
+
+        int phase = (int) (tickCounter++ % REGION_CHECK_PERIOD_TICKS);
+        for (ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+            if (Math.floorMod(player.getId(), REGION_CHECK_PERIOD_TICKS) != phase || player.isSpectator()) {
+                continue;
+            }
+            String region = findRegion(player);
+            String previous = currentRegions.put(player.getUuid(), region);
+            // 第一次检查只记录状态，不算"进入"
+            if (previous != null && !region.equals(previous) && !region.equals(NO_REGION)) {
+                post(player, CutTrigger.REGION);
+            }
+        }
+    }
+
+    /**
+     * 查找玩家所在的命名区域：同一维度内、范围覆盖玩家的最近的非默认分组观察点。
+     */
+    private String findRegion(ServerPlayerEntity player) {
+        //#if MC >= 11900
+        String dimension = player.getWorld().getRegistryKey().getValue().toString();
+        //#else
+        //$$String dimension = player.getServerWorld().getRegistryKey().getValue().toString();
+        //#endif
+        String region = SpectatePointManager.getInstance()
+                .findRegion(dimension, player.getX(), player.getY(), player.getZ(), MIN_REGION_RADIUS);
+        return region != null ? region : NO_REGION;
+    }
+
+    /**
+     * 按优先级取出并清空本 tick 收集到的事件。
+     *
+     * @param consumer 接收玩家名与事件类型
+     */
+    void drain(BiConsumer<String, CutTrigger> consumer) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, CutTrigger> entry : pending.entrySet()) {
+            drainBuffer.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+        }
+        pending.clear();
+        drainBuffer.sort(Comparator.comparingInt(e -> e.getValue().ordinal()));
+        try {
+            for (Map.Entry<String, CutTrigger> entry : drainBuffer) {
+                consumer.accept(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            drainBuffer.clear();
+        }
+    }
+
+    /**
+     * 玩家离开服务器时清理其区域状态。
+     */
+    public void onPlayerLeave(UUID playerId) {
+        currentRegions.remove(playerId);
+    }
+}
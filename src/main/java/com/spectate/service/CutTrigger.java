@@ -0,0 +1,54 @@
+package com.spectate.service;
+
+/**
+ * 触发循环观察立即切换的事件类型，声明顺序即优先级（同一 tick 内靠前的事件优先）
+ */
+public enum CutTrigger {
+    DEATH("death", "玩家死亡"),
+    PVP("pvp", "玩家互相攻击"),
+    ADVANCEMENT("advancement", "获得进度"),
+    REGION("region", "进入命名区域");
+
+    private final String name;
+    private final String displayName;
+
+    CutTrigger(String name, String displayName) {
+        this.name = name;
+        this.displayName = displayName;
+    }
+
+    /**
+     * 获取事件的内部名称。
+     *
+     * @return 名称字符串。
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取用于提示消息的中文名称。
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * 根据名称查找对应的事件类型。
+     *
+     * @param name 名称（不区分大小写）。
+     * @return 对应的事件类型，如果未找到则返回 null。
+     */
+    public static CutTrigger fromString(String name) {
+        if (name == null) {
+            return null;
+        }
+        String normalizedName = name.trim().toLowerCase();
+        for (CutTrigger trigger : values()) {
+            if (trigger.name.equals(normalizedName)) {
+                return trigger;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.spectate.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * 循环观察列表：保持插入顺序，并用哈希索引提供 O(1) 的添加、移除与查询。
+ * 修改操作加锁串行执行；读取方通过 {@link #snapshot()} 拿到不可变的数组快照，
+ * 快照只在列表变化后的第一次读取时重建，切换路径上不需要加锁。
+ * 另外维护一份前缀索引供命令补全使用。
+ */
+final class CycleList {
+
+    private static final String[] EMPTY = new String[0];
+
+    private final LinkedHashSet<String> entries = new LinkedHashSet<>();
+    private final PrefixIndex prefixIndex = new PrefixIndex();
+    private volatile String[] snapshot = EMPTY;
+    private volatile boolean snapshotStale;
+
+    /**
+     * @return 如果之前不在列表中并已添加，返回 true
+     */
+    synchronized boolean add(String entry) {
+        if (!entries.add(entry)) {
+            return false;
+        }
+        prefixIndex.add(entry);
+        snapshotStale = true;
+        return true;
+    }
+
+    /**
+     * @return 如果之前在列表中并已移除，返回 true
+     */
+    synchronized boolean remove(String entry) {
+        if (!entries.remove(entry)) {
+            return false;
+        }
+        prefixIndex.remove(entry);
+        snapshotStale = true;
+        return true;
+    }
+
+    /**
+     * 清空列表。
+     *
+     * @return 清空前的快照，供调用方同步其他索引
+     */
+    synchronized String[] clear() {
+        String[] previous = snapshot();
+        entries.clear();
+        prefixIndex.clear();
+        snapshot = EMPTY;
+        snapshotStale = false;
+        return previous;
+    }
+
+    synchronized boolean contains(String entry) {
+        return entries.contains(entry);
+    }
+
+    /**
+     * 获取当前内容的不可变快照。调用方不得修改返回的数组。
+     */
+    String[] snapshot() {
+        String[] current = snapshot;
+        if (!snapshotStale) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshotStale) {
+                snapshot = entries.toArray(EMPTY);
+                snapshotStale = false;
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 按前缀收集条目（不区分大小写），不需要加锁。
+     */
+    void collectByPrefix(String prefix, int limit, List<String> out) {
+        prefixIndex.collect(prefix, limit, out);
+    }
+
+    int size() {
+        return snapshot().length;
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    List<String> asList() {
+        return Collections.unmodifiableList(Arrays.asList(snapshot()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.spectate.service;
+
+/**
+ * 循环观察的调度方式
+ */
+public enum CycleSchedule {
+    ROUND_ROBIN("round_robin"),   // 按列表顺序轮流，固定间隔
+    ACTIVITY("activity");         // 优先切换到活跃的目标，停留时间随活跃度变化
+
+    private final String name;
+
+    CycleSchedule(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 获取调度方式的内部名称。
+     *
+     * @return 名称字符串。
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 根据名称查找对应的调度方式。
+     *
+     * @param name 名称（不区分大小写）。
+     * @return 对应的调度方式，如果未找到则返回默认的 ROUND_ROBIN。
+     */
+    public static CycleSchedule fromString(String name) {
+        if (name == null) {
+            return ROUND_ROBIN;
+        }
+
+        switch (name.trim().toLowerCase()) {
+            case "activity":
+                return ACTIVITY;
+            case "round_robin":
+            default:
+                return ROUND_ROBIN;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.spectate.service;
 
 import com.spectate.SpectateMod;
 import com.spectate.config.ConfigManager;
+import com.spectate.data.CycleSessionSnapshot;
 import com.spectate.data.PlayerPreference;
 import com.spectate.data.SpectateStateSaver;
 import net.minecraft.server.MinecraftServer;
@@ -15,14 +16,15 @@ import net.minecraft.text.Text;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 /**
  * CycleService 负责管理所有与循环观察相关的逻辑，
@@ -33,11 +35,68 @@ public class CycleService {
     private static final CycleService INSTANCE = new CycleService();
     public static CycleService getInstance() { return INSTANCE; }
 
+    private static final String PLAYER_PREFIX = "player_";
+
     private final Map<UUID, PlayerCycleSession> cycleSessions = new ConcurrentHashMap<>();
+    // 反向索引："player_名字" -> 列表中包含该条目的会话，玩家加入/离开时只更新受影响的会话
+    private final Map<String, Set<UUID>> playerEntryIndex = new ConcurrentHashMap<>();
+    // 启用了自动添加所有玩家的会话
+    private final Set<UUID> autoAddSessions = ConcurrentHashMap.newKeySet();
+    // 正在使用活跃度调度的会话，为空时不采样活跃度
+    private final Set<UUID> activitySessions = ConcurrentHashMap.newKeySet();
+    // 上一个 tick 是否采样了活跃度，只在服务器主线程访问
+    private boolean activitySampling;
+    // 每种事件的订阅会话，没有订阅者的事件不收集
+    private final Map<CutTrigger, Set<UUID>> cutSubscribers = new EnumMap<>(CutTrigger.class);
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "SpectateCycleScheduler"));
     private final ConfigManager configManager = ConfigManager.getInstance();
+    // 循环切换按 tick 调度，只在服务器主线程访问
+    private final CycleTimerWheel rotationWheel = new CycleTimerWheel();
+
+    private static final long TICKS_PER_SECOND = 20L;
+    private static final long MILLIS_PER_TICK = 50L;
+    /** 活跃度调度中"很久没看到"的目标最多获得的额外分数 */
+    private static final double STALENESS_WEIGHT = 0.5;
+    /** 事件切换前当前目标至少要停留的 tick 数，避免连续事件导致画面来回跳 */
+    private static final long MIN_CUT_DWELL_TICKS = 60L;
+    /** 活跃度调度的停留时间在 [0.75, 1.25] 倍间隔之间随活跃度变化 */
+    private static final double MIN_DWELL_FACTOR = 0.75;
+    private static final double DWELL_ACTIVITY_RANGE = 0.5;
+
+    private CycleService() {
+        for (CutTrigger trigger : CutTrigger.values()) {
+            cutSubscribers.put(trigger, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * 每个服务器 tick 结束时调用，推进时间轮并批量执行到期的循环切换。
+     */
+    public void onServerTick(MinecraftServer server) {
+        if (!activitySessions.isEmpty()) {
+            ActivityTracker.getInstance().tick(server);
+            activitySampling = true;
+        } else if (activitySampling) {
+            // 暂停期间不采样，丢弃旧的位置和分数，否则恢复后第一次采样会把整段暂停期间的移动算进一秒
+            ActivityTracker.getInstance().clear();
+            activitySampling = false;
+        }
+        CutEventCollector.getInstance().tickRegions(server);
+        dispatchCuts(server);
+        rotationWheel.advance();
+    }
 
-    private CycleService() {}
+    /**
+     * 服务器停止时调用，丢弃所有待执行的切换，并保存各会话当前看到的位置。
+     */
+    public void onServerStopped() {
+        rotationWheel.clear();
+        for (Map.Entry<UUID, PlayerCycleSession> entry : cycleSessions.entrySet()) {
+            entry.getValue().rotation = null;
+            // 自动切换和事件切镜不写盘，这里保存最新的下标
+            persist(entry.getKey(), entry.getValue());
+        }
+    }
 
 
     /**
@@ -49,47 +108,93 @@ public class CycleService {
     }
 
     private static class PlayerCycleSession {
-        private final List<String> pointList;
+        private final UUID owner;
+        private final CycleList pointList;
+        private final Map<String, Set<UUID>> playerEntryIndex;
         private int index;
-        private long intervalSeconds;
-        private ScheduledFuture<?> future;
-        private boolean running;
+        private long intervalSeconds;
+        private volatile CycleTimerWheel.Timeout rotation; // 下一次自动切换
+        private volatile boolean running;
+        private boolean resumeOnJoin; // 因玩家离线而停止，下次加入时恢复
         private ViewMode viewMode;
-        private volatile long currentPointStartTime; // 记录当前观察点开始的时间戳
+        private CycleSchedule schedule = CycleSchedule.ROUND_ROBIN;
+        private double currentActivity; // 当前目标被选中时的活跃度
+        private long lastSwitchTick = Long.MIN_VALUE / 2; // 上次切换目标的 tick
+        private final Set<CutTrigger> cutTriggers = EnumSet.noneOf(CutTrigger.class); // 订阅的切换事件，只在服务器主线程访问
+        // 每个条目上次被切换到的 tick，用于活跃度调度的轮换补偿
+        private final Map<String, Long> lastShownTick = new ConcurrentHashMap<>();
 
         // 自动添加所有玩家相关
         private boolean autoAddAllPlayers;
         private String excludePrefix;
         private String excludeSuffix;
 
-        PlayerCycleSession(ConfigManager configManager) {
-            this.pointList = new ArrayList<>();
+        PlayerCycleSession(UUID owner, ConfigManager configManager, Map<String, Set<UUID>> playerEntryIndex) {
+            this.owner = owner;
+            this.pointList = new CycleList();
+            this.playerEntryIndex = playerEntryIndex;
             this.intervalSeconds = configManager.getConfig().settings.cycle_interval_seconds;
             this.index = 0;
             this.running = false;
             this.viewMode = ViewMode.ORBIT; // 默认环绕模式
             this.autoAddAllPlayers = false;
             this.excludePrefix = null;
-            this.excludeSuffix = null;
-            this.currentPointStartTime = 0;
+            this.excludeSuffix = null;
         }
 
-        void addPoint(String pointName) {
-            if (!pointList.contains(pointName)) {
-                pointList.add(pointName);
+        /**
+         * @return 如果之前不在列表中并已添加，返回 true
+         */
+        boolean addPoint(String pointName) {
+            if (!pointList.add(pointName)) {
+                return false;
             }
+            if (pointName.startsWith(PLAYER_PREFIX)) {
+                playerEntryIndex.computeIfAbsent(pointName, k -> ConcurrentHashMap.newKeySet()).add(owner);
+            }
+            return true;
         }
 
+        /**
+         * 移除条目，并调整当前下标：移除的条目在当前位置之前时下标前移一位，仍指向同一个条目。
+         */
         void removePoint(String pointName) {
-            pointList.remove(pointName);
+            String[] before = pointList.snapshot();
+            if (!pointList.remove(pointName)) {
+                return;
+            }
+            unindex(pointName);
+            lastShownTick.remove(pointName);
+
+            int current = index % before.length;
+            for (int i = 0; i < current; i++) {
+                if (before[i].equals(pointName)) {
+                    current--;
+                    break;
+                }
+            }
+            // 移除的是末尾的当前条目时回到开头
+            index = current < pointList.size() ? current : 0;
         }
 
         void clearPoints() {
-            pointList.clear();
+            for (String pointName : pointList.clear()) {
+                unindex(pointName);
+            }
+            lastShownTick.clear();
+        }
+
+        private void unindex(String pointName) {
+            if (pointName.startsWith(PLAYER_PREFIX)) {
+                playerEntryIndex.computeIfPresent(pointName, (k, owners) -> {
+                    owners.remove(owner);
+                    return owners.isEmpty() ? null : owners;
+                });
+            }
         }
 
         List<String> getPoints() {
-            return Collections.unmodifiableList(pointList);
+            return pointList.asList();
         }
 
         boolean isEmpty() {
@@ -103,14 +208,11 @@ public class CycleService {
         void start() {
             this.running = true;
             this.index = 0;
-            this.currentPointStartTime = System.currentTimeMillis();
         }
         
-        void stop() {
-            if (future != null) {
-                future.cancel(false);
-                future = null;
-            }
+        void stop(CycleTimerWheel wheel) {
+            wheel.cancel(rotation);
+            rotation = null;
             running = false;
         }
 
@@ -122,15 +224,10 @@ public class CycleService {
             return viewMode;
         }
 
-        long getTimeRemaining() {
-            if (!running) return 0;
-            long elapsed = System.currentTimeMillis() - currentPointStartTime;
-            long remaining = (intervalSeconds * 1000) - elapsed;
-            return Math.max(0, remaining);
-        }
-
-        void updateStartTime() {
-            this.currentPointStartTime = System.currentTimeMillis();
+        long getTimeRemaining(long currentTick) {
+            CycleTimerWheel.Timeout next = rotation;
+            if (!running || next == null) return 0;
+            return Math.max(0, (next.getDeadlineTick() - currentTick) * MILLIS_PER_TICK);
         }
 
         void setAutoAddAllPlayers(boolean enabled, String excludePrefix, String excludeSuffix) {
@@ -160,10 +257,143 @@ public class CycleService {
         String getExcludeSuffix() {
             return excludeSuffix;
         }
+
+        CycleSessionSnapshot toSnapshot() {
+            CycleSessionSnapshot snapshot = new CycleSessionSnapshot();
+            snapshot.points = new ArrayList<>(getPoints());
+            snapshot.index = index;
+            snapshot.intervalSeconds = intervalSeconds;
+            snapshot.viewMode = viewMode;
+            snapshot.schedule = schedule;
+            snapshot.running = running || resumeOnJoin;
+            snapshot.autoAddAllPlayers = autoAddAllPlayers;
+            snapshot.excludePrefix = excludePrefix;
+            snapshot.excludeSuffix = excludeSuffix;
+            snapshot.cutTriggers = new ArrayList<>(cutTriggers);
+            return snapshot;
+        }
     }
 
     private PlayerCycleSession getOrCreateSession(UUID playerId) {
-        return cycleSessions.computeIfAbsent(playerId, k -> new PlayerCycleSession(configManager));
+        PlayerCycleSession session = cycleSessions.get(playerId);
+        if (session == null) {
+            session = restoreSession(playerId);
+        }
+        return session != null ? session
+                : cycleSessions.computeIfAbsent(playerId, k -> new PlayerCycleSession(k, configManager, playerEntryIndex));
+    }
+
+    /* ------------------- Persistence ------------------- */
+
+    /**
+     * 保存会话快照。只写入内存，由 {@link SpectateStateSaver} 延迟合并写盘。
+     */
+    private void persist(UUID playerId, PlayerCycleSession session) {
+        SpectateStateSaver.getInstance().saveCycleSession(playerId, session.toSnapshot());
+    }
+
+    /**
+     * 从已加载的快照重建会话，并恢复各项索引。快照在启动时已全部读入内存，这里不访问磁盘。
+     *
+     * @return 重建的会话；没有快照时返回 null
+     */
+    private PlayerCycleSession restoreSession(UUID playerId) {
+        CycleSessionSnapshot snapshot = SpectateStateSaver.getInstance().getCycleSession(playerId);
+        if (snapshot == null) {
+            return null;
+        }
+
+        PlayerCycleSession session = new PlayerCycleSession(playerId, configManager, playerEntryIndex);
+        if (snapshot.points != null) {
+            for (String pointName : snapshot.points) {
+                if (pointName != null) {
+                    session.addPoint(pointName);
+                }
+            }
+        }
+        session.index = Math.max(0, snapshot.index);
+        if (snapshot.intervalSeconds > 0) {
+            session.setInterval(snapshot.intervalSeconds);
+        }
+        session.setViewMode(snapshot.viewMode);
+        session.schedule = snapshot.schedule != null ? snapshot.schedule : CycleSchedule.ROUND_ROBIN;
+        session.resumeOnJoin = snapshot.running;
+        if (snapshot.autoAddAllPlayers) {
+            session.setAutoAddAllPlayers(true, snapshot.excludePrefix, snapshot.excludeSuffix);
+            autoAddSessions.add(playerId);
+            // 离线期间加入的玩家不会被记录，重新补上当前在线的玩家
+            MinecraftServer server = SpectateMod.getServer();
+            if (server != null) {
+                for (ServerPlayerEntity onlinePlayer : server.getPlayerManager().getPlayerList()) {
+                    String playerName = onlinePlayer.getName().getString();
+                    if (!onlinePlayer.getUuid().equals(playerId) && session.shouldIncludePlayer(playerName)) {
+                        session.addPoint(PLAYER_PREFIX + playerName);
+                    }
+                }
+            }
+        }
+        if (snapshot.cutTriggers != null) {
+            for (CutTrigger trigger : snapshot.cutTriggers) {
+                if (trigger != null) {
+                    session.cutTriggers.add(trigger);
+                    cutSubscribers.get(trigger).add(playerId);
+                }
+            }
+        }
+        cycleSessions.put(playerId, session);
+        return session;
+    }
+
+    /**
+     * 玩家断开连接前调用。如果正在循环，记录下来以便下次加入时恢复。
+     * 需要在停止循环之前调用。
+     */
+    public void markResumeOnJoin(ServerPlayerEntity player) {
+        PlayerCycleSession session = cycleSessions.get(player.getUuid());
+        if (session != null && session.running) {
+            session.resumeOnJoin = true;
+        }
+    }
+
+    /**
+     * 恢复玩家上次离线时正在进行的循环，从离开时的目标继续。
+     * 没有需要恢复的循环时什么也不做。
+     *
+     * @param player 刚加入的玩家。
+     */
+    public void resumeCycle(ServerPlayerEntity player) {
+        UUID playerId = player.getUuid();
+        PlayerCycleSession session = cycleSessions.get(playerId);
+        if (session == null) {
+            session = restoreSession(playerId);
+        }
+        if (session == null || !session.resumeOnJoin) {
+            return;
+        }
+        session.resumeOnJoin = false;
+        if (session.running || session.isEmpty()) {
+            persist(playerId, session);
+            return;
+        }
+
+        session.running = true;
+        session.index = session.index % session.pointList.size();
+        if (session.schedule == CycleSchedule.ACTIVITY) {
+            activitySessions.add(playerId);
+        }
+
+        String modeMessage = getViewModeMessage(session.getViewMode());
+        if (session.schedule == CycleSchedule.ACTIVITY) {
+            modeMessage += "，活跃度优先";
+        }
+        player.sendMessage(configManager.getFormattedMessage("cycle_resumed", Map.of("mode", modeMessage)), false);
+
+        markCurrentShown(session);
+        ServerSpectateManager.getInstance().switchToCyclePoint(player);
+        if (session.running) {
+            scheduleRotation(playerId, session);
+        }
+        persist(playerId, session);
     }
 
     /**
@@ -173,7 +403,10 @@ public class CycleService {
      * @param pointName 要添加的观察点名称（可以是预定义的点，也可以是 "player_Name" 格式）。
      */
     public void addCyclePoint(ServerPlayerEntity player, String pointName) {
-        getOrCreateSession(player.getUuid()).addPoint(pointName);
+        PlayerCycleSession session = getOrCreateSession(player.getUuid());
+        if (session.addPoint(pointName)) {
+            persist(player.getUuid(), session);
+        }
         player.sendMessage(configManager.getFormattedMessage("cycle_point_added", Map.of("name", pointName)), false);
     }
 
@@ -197,12 +430,14 @@ public class CycleService {
         PlayerCycleSession session = getOrCreateSession(player.getUuid());
         int count = 0;
         for (String pointName : groupPoints) {
-            if (!session.pointList.contains(pointName)) {
-                session.addPoint(pointName);
+            if (session.addPoint(pointName)) {
                 count++;
             }
         }
-        
+        if (count > 0) {
+            persist(player.getUuid(), session);
+        }
+
         //#if MC >= 11900
         player.sendMessage(Text.literal("§a[Spectate] 已将分组 " + group + " 中的 " + count + " 个观察点添加到循环列表。"), false);
         //#else
@@ -210,6 +445,48 @@ public class CycleService {
         //#endif
     }
 
+    /**
+     * 将玩家附近指定半径内（同一维度）的所有观察点按距离从近到远添加到循环列表中。
+     *
+     * @param player 目标玩家。
+     * @param radius 半径（方块）。
+     */
+    public void addCycleNear(ServerPlayerEntity player, double radius) {
+        //#if MC >= 11900
+        String dimension = player.getWorld().getRegistryKey().getValue().toString();
+        //#else
+        //$$String dimension = player.getServerWorld().getRegistryKey().getValue().toString();
+        //#endif
+        List<String> nearPoints = SpectatePointManager.getInstance()
+                .listPointsWithin(dimension, player.getX(), player.getY(), player.getZ(), radius);
+        String radiusText = String.valueOf((long) radius);
+        if (nearPoints.isEmpty()) {
+            //#if MC >= 11900
+            player.sendMessage(Text.literal("§c[Spectate] " + radiusText + " 格内没有任何观察点。"), false);
+            //#else
+            //$$player.sendMessage(new LiteralText("§c[Spectate] " + radiusText + " 格内没有任何观察点。"), false);
+            //#endif
+            return;
+        }
+
+        PlayerCycleSession session = getOrCreateSession(player.getUuid());
+        int count = 0;
+        for (String pointName : nearPoints) {
+            if (session.addPoint(pointName)) {
+                count++;
+            }
+        }
+        if (count > 0) {
+            persist(player.getUuid(), session);
+        }
+
+        //#if MC >= 11900
+        player.sendMessage(Text.literal("§a[Spectate] 已将 " + radiusText + " 格内的 " + count + " 个观察点添加到循环列表。"), false);
+        //#else
+        //$$player.sendMessage(new LiteralText("§a[Spectate] 已将 " + radiusText + " 格内的 " + count + " 个观察点添加到循环列表。"), false);
+        //#endif
+    }
+
     /**
      * 从玩家的循环列表中移除一个观察点。
      * 如果循环正在运行，会暂停循环，移除点后重新计算状态。
@@ -226,6 +503,7 @@ public class CycleService {
             }
 
             session.removePoint(pointName);
+            persist(player.getUuid(), session);
             player.sendMessage(configManager.getFormattedMessage("cycle_point_removed", Map.of("name", pointName)), false);
 
             if (wasRunning && !session.isEmpty()) {
@@ -244,11 +522,30 @@ public class CycleService {
         PlayerCycleSession session = cycleSessions.get(playerId);
         if (session != null) {
             session.removePoint(pointName);
-            // 调整索引，防止越界
-            if (session.index >= session.pointList.size() && !session.pointList.isEmpty()) {
-                session.index = 0;
-            }
+            persist(playerId, session);
+        }
+    }
+
+    /**
+     * 按前缀查找玩家循环列表中的条目，用于命令补全。可在任意线程调用。
+     * 玩家条目也可以直接用玩家名匹配（省略 "player_" 前缀）。
+     *
+     * @param playerId 玩家的 UUID。
+     * @param prefix 已输入的前缀。
+     * @param limit 最多返回的数量。
+     * @return 匹配的条目。
+     */
+    public List<String> suggestCyclePoints(UUID playerId, String prefix, int limit) {
+        PlayerCycleSession session = cycleSessions.get(playerId);
+        if (session == null) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        session.pointList.collectByPrefix(prefix, limit, result);
+        if (!PLAYER_PREFIX.regionMatches(true, 0, prefix, 0, Math.min(prefix.length(), PLAYER_PREFIX.length()))) {
+            session.pointList.collectByPrefix(PLAYER_PREFIX + prefix, limit, result);
         }
+        return result;
     }
 
     /**
@@ -260,6 +557,7 @@ public class CycleService {
         PlayerCycleSession session = cycleSessions.get(player.getUuid());
         if (session != null) {
             session.clearPoints();
+            persist(player.getUuid(), session);
             player.sendMessage(configManager.getMessage("cycle_cleared"), false);
         } else {
             player.sendMessage(configManager.getMessage("cycle_list_empty"), false);
@@ -284,7 +582,9 @@ public class CycleService {
      * @param intervalSeconds 间隔秒数（最小为 1）。
      */
     public void setCycleInterval(ServerPlayerEntity player, long intervalSeconds) {
-        getOrCreateSession(player.getUuid()).setInterval(intervalSeconds);
+        PlayerCycleSession session = getOrCreateSession(player.getUuid());
+        session.setInterval(intervalSeconds);
+        persist(player.getUuid(), session);
         player.sendMessage(configManager.getFormattedMessage("cycle_interval_set", Map.of("seconds", String.valueOf(intervalSeconds))), false);
     }
 
@@ -301,20 +601,36 @@ public class CycleService {
 
         startCycle(player, viewMode);
     }
+
+    /**
+     * 开始玩家的循环观察，并指定视角模式。调度方式沿用上次的偏好。
+     *
+     * @param player 目标玩家。
+     * @param viewMode 视角模式。
+     */
+    public void startCycle(ServerPlayerEntity player, ViewMode viewMode) {
+        PlayerPreference pref = SpectateStateSaver.getInstance().getPlayerPreference(player.getUuid());
+        CycleSchedule schedule = pref.lastCycleSchedule != null ? pref.lastCycleSchedule : CycleSchedule.ROUND_ROBIN;
+
+        startCycle(player, viewMode, schedule);
+    }
 
-    /**
-     * 开始玩家的循环观察，并指定视角模式。
+    /**
+     * 开始玩家的循环观察，并指定视角模式与调度方式。
      * 同时保存该偏好。
      *
      * @param player 目标玩家。
      * @param viewMode 视角模式。
+     * @param schedule 调度方式。
      */
-    public void startCycle(ServerPlayerEntity player, ViewMode viewMode) {
+    public void startCycle(ServerPlayerEntity player, ViewMode viewMode, CycleSchedule schedule) {
         ViewMode normalizedViewMode = viewMode != null ? viewMode : ViewMode.ORBIT;
+        CycleSchedule normalizedSchedule = schedule != null ? schedule : CycleSchedule.ROUND_ROBIN;
 
         // 保存偏好
         PlayerPreference pref = SpectateStateSaver.getInstance().getPlayerPreference(player.getUuid());
         pref.lastCycleViewMode = normalizedViewMode;
+        pref.lastCycleSchedule = normalizedSchedule;
         SpectateStateSaver.getInstance().savePlayerPreference(player.getUuid(), pref);
 
         PlayerCycleSession session = getOrCreateSession(player.getUuid());
@@ -324,32 +640,235 @@ public class CycleService {
         }
 
         if (session.running) {
-            session.stop();
-        }
+            session.stop(rotationWheel);
+        }
         
         // 设置视角模式
         session.setViewMode(normalizedViewMode);
+        session.schedule = normalizedSchedule;
+        session.resumeOnJoin = false;
         session.start();
+        if (normalizedSchedule == CycleSchedule.ACTIVITY) {
+            activitySessions.add(player.getUuid());
+            // 从当前最值得看的目标开始
+            session.index = pickByActivity(session, player.getServer());
+        } else {
+            activitySessions.remove(player.getUuid());
+        }
         
         // 宣布开始并附带模式信息
         String modeMessage = getViewModeMessage(normalizedViewMode);
+        if (normalizedSchedule == CycleSchedule.ACTIVITY) {
+            modeMessage += "，活跃度优先";
+        }
         player.sendMessage(configManager.getFormattedMessage("cycle_started_with_mode", 
             Map.of("mode", modeMessage)), false);
 
         // 立即切换到第一个点
+        markCurrentShown(session);
         ServerSpectateManager.getInstance().switchToCyclePoint(player);
 
         // 调度后续切换
-        session.future = scheduler.scheduleAtFixedRate(() -> {
-            MinecraftServer server = SpectateMod.getServer();
-            if (server == null) return;
-            server.execute(() -> {
-                ServerPlayerEntity onlinePlayer = server.getPlayerManager().getPlayer(player.getUuid());
-                if (onlinePlayer != null && isCycling(onlinePlayer.getUuid())) {
-                    nextCyclePoint(onlinePlayer, true); // 自动切换
+        if (session.running) {
+            scheduleRotation(player.getUuid(), session);
+        }
+        persist(player.getUuid(), session);
+    }
+
+    /**
+     * 在时间轮中安排下一次自动切换，覆盖之前的安排。
+     */
+    private void scheduleRotation(UUID playerId, PlayerCycleSession session) {
+        long delayTicks = session.intervalSeconds * TICKS_PER_SECOND;
+        if (session.schedule == CycleSchedule.ACTIVITY) {
+            // 活跃的目标多停留一会儿，安静的目标早点切走
+            double factor = MIN_DWELL_FACTOR + DWELL_ACTIVITY_RANGE * Math.min(1.0, session.currentActivity);
+            delayTicks = Math.round(delayTicks * factor);
+        }
+        rotationWheel.cancel(session.rotation);
+        session.rotation = rotationWheel.schedule(delayTicks, () -> onRotationDue(playerId, session));
+    }
+
+    /**
+     * 按活跃度挑选下一个目标：活跃度加上"多久没看"的补偿分，分数最高者胜出，
+     * 避免安静的目标永远轮不到。没有可用的候选时退回顺序轮换。
+     *
+     * @return 选中条目的索引
+     */
+    private int pickByActivity(PlayerCycleSession session, MinecraftServer server) {
+        String[] points = session.pointList.snapshot();
+        int current = points.length > 0 ? session.index % points.length : 0;
+        long now = rotationWheel.getCurrentTick();
+        // 全部条目轮一遍所需的时间内没被看过，补偿分拉满
+        double window = Math.max(1.0, (double) session.intervalSeconds * TICKS_PER_SECOND * points.length);
+
+        int best = -1;
+        double bestScore = -1.0;
+        double bestActivity = 0.0;
+        for (int i = 0; i < points.length; i++) {
+            if (i == current && points.length > 1 && session.lastShownTick.containsKey(points[i])) {
+                continue;
+            }
+            double activity = getEntryActivity(server, points[i]);
+            if (activity < 0) {
+                continue;
+            }
+            Long shownAt = session.lastShownTick.get(points[i]);
+            double staleness = shownAt == null ? 1.0 : Math.min(1.0, (now - shownAt) / window);
+            double score = activity + staleness * STALENESS_WEIGHT;
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+                bestActivity = activity;
+            }
+        }
+
+        if (best < 0) {
+            session.currentActivity = 0.0;
+            return points.length > 0 ? (current + 1) % points.length : 0;
+        }
+        session.currentActivity = bestActivity;
+        return best;
+    }
+
+    /**
+     * 获取条目的活跃度。
+     *
+     * @return 0~1 的分数；观察点固定为 0；不在线的玩家返回 -1
+     */
+    private double getEntryActivity(MinecraftServer server, String pointName) {
+        if (!pointName.startsWith(PLAYER_PREFIX)) {
+            return 0.0;
+        }
+        if (server == null) {
+            return -1.0;
+        }
+        ServerPlayerEntity target = server.getPlayerManager().getPlayer(pointName.substring(PLAYER_PREFIX.length()));
+        return target != null ? ActivityTracker.getInstance().getScore(target.getUuid()) : -1.0;
+    }
+
+    private void markCurrentShown(PlayerCycleSession session) {
+        long now = rotationWheel.getCurrentTick();
+        session.lastSwitchTick = now;
+        String[] points = session.pointList.snapshot();
+        if (points.length > 0) {
+            session.lastShownTick.put(points[session.index % points.length], now);
+        }
+    }
+
+    /* ------------------- Event Cuts ------------------- */
+
+    /**
+     * 是否有会话订阅了指定事件。
+     */
+    public boolean hasCutSubscribers(CutTrigger trigger) {
+        return !cutSubscribers.get(trigger).isEmpty();
+    }
+
+    /**
+     * 开启或关闭某种事件的立即切换。
+     *
+     * @param player 执行命令的玩家。
+     * @param trigger 事件类型。
+     * @param enabled 是否开启。
+     */
+    public void setCutTrigger(ServerPlayerEntity player, CutTrigger trigger, boolean enabled) {
+        PlayerCycleSession session = getOrCreateSession(player.getUuid());
+        if (enabled) {
+            session.cutTriggers.add(trigger);
+            cutSubscribers.get(trigger).add(player.getUuid());
+        } else {
+            session.cutTriggers.remove(trigger);
+            cutSubscribers.get(trigger).remove(player.getUuid());
+        }
+        persist(player.getUuid(), session);
+
+        //#if MC >= 11900
+        player.sendMessage(Text.literal("§a[Spectate] " + trigger.getDisplayName() + "时立即切换: " + (enabled ? "开启" : "关闭")), false);
+        //#else
+        //$$player.sendMessage(new LiteralText("§a[Spectate] " + trigger.getDisplayName() + "时立即切换: " + (enabled ? "开启" : "关闭")), false);
+        //#endif
+    }
+
+    /**
+     * 获取玩家订阅的切换事件。
+     */
+    public Set<CutTrigger> getCutTriggers(UUID playerId) {
+        PlayerCycleSession session = cycleSessions.get(playerId);
+        return session != null ? Collections.unmodifiableSet(EnumSet.copyOf(session.cutTriggers))
+                : Collections.<CutTrigger>emptySet();
+    }
+
+    /**
+     * 分发本 tick 收集到的事件。每个事件只查找列表中包含该玩家的会话，
+     * 每个会话每 tick 最多切换一次，优先级高的事件先处理。
+     */
+    private void dispatchCuts(MinecraftServer server) {
+        long now = rotationWheel.getCurrentTick();
+        CutEventCollector.getInstance().drain((playerName, trigger) -> {
+            String entry = PLAYER_PREFIX + playerName;
+            Set<UUID> owners = playerEntryIndex.get(entry);
+            if (owners == null) {
+                return;
+            }
+            Set<UUID> subscribers = cutSubscribers.get(trigger);
+            for (UUID ownerId : owners) {
+                if (!subscribers.contains(ownerId)) {
+                    continue;
                 }
-            });
-        }, session.intervalSeconds, session.intervalSeconds, TimeUnit.SECONDS);
+                PlayerCycleSession session = cycleSessions.get(ownerId);
+                if (session == null || !session.running || now - session.lastSwitchTick < MIN_CUT_DWELL_TICKS) {
+                    continue;
+                }
+                cutTo(server, ownerId, session, entry);
+            }
+        });
+    }
+
+    private void cutTo(MinecraftServer server, UUID ownerId, PlayerCycleSession session, String entry) {
+        String[] points = session.pointList.snapshot();
+        int target = -1;
+        for (int i = 0; i < points.length; i++) {
+            if (points[i].equals(entry)) {
+                target = i;
+                break;
+            }
+        }
+        // 不在列表中或已经在看
+        if (target < 0 || target == session.index % points.length) {
+            return;
+        }
+        ServerPlayerEntity viewer = server.getPlayerManager().getPlayer(ownerId);
+        if (viewer == null) {
+            return;
+        }
+
+        session.index = target;
+        if (session.schedule == CycleSchedule.ACTIVITY) {
+            session.currentActivity = Math.max(0.0, getEntryActivity(server, entry));
+        }
+        markCurrentShown(session);
+        ServerSpectateManager.getInstance().switchToCyclePoint(viewer);
+        if (session.running) {
+            scheduleRotation(ownerId, session);
+        }
+        // 只有当前下标变化，离开、停止或关服时再保存
+    }
+
+    private void onRotationDue(UUID playerId, PlayerCycleSession session) {
+        session.rotation = null;
+        if (!session.running || cycleSessions.get(playerId) != session) {
+            return;
+        }
+        MinecraftServer server = SpectateMod.getServer();
+        ServerPlayerEntity onlinePlayer = server != null ? server.getPlayerManager().getPlayer(playerId) : null;
+        if (onlinePlayer != null) {
+            nextCyclePoint(onlinePlayer, true); // 自动切换，会重新安排下一次
+        }
+        // 玩家暂时不在线时保持原有节奏
+        if (session.running && session.rotation == null) {
+            scheduleRotation(playerId, session);
+        }
     }
 
     /**
@@ -361,7 +880,9 @@ public class CycleService {
     public void stopCycle(ServerPlayerEntity player) {
         PlayerCycleSession session = cycleSessions.get(player.getUuid());
         if (session != null && session.running) {
-            session.stop();
+            session.stop(rotationWheel);
+            activitySessions.remove(player.getUuid());
+            persist(player.getUuid(), session);
             // 玩家状态的实际恢复由 ServerSpectateManager 处理
         }
     }
@@ -381,14 +902,23 @@ public class CycleService {
             return;
         }
 
-        session.index = (session.index + 1) % session.pointList.size();
-        session.updateStartTime(); // 更新开始时间
+        int total = session.pointList.size();
+        if (session.schedule == CycleSchedule.ACTIVITY) {
+            session.index = pickByActivity(session, player.getServer());
+        } else {
+            session.index = (session.index + 1) % total;
+        }
+        markCurrentShown(session);
         ServerSpectateManager.getInstance().switchToCyclePoint(player);
-
+        // 手动切换也重新计时，保证每个点都停留完整的间隔
+        if (session.running) {
+            scheduleRotation(player.getUuid(), session);
+        }
+        // 切换只改变当前下标，不在这里写盘；离开、停止或关服时会保存
         if (!isAuto) {
             player.sendMessage(configManager.getFormattedMessage("cycle_next_point", Map.of(
                 "index", String.valueOf(session.index + 1),
-                "total", String.valueOf(session.pointList.size())
+                "total", String.valueOf(total)
             )), false);
         }
     }
@@ -401,7 +931,7 @@ public class CycleService {
      */
     public long getTimeRemaining(UUID playerId) {
         PlayerCycleSession session = cycleSessions.get(playerId);
-        return session != null ? session.getTimeRemaining() : 0;
+        return session != null ? session.getTimeRemaining(rotationWheel.getCurrentTick()) : 0;
     }
 
     /**
@@ -415,6 +945,23 @@ public class CycleService {
         return session != null && session.running;
     }
 
+    /**
+     * 统计循环会话数量，可在任意线程调用。
+     *
+     * @return 长度为 2 的数组：已加载的循环会话总数、正在运行的数量。
+     */
+    public int[] countCycleSessions() {
+        int total = 0;
+        int running = 0;
+        for (PlayerCycleSession session : cycleSessions.values()) {
+            total++;
+            if (session.running) {
+                running++;
+            }
+        }
+        return new int[]{total, running};
+    }
+
     /**
      * 获取玩家当前正在观察的循环点名称。
      *
@@ -423,10 +970,15 @@ public class CycleService {
      */
     public String getCurrentCyclePointName(UUID playerId) {
         PlayerCycleSession session = cycleSessions.get(playerId);
-        if (session == null || session.isEmpty()) {
+        if (session == null) {
             return null;
         }
-        return session.pointList.get(session.index);
+        String[] points = session.pointList.snapshot();
+        if (points.length == 0) {
+            return null;
+        }
+        // 列表可能在玩家离开时被缩短，取模保证不越界
+        return points[session.index % points.length];
     }
 
     /**
@@ -471,6 +1023,7 @@ public class CycleService {
     public void enableAutoAddAllPlayers(ServerPlayerEntity player, String excludePrefix, String excludeSuffix) {
         PlayerCycleSession session = getOrCreateSession(player.getUuid());
         session.setAutoAddAllPlayers(true, excludePrefix, excludeSuffix);
+        autoAddSessions.add(player.getUuid());
 
         // 添加当前在线的所有玩家（排除自己）
         MinecraftServer server = SpectateMod.getServer();
@@ -479,12 +1032,12 @@ public class CycleService {
                 if (!onlinePlayer.getUuid().equals(player.getUuid())) {
                     String playerName = onlinePlayer.getName().getString();
                     if (session.shouldIncludePlayer(playerName)) {
-                        String pointName = "player_" + playerName;
-                        session.addPoint(pointName);
+                        session.addPoint(PLAYER_PREFIX + playerName);
                     }
                 }
             }
         }
+        persist(player.getUuid(), session);
 
         // 构建消息
         StringBuilder msg = new StringBuilder("已启用自动添加所有玩家");
@@ -518,6 +1071,8 @@ public class CycleService {
         PlayerCycleSession session = cycleSessions.get(player.getUuid());
         if (session != null) {
             session.setAutoAddAllPlayers(false, null, null);
+            autoAddSessions.remove(player.getUuid());
+            persist(player.getUuid(), session);
             //#if MC >= 11900
             player.sendMessage(Text.literal("§a[Spectate] 已禁用自动添加所有玩家"), false);
             //#else
@@ -530,15 +1085,17 @@ public class CycleService {
      * 当新玩家加入服务器时调用，检查是否需要自动添加到某些玩家的循环列表中。
      */
     public void onPlayerJoin(ServerPlayerEntity joinedPlayer) {
+        if (autoAddSessions.isEmpty()) {
+            return;
+        }
         String joinedName = joinedPlayer.getName().getString();
+        String pointName = PLAYER_PREFIX + joinedName;
 
-        for (Map.Entry<UUID, PlayerCycleSession> entry : cycleSessions.entrySet()) {
-            PlayerCycleSession session = entry.getValue();
-            if (session.isAutoAddAllPlayers() && !entry.getKey().equals(joinedPlayer.getUuid())) {
-                if (session.shouldIncludePlayer(joinedName)) {
-                    String pointName = "player_" + joinedName;
-                    session.addPoint(pointName);
-                }
+        for (UUID ownerId : autoAddSessions) {
+            PlayerCycleSession session = cycleSessions.get(ownerId);
+            if (session != null && session.isAutoAddAllPlayers() && !ownerId.equals(joinedPlayer.getUuid())
+                    && session.shouldIncludePlayer(joinedName) && session.addPoint(pointName)) {
+                persist(ownerId, session);
             }
         }
     }
@@ -547,12 +1104,22 @@ public class CycleService {
      * 当玩家离开服务器时调用，从循环列表中移除该玩家。
      */
     public void onPlayerLeave(ServerPlayerEntity leftPlayer) {
-        String leftName = leftPlayer.getName().getString();
-        String pointName = "player_" + leftName;
+        ActivityTracker.getInstance().remove(leftPlayer.getUuid());
+        CutEventCollector.getInstance().onPlayerLeave(leftPlayer.getUuid());
+        activitySessions.remove(leftPlayer.getUuid());
 
-        for (PlayerCycleSession session : cycleSessions.values()) {
-            if (session.pointList.contains(pointName)) {
+        String pointName = PLAYER_PREFIX + leftPlayer.getName().getString();
+        Set<UUID> owners = playerEntryIndex.get(pointName);
+        if (owners == null) {
+            return;
+        }
+
+        // 复制一份，removePoint 会同时修改索引
+        for (UUID ownerId : owners.toArray(new UUID[0])) {
+            PlayerCycleSession session = cycleSessions.get(ownerId);
+            if (session != null) {
                 session.removePoint(pointName);
+                persist(ownerId, session);
             }
         }
     }
@@ -0,0 +1,161 @@
+package com.spectate.service;
+
+import com.spectate.SpectateMod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按服务器 tick 对齐的哈希时间轮，用于调度循环观察的切换。
+ * 每个槽位是一个双向链表，插入与取消都是 O(1)；每个 tick 只检查当前槽位，
+ * 到期的任务在同一批次内依次执行。
+ * 非线程安全，只能在服务器主线程访问；{@link #getCurrentTick()} 可被其他线程读取。
+ */
+final class CycleTimerWheel {
+
+    /** 槽位数，必须是 2 的幂。512 tick 约 25 秒，常见的切换间隔最多绕轮几圈 */
+    private static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final Timeout[] slots = new Timeout[WHEEL_SIZE];
+    private final List<Timeout> expired = new ArrayList<>();
+    private volatile long currentTick;
+    private int size;
+
+    /**
+     * 时间轮中的一个待执行任务。
+     */
+    static final class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private int slot = -1;
+        private boolean cancelled;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        long getDeadlineTick() {
+            return deadlineTick;
+        }
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 在若干 tick 之后执行任务。
+     *
+     * @param delayTicks 延迟 tick 数，最小为 1
+     * @param task 到期时在服务器主线程执行的任务
+     * @return 可用于取消的句柄
+     */
+    Timeout schedule(long delayTicks, Runnable task) {
+        Timeout timeout = new Timeout(task, currentTick + Math.max(1L, delayTicks));
+        int slot = (int) (timeout.deadlineTick & MASK);
+        Timeout head = slots[slot];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        slots[slot] = timeout;
+        timeout.slot = slot;
+        size++;
+        return timeout;
+    }
+
+    /**
+     * 取消任务。对已执行或已取消的任务调用没有效果。
+     */
+    void cancel(Timeout timeout) {
+        if (timeout == null) {
+            return;
+        }
+        timeout.cancelled = true;
+        unlink(timeout);
+    }
+
+    /**
+     * 推进一个 tick，并执行当前槽位中所有到期的任务。
+     */
+    void advance() {
+        long tick = currentTick + 1;
+        currentTick = tick;
+
+        Timeout timeout = slots[(int) (tick & MASK)];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            // 同一槽位中还可能有后面几圈才到期的任务
+            if (timeout.deadlineTick <= tick) {
+                unlink(timeout);
+                expired.add(timeout);
+            }
+            timeout = next;
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (int i = 0; i < expired.size(); i++) {
+                Timeout due = expired.get(i);
+                // 同一批次中较早执行的任务可能取消了后面的任务
+                if (due.cancelled) {
+                    continue;
+                }
+                try {
+                    due.task.run();
+                } catch (Exception e) {
+                    SpectateMod.LOGGER.error("[Spectate] 循环切换任务执行失败", e);
+                }
+            }
+        } finally {
+            expired.clear();
+        }
+    }
+
+    /**
+     * 移除所有任务，用于服务器停止时。
+     */
+    void clear() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            Timeout timeout = slots[i];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.cancelled = true;
+                timeout.slot = -1;
+                timeout.prev = null;
+                timeout.next = null;
+                timeout = next;
+            }
+            slots[i] = null;
+        }
+        size = 0;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.slot < 0) {
+            return;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.slot = -1;
+        size--;
+    }
+}
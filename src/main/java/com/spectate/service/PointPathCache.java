@@ -0,0 +1,186 @@
+package com.spectate.service;
+
+import com.spectate.data.SpectatePointData;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 环绕类视角的摄像机路径缓存。
+ * 目标静止时机位只是时间的函数：按固定分辨率预先计算一整圈的相对偏移与朝向，
+ * 之后按时间查表并线性插值。表只由路径参数决定，观看同一观察点的所有玩家（以及参数相同的客户端）共享同一张表。
+ */
+public final class PointPathCache {
+
+    private static final PointPathCache INSTANCE = new PointPathCache();
+
+    /** 每圈采样数，半径 128 格时相邻样本间的弦误差仍小于 0.001 格 */
+    public static final int SAMPLES_PER_REVOLUTION = 1024;
+    /** 每个样本的分量：dx, dy, dz, yaw, pitch */
+    private static final int STRIDE = 5;
+    private static final int MAX_ENTRIES = 256;
+
+    private final Map<PathKey, PathTable> tables = Collections.synchronizedMap(
+            new LinkedHashMap<PathKey, PathTable>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<PathKey, PathTable> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    private PointPathCache() {
+    }
+
+    public static PointPathCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 获取观察点在指定视角下的路径表。
+     *
+     * @return 路径表；螺旋上升、浮游等非周期视角返回 null，需要实时计算
+     */
+    public PathTable getTable(SpectatePointData point, ViewMode viewMode) {
+        return getTable(viewMode, point.getDistance(), point.getHeightOffset(), point.getRotationSpeed());
+    }
+
+    /**
+     * 按视角与路径参数获取路径表，参数映射与服务端、客户端的原始计算保持一致。
+     *
+     * @return 路径表；非周期视角返回 null
+     */
+    public PathTable getTable(ViewMode viewMode, double distance, double heightOffset, double rotationSpeed) {
+        PathKey key;
+        switch (viewMode) {
+            case ORBIT:
+                key = new PathKey(distance, heightOffset, Math.max(0.0, rotationSpeed));
+                break;
+            case CINEMATIC_SLOW_ORBIT:
+                key = new PathKey(Math.max(distance, 8.0), heightOffset + 2.0, 0.5);
+                break;
+            case CINEMATIC_AERIAL_VIEW:
+                key = new PathKey(0.0, 25.0, 0.0);
+                break;
+            default:
+                return null;
+        }
+        return tables.computeIfAbsent(key, PathTable::new);
+    }
+
+    public int size() {
+        return tables.size();
+    }
+
+    private static final class PathKey {
+        private final double distance;
+        private final double heightOffset;
+        private final double degreesPerSecond;
+
+        private PathKey(double distance, double heightOffset, double degreesPerSecond) {
+            this.distance = distance;
+            this.heightOffset = heightOffset;
+            this.degreesPerSecond = degreesPerSecond;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PathKey)) return false;
+            PathKey that = (PathKey) o;
+            return Double.compare(distance, that.distance) == 0
+                    && Double.compare(heightOffset, that.heightOffset) == 0
+                    && Double.compare(degreesPerSecond, that.degreesPerSecond) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Double.hashCode(distance);
+            result = 31 * result + Double.hashCode(heightOffset);
+            result = 31 * result + Double.hashCode(degreesPerSecond);
+            return result;
+        }
+    }
+
+    /**
+     * 一整圈的机位采样表，相对于目标中心。不可变，可被任意线程并发读取。
+     */
+    public static final class PathTable {
+        private final float[] samples;
+        /** 一圈的秒数，0 表示机位固定 */
+        private final double periodSeconds;
+
+        private PathTable(PathKey key) {
+            this.periodSeconds = key.degreesPerSecond > 0 ? 360.0 / key.degreesPerSecond : 0.0;
+            int count = periodSeconds > 0 ? SAMPLES_PER_REVOLUTION + 1 : 1;
+            this.samples = new float[count * STRIDE];
+
+            double previousYaw = 0.0;
+            for (int i = 0; i < count; i++) {
+                double angleRad = (double) i / SAMPLES_PER_REVOLUTION * 2 * Math.PI;
+                double camXo = Math.sin(angleRad) * key.distance;
+                double camZo = Math.cos(angleRad) * key.distance;
+                // 与原先的 center - cam 一致：写成 0.0 - x，避免 x 为 0 时得到 -0.0，
+                // 否则高空俯瞰（水平偏移为 0）的 atan2(-0.0, -0.0) 会让 yaw 相差 180°
+                double dx = 0.0 - camXo;
+                double dy = 0.0 - key.heightOffset;
+                double dz = 0.0 - camZo;
+                double yaw = Math.atan2(dz, dx) * 180.0 / Math.PI - 90.0;
+                double pitch = -Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz)));
+
+                // 展开 yaw，保证相邻样本之间插值不会跨越 ±180°
+                if (i > 0) {
+                    while (yaw - previousYaw > 180.0) yaw -= 360.0;
+                    while (yaw - previousYaw < -180.0) yaw += 360.0;
+                }
+                previousYaw = yaw;
+
+                int base = i * STRIDE;
+                samples[base] = (float) camXo;
+                samples[base + 1] = (float) key.heightOffset;
+                samples[base + 2] = (float) camZo;
+                samples[base + 3] = (float) yaw;
+                samples[base + 4] = (float) pitch;
+            }
+        }
+
+        /**
+         * 计算指定时刻的机位。
+         *
+         * @param elapsedSeconds 会话开始后的秒数
+         * @param out 长度至少为 5 的输出数组：相对目标中心的 dx, dy, dz，以及 yaw, pitch
+         */
+        public void evaluate(double elapsedSeconds, double[] out) {
+            if (periodSeconds <= 0) {
+                for (int k = 0; k < STRIDE; k++) {
+                    out[k] = samples[k];
+                }
+                return;
+            }
+
+            double phase = (elapsedSeconds % periodSeconds) / periodSeconds * SAMPLES_PER_REVOLUTION;
+            if (phase < 0) {
+                phase += SAMPLES_PER_REVOLUTION;
+            }
+            int index = (int) phase;
+            if (index >= SAMPLES_PER_REVOLUTION) {
+                index = SAMPLES_PER_REVOLUTION - 1;
+            }
+            double t = phase - index;
+            int a = index * STRIDE;
+            int b = a + STRIDE;
+            for (int k = 0; k < STRIDE; k++) {
+                out[k] = samples[a + k] + (samples[b + k] - samples[a + k]) * t;
+            }
+            out[3] = wrapDegrees(out[3]);
+        }
+
+        public double getPeriodSeconds() {
+            return periodSeconds;
+        }
+
+        private static double wrapDegrees(double degrees) {
+            return degrees - 360.0 * Math.floor((degrees + 180.0) / 360.0);
+        }
+    }
+}
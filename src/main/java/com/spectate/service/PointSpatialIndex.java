@@ -0,0 +1,233 @@
+package com.spectate.service;
+
+import com.spectate.data.SpectatePointData;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 观察点的空间索引。每个维度一张水平网格，每格 64x64 方块，查询只访问半径覆盖的格子；
+ * 覆盖的格子比已有的格子还多时直接遍历已有的格子。
+ * 不是线程安全的，由 {@link SpectatePointManager} 加锁访问。
+ */
+class PointSpatialIndex {
+
+    private static final int CELL_SHIFT = 6;
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    /**
+     * 索引中的一个观察点，坐标取方块中心。
+     */
+    static final class Entry {
+        final String name;
+        final String dimension;
+        final String group;
+        final double x, y, z;
+        final double distance;
+        final long cell;
+
+        private Entry(String name, SpectatePointData data) {
+            BlockPos pos = data.getPosition();
+            this.name = name;
+            this.dimension = data.getDimension();
+            this.group = data.getGroup();
+            this.x = pos.getX() + 0.5;
+            this.y = pos.getY() + 0.5;
+            this.z = pos.getZ() + 0.5;
+            this.distance = data.getDistance();
+            this.cell = cellKey(pos.getX() >> CELL_SHIFT, pos.getZ() >> CELL_SHIFT);
+        }
+
+        double distanceSq(double px, double py, double pz) {
+            double dx = x - px;
+            double dy = y - py;
+            double dz = z - pz;
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    private static final class DimensionGrid {
+        private final Map<Long, List<Entry>> cells = new HashMap<>();
+        // 已占用格子的范围，只扩大不收缩，用于限制最近点查询的搜索圈数
+        private int minCx = Integer.MAX_VALUE, maxCx = Integer.MIN_VALUE;
+        private int minCz = Integer.MAX_VALUE, maxCz = Integer.MIN_VALUE;
+    }
+
+    private final Map<String, DimensionGrid> grids = new HashMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private double maxDistance;
+
+    private static long cellKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 添加或替换观察点。
+     *
+     * @return 被替换的旧条目，没有则返回 null
+     */
+    Entry put(String name, SpectatePointData data) {
+        Entry previous = remove(name);
+        Entry entry = new Entry(name, data);
+        entries.put(name, entry);
+
+        DimensionGrid grid = grids.computeIfAbsent(entry.dimension, k -> new DimensionGrid());
+        grid.cells.computeIfAbsent(entry.cell, k -> new ArrayList<>(2)).add(entry);
+        int cx = (int) (entry.cell >> 32);
+        int cz = (int) entry.cell;
+        grid.minCx = Math.min(grid.minCx, cx);
+        grid.maxCx = Math.max(grid.maxCx, cx);
+        grid.minCz = Math.min(grid.minCz, cz);
+        grid.maxCz = Math.max(grid.maxCz, cz);
+        maxDistance = Math.max(maxDistance, entry.distance);
+        return previous;
+    }
+
+    /**
+     * 移除观察点。
+     *
+     * @return 被移除的条目，不存在则返回 null
+     */
+    Entry remove(String name) {
+        Entry entry = entries.remove(name);
+        if (entry == null) {
+            return null;
+        }
+        DimensionGrid grid = grids.get(entry.dimension);
+        if (grid != null) {
+            List<Entry> cell = grid.cells.get(entry.cell);
+            if (cell != null) {
+                cell.remove(entry);
+                if (cell.isEmpty()) {
+                    grid.cells.remove(entry.cell);
+                }
+            }
+        }
+        return entry;
+    }
+
+    void clear() {
+        grids.clear();
+        entries.clear();
+        maxDistance = 0;
+    }
+
+    /**
+     * 所有观察点中最大的观察距离，可能大于当前实际值（移除时不回收）。
+     */
+    double getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * 查找最近的观察点。按格子一圈一圈向外搜索，
+     * 找到的点比下一圈可能出现的点都近时停止。
+     *
+     * @param filter 额外的筛选条件，可为 null
+     * @return 最近的条目，没有则返回 null
+     */
+    Entry nearest(String dimension, double x, double y, double z, Predicate<Entry> filter) {
+        DimensionGrid grid = grids.get(dimension);
+        if (grid == null || grid.cells.isEmpty()) {
+            return null;
+        }
+
+        int cx = (int) Math.floor(x) >> CELL_SHIFT;
+        int cz = (int) Math.floor(z) >> CELL_SHIFT;
+        int maxRing = Math.max(Math.max(cx - grid.minCx, grid.maxCx - cx), Math.max(cz - grid.minCz, grid.maxCz - cz));
+
+        Entry best = null;
+        double bestDistanceSq = Double.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // 这一圈的格子比已有的格子还多，不如直接遍历
+            if (ring * 8L > grid.cells.size()) {
+                return nearestByScan(grid, x, y, z, filter);
+            }
+            for (int dx = -ring; dx <= ring; dx++) {
+                boolean edge = dx == -ring || dx == ring;
+                for (int dz = -ring; dz <= ring; dz += edge ? 1 : 2 * ring) {
+                    List<Entry> cell = grid.cells.get(cellKey(cx + dx, cz + dz));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Entry entry : cell) {
+                        double distanceSq = entry.distanceSq(x, y, z);
+                        if (distanceSq < bestDistanceSq && (filter == null || filter.test(entry))) {
+                            bestDistanceSq = distanceSq;
+                            best = entry;
+                        }
+                    }
+                }
+            }
+            // 下一圈的点水平距离至少为 ring * CELL_SIZE
+            double reach = (double) ring * CELL_SIZE;
+            if (best != null && bestDistanceSq <= reach * reach) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private Entry nearestByScan(DimensionGrid grid, double x, double y, double z, Predicate<Entry> filter) {
+        Entry best = null;
+        double bestDistanceSq = Double.MAX_VALUE;
+        for (List<Entry> cell : grid.cells.values()) {
+            for (Entry entry : cell) {
+                double distanceSq = entry.distanceSq(x, y, z);
+                if (distanceSq < bestDistanceSq && (filter == null || filter.test(entry))) {
+                    bestDistanceSq = distanceSq;
+                    best = entry;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 查找半径内的所有观察点，按距离从近到远排序。
+     */
+    List<Entry> within(String dimension, double x, double y, double z, double radius) {
+        List<Entry> result = new ArrayList<>();
+        DimensionGrid grid = grids.get(dimension);
+        if (grid == null || grid.cells.isEmpty() || radius < 0) {
+            return result;
+        }
+
+        double radiusSq = radius * radius;
+        int minCx = (int) Math.floor(x - radius) >> CELL_SHIFT;
+        int maxCx = (int) Math.floor(x + radius) >> CELL_SHIFT;
+        int minCz = (int) Math.floor(z - radius) >> CELL_SHIFT;
+        int maxCz = (int) Math.floor(z + radius) >> CELL_SHIFT;
+        long covered = (long) (maxCx - minCx + 1) * (maxCz - minCz + 1);
+
+        if (covered > grid.cells.size()) {
+            for (List<Entry> cell : grid.cells.values()) {
+                collectWithin(cell, x, y, z, radiusSq, result);
+            }
+        } else {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                for (int cz = minCz; cz <= maxCz; cz++) {
+                    List<Entry> cell = grid.cells.get(cellKey(cx, cz));
+                    if (cell != null) {
+                        collectWithin(cell, x, y, z, radiusSq, result);
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingDouble(e -> e.distanceSq(x, y, z)));
+        return result;
+    }
+
+    private static void collectWithin(List<Entry> cell, double x, double y, double z, double radiusSq, List<Entry> out) {
+        for (Entry entry : cell) {
+            if (entry.distanceSq(x, y, z) <= radiusSq) {
+                out.add(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.spectate.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.spectate.SpectateMod;
+import com.spectate.config.ConfigManager;
+import com.spectate.config.SpectateConfig;
+import com.spectate.data.SpectatePointData;
+import com.spectate.data.SpectateStateSaver;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * 观察点的批量导入导出，支持 CSV 和 JSON Lines（每行一个 JSON 对象）两种格式。
+ * 文件逐行流式读写，在后台线程执行；导入先完整校验，再一次性合并并写盘。
+ * 文件只能位于 config/spectate/exchange/ 目录下。
+ */
+public class PointTransferService {
+
+    private static final PointTransferService INSTANCE = new PointTransferService();
+    public static PointTransferService getInstance() { return INSTANCE; }
+
+    /** CSV 的列顺序，也是导出时的表头 */
+    private static final String[] CSV_COLUMNS = {
+            "name", "dimension", "x", "y", "z", "distance", "height_offset", "rotation_speed", "group", "description"
+    };
+    /** 与命令参数一致：只允许不需要引号的字符 */
+    private static final Pattern NAME_PATTERN = Pattern.compile("[0-9A-Za-z_.+\\-]+");
+    private static final int MAX_REPORTED_ERRORS = 5;
+    private static final Gson GSON = new Gson();
+
+    private final Path exchangeDir = FabricLoader.getInstance().getConfigDir().resolve("spectate").resolve("exchange");
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SpectatePointTransfer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PointTransferService() {
+    }
+
+    /**
+     * 文件格式，由扩展名决定。
+     */
+    private enum Format {
+        CSV, JSONL;
+
+        static Format of(String fileName) {
+            String lower = fileName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".csv")) {
+                return CSV;
+            }
+            if (lower.endsWith(".jsonl") || lower.endsWith(".ndjson")) {
+                return JSONL;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 导入或导出的结果。
+     */
+    public static final class TransferResult {
+        private final String fileName;
+        private final int added;
+        private final int updated;
+        private final int invalid;
+        private final List<String> errors;
+
+        private TransferResult(String fileName, int added, int updated, int invalid, List<String> errors) {
+            this.fileName = fileName;
+            this.added = added;
+            this.updated = updated;
+            this.invalid = invalid;
+            this.errors = errors;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        /** 新增的观察点数量（导出时为写出的数量） */
+        public int getAdded() {
+            return added;
+        }
+
+        /** 覆盖的已有观察点数量 */
+        public int getUpdated() {
+            return updated;
+        }
+
+        /** 校验失败被跳过的行数 */
+        public int getInvalid() {
+            return invalid;
+        }
+
+        /** 前几条校验错误 */
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+
+    /**
+     * 在后台线程导入观察点。同名观察点会被覆盖。
+     *
+     * @param fileName exchange 目录下的文件名，扩展名为 .csv 或 .jsonl。
+     * @return 导入结果；文件名无效或读取失败时异常完成。
+     */
+    public CompletableFuture<TransferResult> importAsync(String fileName) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return importPoints(fileName);
+            } catch (IOException e) {
+                throw new IllegalStateException("读取文件失败: " + e.getMessage(), e);
+            }
+        }, executor);
+    }
+
+    /**
+     * 在后台线程导出所有观察点，已存在的文件会被覆盖。
+     *
+     * @param fileName exchange 目录下的文件名，扩展名为 .csv 或 .jsonl。
+     * @return 导出结果；文件名无效或写入失败时异常完成。
+     */
+    public CompletableFuture<TransferResult> exportAsync(String fileName) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return exportPoints(fileName);
+            } catch (IOException e) {
+                throw new IllegalStateException("写入文件失败: " + e.getMessage(), e);
+            }
+        }, executor);
+    }
+
+    private Path resolve(String fileName) {
+        Path file = exchangeDir.resolve(fileName).normalize();
+        if (!file.startsWith(exchangeDir) || !file.getParent().equals(exchangeDir)) {
+            throw new IllegalArgumentException("文件必须直接位于 config/spectate/exchange/ 目录下: " + fileName);
+        }
+        return file;
+    }
+
+    private static Format formatOf(String fileName) {
+        Format format = Format.of(fileName);
+        if (format == null) {
+            throw new IllegalArgumentException("不支持的文件格式，请使用 .csv 或 .jsonl: " + fileName);
+        }
+        return format;
+    }
+
+    private TransferResult importPoints(String fileName) throws IOException {
+        Format format = formatOf(fileName);
+        Path file = resolve(fileName);
+        if (Files.notExists(file)) {
+            throw new IllegalArgumentException("文件不存在: config/spectate/exchange/" + fileName);
+        }
+
+        Map<String, SpectatePointData> parsed = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        int invalid = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                    line = line.substring(1);
+                }
+                if (line.trim().isEmpty() || (format == Format.CSV && lineNumber == 1 && line.startsWith(CSV_COLUMNS[0] + ","))) {
+                    continue;
+                }
+                try {
+                    Map.Entry<String, SpectatePointData> entry = format == Format.CSV ? parseCsv(line) : parseJsonLine(line);
+                    parsed.put(entry.getKey(), entry.getValue());
+                } catch (RuntimeException e) {
+                    invalid++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("第 " + lineNumber + " 行: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        int added = parsed.isEmpty() ? 0 : SpectatePointManager.getInstance().importPoints(parsed);
+        // 一次性写出本次修改的分桶
+        SpectateStateSaver.getInstance().flush();
+        SpectateMod.LOGGER.info("[Spectate] 从 {} 导入了 {} 个观察点（新增 {}，跳过 {} 行无效数据）",
+                fileName, parsed.size(), added, invalid);
+        return new TransferResult(fileName, added, parsed.size() - added, invalid, Collections.unmodifiableList(errors));
+    }
+
+    private TransferResult exportPoints(String fileName) throws IOException {
+        Format format = formatOf(fileName);
+        Path file = resolve(fileName);
+        Files.createDirectories(exchangeDir);
+
+        SpectatePointManager pointManager = SpectatePointManager.getInstance();
+        List<String> names = new ArrayList<>(pointManager.listPointNames());
+        Collections.sort(names);
+
+        int count = 0;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            if (format == Format.CSV) {
+                writer.write(String.join(",", CSV_COLUMNS));
+                writer.newLine();
+            }
+            for (String name : names) {
+                SpectatePointData point = pointManager.getPoint(name);
+                if (point == null) {
+                    continue;
+                }
+                writer.write(format == Format.CSV ? toCsv(name, point) : toJsonLine(name, point));
+                writer.newLine();
+                count++;
+            }
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return new TransferResult(fileName, count, 0, 0, Collections.<String>emptyList());
+    }
+
+    /* ------------------- 解析 ------------------- */
+
+    private static Map.Entry<String, SpectatePointData> parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() < 5) {
+            throw new IllegalArgumentException("列数不足，至少需要 name,dimension,x,y,z");
+        }
+        return build(fields.get(0), fields.get(1), fields.get(2), fields.get(3), fields.get(4),
+                field(fields, 5), field(fields, 6), field(fields, 7), field(fields, 8), field(fields, 9));
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    /**
+     * 按 RFC 4180 拆分一行 CSV（不支持跨行的字段）。
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(CSV_COLUMNS.length);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("引号未闭合");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static Map.Entry<String, SpectatePointData> parseJsonLine(String line) {
+        JsonElement element;
+        try {
+            //#if MC >= 11800
+            element = JsonParser.parseString(line);
+            //#else
+            //$$element = new JsonParser().parse(line);
+            //#endif
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("不是有效的 JSON");
+        }
+        if (!element.isJsonObject()) {
+            throw new IllegalArgumentException("不是 JSON 对象");
+        }
+        JsonObject obj = element.getAsJsonObject();
+        return build(json(obj, "name"), json(obj, "dimension"), json(obj, "x"), json(obj, "y"), json(obj, "z"),
+                json(obj, "distance"), json(obj, "height_offset"), json(obj, "rotation_speed"),
+                json(obj, "group"), json(obj, "description"));
+    }
+
+    private static String json(JsonObject obj, String key) {
+        JsonElement value = obj.get(key);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    /**
+     * 校验各字段并构造观察点。可选字段留空时使用配置中的默认值。
+     */
+    private static Map.Entry<String, SpectatePointData> build(String name, String dimension, String x, String y, String z,
+                                                              String distance, String heightOffset, String rotationSpeed,
+                                                              String group, String description) {
+        name = name != null ? name.trim() : "";
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("名称无效: '" + name + "'");
+        }
+        if (SpectatePointManager.isReservedName(name)) {
+            throw new IllegalArgumentException("名称与命令冲突: '" + name + "'");
+        }
+        dimension = dimension != null ? dimension.trim() : "";
+        if (dimension.isEmpty() || Identifier.tryParse(dimension) == null) {
+            throw new IllegalArgumentException("维度无效: '" + dimension + "'");
+        }
+        group = isBlank(group) ? "default" : group.trim();
+        if (!NAME_PATTERN.matcher(group).matches()) {
+            throw new IllegalArgumentException("分组无效: '" + group + "'");
+        }
+
+        SpectateConfig.Settings settings = ConfigManager.getInstance().getConfig().settings;
+        BlockPos pos = new BlockPos((int) Math.floor(number(x, "x")), (int) Math.floor(number(y, "y")), (int) Math.floor(number(z, "z")));
+        double dist = isBlank(distance) ? settings.spectate_distance : number(distance, "distance");
+        double height = isBlank(heightOffset) ? settings.spectate_height_offset : number(heightOffset, "height_offset");
+        double speed = isBlank(rotationSpeed) ? settings.spectate_rotation_speed : number(rotationSpeed, "rotation_speed");
+        if (dist < 1) {
+            throw new IllegalArgumentException("distance 不能小于 1");
+        }
+        if (speed < 0) {
+            throw new IllegalArgumentException("rotation_speed 不能为负数");
+        }
+        String desc = isBlank(description) ? name : description.trim();
+
+        return new AbstractMap.SimpleImmutableEntry<>(name,
+                new SpectatePointData(dimension, pos, dist, height, speed, desc, group));
+    }
+
+    private static double number(String value, String column) {
+        if (isBlank(value)) {
+            throw new IllegalArgumentException("缺少 " + column);
+        }
+        try {
+            double result = Double.parseDouble(value.trim());
+            if (Double.isNaN(result) || Double.isInfinite(result)) {
+                throw new NumberFormatException();
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " 不是有效的数字: '" + value.trim() + "'");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /* ------------------- 写出 ------------------- */
+
+    private static String toCsv(String name, SpectatePointData point) {
+        BlockPos pos = point.getPosition();
+        StringBuilder sb = new StringBuilder(96);
+        sb.append(name).append(',')
+                .append(point.getDimension()).append(',')
+                .append(pos.getX()).append(',').append(pos.getY()).append(',').append(pos.getZ()).append(',')
+                .append(point.getDistance()).append(',')
+                .append(point.getHeightOffset()).append(',')
+                .append(point.getRotationSpeed()).append(',')
+                .append(point.getGroup()).append(',');
+        appendCsvField(sb, point.getDescription());
+        return sb.toString();
+    }
+
+    private static void appendCsvField(StringBuilder sb, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static String toJsonLine(String name, SpectatePointData point) {
+        BlockPos pos = point.getPosition();
+        JsonObject obj = new JsonObject();
+        obj.addProperty("name", name);
+        obj.addProperty("dimension", point.getDimension());
+        obj.addProperty("x", pos.getX());
+        obj.addProperty("y", pos.getY());
+        obj.addProperty("z", pos.getZ());
+        obj.addProperty("distance", point.getDistance());
+        obj.addProperty("height_offset", point.getHeightOffset());
+        obj.addProperty("rotation_speed", point.getRotationSpeed());
+        obj.addProperty("group", point.getGroup());
+        obj.addProperty("description", point.getDescription());
+        return GSON.toJson(obj);
+    }
+}
@@ -0,0 +1,95 @@
+package com.spectate.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 按前缀查询的有序名称索引（不区分大小写），供命令补全只取前 N 个匹配项。
+ * 与原版 {@code CommandSource.suggestMatching} 一致，除了从开头匹配，也从每个 {@code _} 之后的位置匹配
+ * （输入 {@code spawn} 能补全 {@code main_spawn}），为此每个 {@code _} 后的片段单独建索引。
+ * 基于跳表，读写都不需要外部加锁。
+ */
+final class PrefixIndex {
+
+    // 忽略大小写排序，大小写不同的同名条目按原始顺序区分，保证都能保留
+    private static final Comparator<String> ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private static final Comparator<Segment> SEGMENT_ORDER =
+            Comparator.<Segment, String>comparing(s -> s.text, ORDER).thenComparing(s -> s.entry, ORDER);
+
+    private final ConcurrentSkipListSet<String> entries = new ConcurrentSkipListSet<>(ORDER);
+    private final ConcurrentSkipListSet<Segment> segments = new ConcurrentSkipListSet<>(SEGMENT_ORDER);
+
+    /**
+     * 条目中某个 {@code _} 之后的部分。
+     */
+    private static final class Segment {
+        final String text;
+        final String entry;
+
+        Segment(String text, String entry) {
+            this.text = text;
+            this.entry = entry;
+        }
+    }
+
+    void add(String entry) {
+        entries.add(entry);
+        for (int i = entry.indexOf('_'); i >= 0; i = entry.indexOf('_', i + 1)) {
+            segments.add(new Segment(entry.substring(i + 1), entry));
+        }
+    }
+
+    void remove(String entry) {
+        entries.remove(entry);
+        for (int i = entry.indexOf('_'); i >= 0; i = entry.indexOf('_', i + 1)) {
+            segments.remove(new Segment(entry.substring(i + 1), entry));
+        }
+    }
+
+    void clear() {
+        entries.clear();
+        segments.clear();
+    }
+
+    /**
+     * 收集以 prefix 开头、或某个 {@code _} 之后以 prefix 开头（都不区分大小写）的条目，最多 limit 个。
+     * 从开头匹配的条目按排序顺序在前，其余的随后，每个条目只出现一次。
+     *
+     * @param out 结果追加到该列表，已有的条目计入数量
+     */
+    void collect(String prefix, int limit, List<String> out) {
+        if (out.size() >= limit) {
+            return;
+        }
+        // 大写形式不大于任何与它忽略大小写相等的字符串，从这里开始不会漏掉匹配项
+        String start = prefix.toUpperCase(Locale.ROOT);
+        for (String entry : entries.tailSet(start, true)) {
+            if (!entry.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                break;
+            }
+            out.add(entry);
+            if (out.size() >= limit) {
+                return;
+            }
+        }
+        int wholeMatches = out.size();
+        for (Segment segment : segments.tailSet(new Segment(start, ""), true)) {
+            if (!segment.text.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                break;
+            }
+            // 已经从开头匹配，或另一个片段已经匹配过
+            if (segment.entry.regionMatches(true, 0, prefix, 0, prefix.length())
+                    || out.subList(wholeMatches, out.size()).contains(segment.entry)) {
+                continue;
+            }
+            out.add(segment.entry);
+            if (out.size() >= limit) {
+                return;
+            }
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.spectate.config.ConfigManager;
 import com.spectate.data.PlayerPreference;
 import com.spectate.data.SpectatePointData;
 import com.spectate.data.SpectateStateSaver;
+import com.spectate.metrics.SpectateJfr;
+import com.spectate.metrics.SpectateMetrics;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
@@ -155,6 +157,16 @@ public class ServerSpectateManager {
         cycleService.addCycleGroup(player, group);
     }
 
+    /**
+     * 向玩家的循环列表中添加其附近指定半径内的所有观察点。
+     *
+     * @param player 目标玩家。
+     * @param radius 半径（方块）。
+     */
+    public void addCycleNear(ServerPlayerEntity player, double radius) {
+        cycleService.addCycleNear(player, radius);
+    }
+
     /**
      * 从玩家的循环列表中移除一个观察点。
      *
@@ -184,6 +196,13 @@ public class ServerSpectateManager {
         return cycleService.listCyclePoints(player);
     }
 
+    /**
+     * 按前缀查找玩家循环列表中的条目，用于命令补全。可在任意线程调用。
+     */
+    public List<String> suggestCyclePoints(UUID playerId, String prefix, int limit) {
+        return cycleService.suggestCyclePoints(playerId, prefix, limit);
+    }
+
     /**
      * 设置循环间隔。
      *
@@ -212,6 +231,17 @@ public class ServerSpectateManager {
     public void startCycle(ServerPlayerEntity player, ViewMode viewMode) {
         cycleService.startCycle(player, viewMode);
     }
+
+    /**
+     * 开始循环观察（指定视角与调度方式）。
+     *
+     * @param player 目标玩家。
+     * @param viewMode 视角模式。
+     * @param schedule 调度方式。
+     */
+    public void startCycle(ServerPlayerEntity player, ViewMode viewMode, CycleSchedule schedule) {
+        cycleService.startCycle(player, viewMode, schedule);
+    }
 
     /**
      * 手动切换到下一个观察点。
@@ -222,6 +252,24 @@ public class ServerSpectateManager {
         cycleService.nextCyclePoint(player, false); // 手动切换
     }
 
+    /**
+     * 开启或关闭某种事件的立即切换。
+     *
+     * @param player 目标玩家。
+     * @param trigger 事件类型。
+     * @param enabled 是否开启。
+     */
+    public void setCutTrigger(ServerPlayerEntity player, CutTrigger trigger, boolean enabled) {
+        cycleService.setCutTrigger(player, trigger, enabled);
+    }
+
+    /**
+     * 获取玩家订阅的切换事件。
+     */
+    public java.util.Set<CutTrigger> getCutTriggers(ServerPlayerEntity player) {
+        return cycleService.getCutTriggers(player.getUuid());
+    }
+
     /**
      * 启用自动添加所有玩家到循环列表。
      *
@@ -246,6 +294,18 @@ public class ServerSpectateManager {
      * 由 CycleService 内部调用，用于切换到当前循环索引指向的点。
      */
     public void switchToCyclePoint(ServerPlayerEntity player) {
+        long start = SpectateMetrics.start();
+        SpectateJfr.Span span = SpectateJfr.begin(SpectateJfr.Kind.CYCLE_SWITCH);
+        switchToCyclePointInternal(player);
+        SpectateMetrics.record(SpectateMetrics.Timer.CYCLE_SWITCH, start);
+        if (span.isActive()) {
+            ViewMode viewMode = cycleService.getCurrentViewMode(player.getUuid());
+            span.finish(player.getGameProfile().getName(), cycleService.getCurrentCyclePointName(player.getUuid()),
+                    viewMode != null ? viewMode.getName() : null);
+        }
+    }
+
+    private void switchToCyclePointInternal(ServerPlayerEntity player) {
         String pointName = cycleService.getCurrentCyclePointName(player.getUuid());
         if (pointName == null) {
             player.sendMessage(configManager.getMessage("cycle_list_empty"), false);
@@ -265,7 +325,7 @@ public class ServerSpectateManager {
                     Map.of("name", targetName)), false);
                 // 如果列表还有其他目标，继续切换
                 if (!cycleService.listCyclePoints(player).isEmpty()) {
-                    switchToCyclePoint(player);
+                    switchToCyclePointInternal(player);
                 } else {
                     player.sendMessage(configManager.getMessage("cycle_list_empty"), false);
                 }
@@ -295,6 +355,8 @@ public class ServerSpectateManager {
         // 这将在服务器保存数据之前恢复其原始状态，
         // 确保他们登录时回到原来的位置。
         if (isSpectating(player)) {
+            // 正在循环的话记录下来，下次加入时恢复
+            cycleService.markResumeOnJoin(player);
             stopSpectating(player);
         }
         // 通知 CycleService 玩家离开，从其他玩家的循环列表中移除
@@ -330,6 +392,12 @@ public class ServerSpectateManager {
         }
         // 通知 CycleService 新玩家加入，自动添加到启用了 autoAddAllPlayers 的循环列表中
         cycleService.onPlayerJoin(player);
+        // 恢复上次离线时的循环，排在上面的状态修复之后执行
+        player.getServer().execute(() -> {
+            if (player.getServer().getPlayerManager().getPlayer(player.getUuid()) == player) {
+                cycleService.resumeCycle(player);
+            }
+        });
     }
 
     /* ------------------- Who Command Support ------------------- */
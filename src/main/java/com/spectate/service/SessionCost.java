@@ -0,0 +1,159 @@
+package com.spectate.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个旁观会话在观察调度线程上消耗的 CPU 时间，按机位计算、传送和发包三类累计，
+ * 同时按视角模式汇总（包括已经结束的会话）。
+ * <p>
+ * 耗时直接复用卡顿预算和性能指标已经取得的时间戳，不额外读取时钟。
+ * 会话内的字段只由调度线程写入，命令线程读取到的是近似值。
+ */
+public final class SessionCost {
+
+    public enum Kind {
+        POSE("机位"),
+        TELEPORT("传送"),
+        PACKET("发包");
+
+        private final String displayName;
+
+        Kind(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static final LongAdder[][] MODE_NANOS = new LongAdder[ViewMode.values().length][Kind.values().length];
+    private static final LongAdder[] MODE_UPDATES = new LongAdder[ViewMode.values().length];
+    private static final LongAdder[] MODE_PACKET_TASKS = new LongAdder[ViewMode.values().length];
+
+    static {
+        for (int m = 0; m < MODE_NANOS.length; m++) {
+            for (int k = 0; k < MODE_NANOS[m].length; k++) {
+                MODE_NANOS[m][k] = new LongAdder();
+            }
+            MODE_UPDATES[m] = new LongAdder();
+            MODE_PACKET_TASKS[m] = new LongAdder();
+        }
+    }
+
+    // 调度线程上正在更新的会话，传送耗时记到它名下；其他线程的传送通过 owner 检查排除
+    private static SessionCost active;
+
+    private final ViewMode viewMode;
+    private final long[] nanos = new long[Kind.values().length];
+    private long updates;
+    private long packetTasks;
+    private Thread owner;
+
+    SessionCost(ViewMode viewMode) {
+        this.viewMode = viewMode;
+    }
+
+    /**
+     * 开始一次机位更新，之后的传送耗时记到本会话。
+     */
+    void beginUpdate() {
+        owner = Thread.currentThread();
+        active = this;
+    }
+
+    /**
+     * 结束一次机位更新。
+     *
+     * @param elapsedNanos 这次更新的总耗时，减去其中的传送耗时即为机位计算耗时
+     * @param teleportBefore 开始更新前的传送累计耗时，由 {@link #getNanos(Kind)} 取得
+     */
+    void endUpdate(long elapsedNanos, long teleportBefore) {
+        active = null;
+        long teleport = nanos[Kind.TELEPORT.ordinal()] - teleportBefore;
+        add(Kind.POSE, Math.max(0L, elapsedNanos - teleport));
+        updates++;
+        MODE_UPDATES[viewMode.ordinal()].increment();
+    }
+
+    /**
+     * 把一次传送的耗时记到当前正在更新的会话。
+     */
+    static void recordTeleport(long elapsedNanos) {
+        SessionCost cost = active;
+        if (cost != null && cost.owner == Thread.currentThread()) {
+            cost.add(Kind.TELEPORT, elapsedNanos);
+        }
+    }
+
+    /**
+     * 记录一次发包类工作（目标更新包、ActionBar）的耗时。
+     * 这类工作与机位更新分开计数，平滑客户端的观察点会话只有发包没有机位更新。
+     */
+    void addPacketTask(long elapsedNanos) {
+        add(Kind.PACKET, elapsedNanos);
+        packetTasks++;
+        MODE_PACKET_TASKS[viewMode.ordinal()].increment();
+    }
+
+    void add(Kind kind, long elapsedNanos) {
+        nanos[kind.ordinal()] += elapsedNanos;
+        MODE_NANOS[viewMode.ordinal()][kind.ordinal()].add(elapsedNanos);
+    }
+
+    public ViewMode getViewMode() {
+        return viewMode;
+    }
+
+    public long getNanos(Kind kind) {
+        return nanos[kind.ordinal()];
+    }
+
+    /**
+     * @return 已完成的机位更新次数
+     */
+    public long getUpdates() {
+        return updates;
+    }
+
+    /**
+     * @return 已完成的发包类工作次数
+     */
+    public long getPacketTasks() {
+        return packetTasks;
+    }
+
+    /**
+     * @return 该视角模式下所有会话（包括已结束的）在某一类工作上的累计耗时
+     */
+    public static long getModeNanos(ViewMode viewMode, Kind kind) {
+        return MODE_NANOS[viewMode.ordinal()][kind.ordinal()].sum();
+    }
+
+    /**
+     * @return 该视角模式下所有会话（包括已结束的）的累计机位更新次数
+     */
+    public static long getModeUpdates(ViewMode viewMode) {
+        return MODE_UPDATES[viewMode.ordinal()].sum();
+    }
+
+    /**
+     * @return 该视角模式下所有会话（包括已结束的）的累计发包类工作次数
+     */
+    public static long getModePacketTasks(ViewMode viewMode) {
+        return MODE_PACKET_TASKS[viewMode.ordinal()].sum();
+    }
+
+    /**
+     * 清空按视角模式汇总的数据。
+     */
+    public static void resetModeTotals() {
+        for (int m = 0; m < MODE_NANOS.length; m++) {
+            for (LongAdder adder : MODE_NANOS[m]) {
+                adder.reset();
+            }
+            MODE_UPDATES[m].reset();
+            MODE_PACKET_TASKS[m].reset();
+        }
+    }
+}
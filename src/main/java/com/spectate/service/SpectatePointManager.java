@@ -3,23 +3,126 @@ package com.spectate.service;
 import com.spectate.data.SpectatePointData;
 import com.spectate.data.SpectateStateSaver;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * SpectatePointManager 负责管理已定义的观察点（SpectatePointData）。
- * 它处理点的增、删、查、改和持久化。
+ * 它处理点的增、删、查、改和持久化，并维护分组索引和按维度划分的空间索引。
  */
 public class SpectatePointManager {
 
     private static final SpectatePointManager INSTANCE = new SpectatePointManager();
     public static SpectatePointManager getInstance() { return INSTANCE; }
 
+    /** 与 point 命令下的子命令同名，这样的观察点永远无法通过 point 命令观察 */
+    private static final String RESERVED_NAME = "nearest";
+    /** 批量导入时每次持有索引锁处理的条目数 */
+    private static final int IMPORT_INDEX_BATCH = 1024;
+
     private final SpectateStateSaver stateSaver = SpectateStateSaver.getInstance();
 
+    // 索引在第一次分组或空间查询时从存储中建立，之后随增删同步更新
+    private final Object indexLock = new Object();
+    private final PointSpatialIndex spatialIndex = new PointSpatialIndex();
+    // 分组名 -> 点名称（有序）
+    private final Map<String, Set<String>> groupIndex = new HashMap<>();
+    // 命令补全用的前缀索引，查询不需要加锁
+    private final PrefixIndex pointNameIndex = new PrefixIndex();
+    private final PrefixIndex groupNameIndex = new PrefixIndex();
+    private volatile boolean indexBuilt;
+
     private SpectatePointManager() {
         // 在未来的重构中，可以从这里触发加载
     }
 
+    /**
+     * 从存储重新建立索引，会读入所有观察点。
+     */
+    public void reloadIndex() {
+        synchronized (indexLock) {
+            clearIndexes();
+            for (String name : stateSaver.listPointNames()) {
+                SpectatePointData data = stateSaver.getSpectatePoint(name);
+                if (data != null) {
+                    index(name, data);
+                }
+            }
+            indexBuilt = true;
+        }
+    }
+
+    /**
+     * 丢弃索引，下次查询时重新建立。存储重新加载后调用。
+     */
+    public void invalidateIndex() {
+        synchronized (indexLock) {
+            clearIndexes();
+            indexBuilt = false;
+        }
+    }
+
+    /**
+     * 丢弃索引，并在后台读入所有观察点、重新建立索引。服务器启动时调用。
+     * 后台完成之前的查询仍会在调用线程上同步建立索引。
+     */
+    public void rebuildIndexInBackground() {
+        invalidateIndex();
+        stateSaver.preloadPoints(this::ensureIndex);
+    }
+
+    private void clearIndexes() {
+        spatialIndex.clear();
+        groupIndex.clear();
+        pointNameIndex.clear();
+        groupNameIndex.clear();
+    }
+
+    private void ensureIndex() {
+        if (!indexBuilt) {
+            synchronized (indexLock) {
+                if (!indexBuilt) {
+                    reloadIndex();
+                }
+            }
+        }
+    }
+
+    private void index(String name, SpectatePointData data) {
+        PointSpatialIndex.Entry previous = spatialIndex.put(name, data);
+        if (previous != null) {
+            unindexGroup(name, previous.group);
+        }
+        groupIndex.computeIfAbsent(data.getGroup(), k -> {
+            groupNameIndex.add(k);
+            return new TreeSet<>();
+        }).add(name);
+        pointNameIndex.add(name);
+    }
+
+    private void unindexGroup(String name, String group) {
+        Set<String> names = groupIndex.get(group);
+        if (names != null) {
+            names.remove(name);
+            if (names.isEmpty()) {
+                groupIndex.remove(group);
+                groupNameIndex.remove(group);
+            }
+        }
+    }
+
+    /**
+     * @return 名称是否被 point 命令的子命令占用，不能用作观察点名称
+     */
+    public static boolean isReservedName(String name) {
+        return RESERVED_NAME.equals(name);
+    }
+
     /**
      * 添加一个新的观察点。
      *
@@ -27,7 +130,49 @@ public class SpectatePointManager {
      * @param data 观察点数据。
      */
     public void addPoint(String name, SpectatePointData data) {
-        stateSaver.addSpectatePoint(name, data);
+        synchronized (indexLock) {
+            stateSaver.addSpectatePoint(name, data);
+            if (indexBuilt) {
+                index(name, data);
+            }
+        }
+    }
+
+    /**
+     * 批量添加观察点，同名观察点会被覆盖。所有修改一起合并，只安排一次写盘。
+     * <p>
+     * 在导入线程上调用：读取分桶和写入存储都不持有索引锁，只有更新索引时分批加锁，
+     * 主线程上的区域切镜和最近点查询最多等待一批。
+     *
+     * @param points 名称到观察点数据的映射。
+     * @return 其中新增（之前不存在）的观察点数量。
+     */
+    public int importPoints(Map<String, SpectatePointData> points) {
+        int added = 0;
+        for (String name : points.keySet()) {
+            if (stateSaver.getSpectatePoint(name) == null) {
+                added++;
+            }
+        }
+        stateSaver.addSpectatePoints(points);
+
+        List<Map.Entry<String, SpectatePointData>> entries = new ArrayList<>(points.entrySet());
+        for (int start = 0; start < entries.size(); start += IMPORT_INDEX_BATCH) {
+            int end = Math.min(start + IMPORT_INDEX_BATCH, entries.size());
+            synchronized (indexLock) {
+                if (!indexBuilt) {
+                    // 索引会在下次查询时从存储完整建立
+                    break;
+                }
+                for (Map.Entry<String, SpectatePointData> entry : entries.subList(start, end)) {
+                    // 写入存储之后可能已被其他命令删除或覆盖，只索引仍然有效的数据
+                    if (stateSaver.getSpectatePoint(entry.getKey()) == entry.getValue()) {
+                        index(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        }
+        return added;
     }
 
     /**
@@ -37,7 +182,17 @@ public class SpectatePointManager {
      * @return 被移除的观察点数据，如果不存在则返回 null。
      */
     public SpectatePointData removePoint(String name) {
-        return stateSaver.removeSpectatePoint(name);
+        synchronized (indexLock) {
+            SpectatePointData removed = stateSaver.removeSpectatePoint(name);
+            if (removed != null && indexBuilt) {
+                PointSpatialIndex.Entry entry = spatialIndex.remove(name);
+                if (entry != null) {
+                    unindexGroup(name, entry.group);
+                }
+                pointNameIndex.remove(name);
+            }
+            return removed;
+        }
     }
 
     /**
@@ -63,17 +218,14 @@ public class SpectatePointManager {
      * 列出指定分组的所有观察点名称。
      *
      * @param group 分组名称。
-     * @return 匹配的观察点名称集合。
-     */
-    public java.util.Collection<String> listPointNamesByGroup(String group) {
-        java.util.List<String> result = new java.util.ArrayList<>();
-        for (String name : listPointNames()) {
-            SpectatePointData point = getPoint(name);
-            if (point != null && group.equals(point.getGroup())) {
-                result.add(name);
-            }
+     * @return 匹配的观察点名称集合，按名称排序。
+     */
+    public Collection<String> listPointNamesByGroup(String group) {
+        synchronized (indexLock) {
+            ensureIndex();
+            Set<String> names = groupIndex.get(group);
+            return names != null ? new ArrayList<>(names) : new ArrayList<>();
         }
-        return result;
     }
 
     /**
@@ -81,14 +233,87 @@ public class SpectatePointManager {
      *
      * @return 分组名称集合。
      */
-    public java.util.Collection<String> listGroups() {
-        java.util.Set<String> groups = new java.util.HashSet<>();
-        for (String name : listPointNames()) {
-            SpectatePointData point = getPoint(name);
-            if (point != null) {
-                groups.add(point.getGroup());
+    public Collection<String> listGroups() {
+        synchronized (indexLock) {
+            ensureIndex();
+            return new ArrayList<>(groupIndex.keySet());
+        }
+    }
+
+    /**
+     * 按前缀查找观察点名称（不区分大小写，也匹配 {@code _} 之后的部分），用于命令补全。可在任意线程调用。
+     *
+     * @param prefix 已输入的前缀。
+     * @param limit 最多返回的数量。
+     * @return 匹配项，从开头匹配的按名称排序在前。
+     */
+    public List<String> suggestPointNames(String prefix, int limit) {
+        ensureIndex();
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        pointNameIndex.collect(prefix, limit, result);
+        return result;
+    }
+
+    /**
+     * 按前缀查找分组名称（不区分大小写，也匹配 {@code _} 之后的部分），用于命令补全。可在任意线程调用。
+     */
+    public List<String> suggestGroups(String prefix, int limit) {
+        ensureIndex();
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        groupNameIndex.collect(prefix, limit, result);
+        return result;
+    }
+
+    /**
+     * 查找同一维度中离指定位置最近的观察点。
+     *
+     * @param dimension 维度ID。
+     * @return 最近的观察点名称，维度中没有观察点时返回 null。
+     */
+    public String findNearestPoint(String dimension, double x, double y, double z) {
+        synchronized (indexLock) {
+            ensureIndex();
+            PointSpatialIndex.Entry entry = spatialIndex.nearest(dimension, x, y, z, null);
+            return entry != null ? entry.name : null;
+        }
+    }
+
+    /**
+     * 列出同一维度中指定半径内的观察点。
+     *
+     * @param dimension 维度ID。
+     * @param radius 半径（方块）。
+     * @return 观察点名称列表，按距离从近到远排序。
+     */
+    public List<String> listPointsWithin(String dimension, double x, double y, double z, double radius) {
+        synchronized (indexLock) {
+            ensureIndex();
+            List<PointSpatialIndex.Entry> entries = spatialIndex.within(dimension, x, y, z, radius);
+            List<String> names = new ArrayList<>(entries.size());
+            for (PointSpatialIndex.Entry entry : entries) {
+                names.add(entry.name);
+            }
+            return names;
+        }
+    }
+
+    /**
+     * 查找覆盖指定位置的命名区域：同一维度内、范围覆盖该位置的最近的非默认分组观察点，
+     * 范围取观察距离和 minRadius 中较大者。
+     *
+     * @return 区域（分组）名称，不在任何区域内时返回 null。
+     */
+    public String findRegion(String dimension, double x, double y, double z, double minRadius) {
+        synchronized (indexLock) {
+            ensureIndex();
+            double searchRadius = Math.max(minRadius, spatialIndex.getMaxDistance());
+            for (PointSpatialIndex.Entry entry : spatialIndex.within(dimension, x, y, z, searchRadius)) {
+                double radius = Math.max(minRadius, entry.distance);
+                if (!"default".equals(entry.group) && entry.distanceSq(x, y, z) <= radius * radius) {
+                    return entry.group;
+                }
             }
+            return null;
         }
-        return groups;
     }
-}
\ No newline at end of file
+}
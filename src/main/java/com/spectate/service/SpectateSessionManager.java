@@ -5,6 +5,8 @@ import com.spectate.config.ConfigManager;
 import com.spectate.config.SpectateConfig;
 import com.spectate.data.SpectatePointData;
 import com.spectate.data.SpectateStatsManager;
+import com.spectate.metrics.SpectateJfr;
+import com.spectate.metrics.SpectateMetrics;
 import com.spectate.network.ServerNetworkHandler;
 import com.spectate.network.packet.SpectateParamsPayload;
 import com.spectate.network.packet.SpectateStatePayload;
@@ -13,11 +15,13 @@ import net.minecraft.entity.Entity;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
-import net.minecraft.text.Text;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.GameMode;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,13 +36,15 @@ public class SpectateSessionManager {
 
     private static final SpectateSessionManager INSTANCE = new SpectateSessionManager();
     public static SpectateSessionManager getInstance() { return INSTANCE; }
-    private static final long SMOOTH_PLAYER_TARGET_UPDATE_INTERVAL_MS = 50L;
-    private static final long SMOOTH_POINT_TARGET_UPDATE_INTERVAL_MS = 200L;
+    static final long SMOOTH_PLAYER_TARGET_UPDATE_INTERVAL_MS = 50L;
+    static final long SMOOTH_POINT_TARGET_UPDATE_INTERVAL_MS = 200L;
 
     private final Map<UUID, PlayerOriginalState> playerOriginalStates = new ConcurrentHashMap<>();
     private final Map<UUID, SpectateSession> activeSpectations = new ConcurrentHashMap<>();
     private final ScheduledExecutorService scheduler;
-    private final ConfigManager configManager = ConfigManager.getInstance();
+    private final ConfigManager configManager = ConfigManager.getInstance();
+    private final ActionBarRenderer<ServerPlayerEntity> actionBar = ActionBarRenderer.forPlayers();
+    private final TickBudgetManager tickBudget = TickBudgetManager.getInstance();
 
     private SpectateSessionManager() {
         this.scheduler = CycleService.getInstance().getScheduler();
@@ -153,6 +159,7 @@ public class SpectateSessionManager {
      * @param pitch 俯仰角
      */
     public static void teleportPlayer(ServerPlayerEntity player, ServerWorld world, double x, double y, double z, float yaw, float pitch) {
+        long start = SpectateMetrics.start();
         //#if MC == 12100
         //$$player.teleport(world, x, y, z, Collections.emptySet(), yaw, pitch);
         //#elseif MC == 12101
@@ -162,6 +169,7 @@ public class SpectateSessionManager {
         //#else
         //$$player.teleport(world, x, y, z, yaw, pitch);
         //#endif
+        SessionCost.recordTeleport(SpectateMetrics.record(SpectateMetrics.Timer.TELEPORT, start));
     }
 
     private static boolean isPlayerRemoved(ServerPlayerEntity player) {
@@ -211,7 +219,10 @@ public class SpectateSessionManager {
         private final boolean isPoint;
         private final ViewMode viewMode;
         private FloatingCamera floatingCamera; // 浮游摄像机实例
+        private final PointPathCache.PathTable pathTable; // 周期路径的预计算表，非周期视角为 null
+        private final double[] poseBuffer = new double[5]; // 机位计算复用的缓冲区，仅在调度线程访问
         private boolean useSmoothClient; // 是否使用客户端平滑
+        private final SessionCost cost; // 调度线程上的 CPU 耗时
 
         // 目标位置跟踪（用于计算速度）
         private double lastTargetX, lastTargetY, lastTargetZ;
@@ -223,7 +234,9 @@ public class SpectateSessionManager {
             this.isPoint = true;
             this.viewMode = ViewMode.ORBIT;
             this.startTime = System.currentTimeMillis();
+            this.cost = new SessionCost(this.viewMode);
             this.useSmoothClient = false;
+            this.pathTable = PointPathCache.getInstance().getTable(pointData, this.viewMode);
             initializeFloatingCamera();
         }
 
@@ -233,7 +246,9 @@ public class SpectateSessionManager {
             this.isPoint = true;
             this.viewMode = viewMode != null ? viewMode : ViewMode.ORBIT;
             this.startTime = System.currentTimeMillis();
+            this.cost = new SessionCost(this.viewMode);
             this.useSmoothClient = false;
+            this.pathTable = PointPathCache.getInstance().getTable(pointData, this.viewMode);
             initializeFloatingCamera();
         }
 
@@ -243,7 +258,9 @@ public class SpectateSessionManager {
             this.isPoint = false;
             this.viewMode = ViewMode.ORBIT;
             this.startTime = System.currentTimeMillis();
+            this.cost = new SessionCost(this.viewMode);
             this.useSmoothClient = false;
+            this.pathTable = null;
             initializeFloatingCamera();
         }
 
@@ -253,7 +270,9 @@ public class SpectateSessionManager {
             this.isPoint = false;
             this.viewMode = viewMode != null ? viewMode : ViewMode.ORBIT;
             this.startTime = System.currentTimeMillis();
+            this.cost = new SessionCost(this.viewMode);
             this.useSmoothClient = false;
+            this.pathTable = null;
             initializeFloatingCamera();
         }
 
@@ -298,6 +317,14 @@ public class SpectateSessionManager {
             return floatingCamera;
         }
 
+        PointPathCache.PathTable getPathTable() {
+            return pathTable;
+        }
+
+        double[] getPoseBuffer() {
+            return poseBuffer;
+        }
+
         boolean isUseSmoothClient() {
             return useSmoothClient;
         }
@@ -309,6 +336,10 @@ public class SpectateSessionManager {
         long getStartTime() {
             return startTime;
         }
+
+        SessionCost getCost() {
+            return cost;
+        }
     }
 
     /**
@@ -329,6 +360,7 @@ public class SpectateSessionManager {
      */
     private void cancelCurrentSpectation(UUID playerId) {
         SpectateSession session = activeSpectations.remove(playerId);
+        actionBar.reset(playerId);
         if (session != null) {
             session.cancel();
             
@@ -393,6 +425,7 @@ public class SpectateSessionManager {
         if (server == null) return;
 
         server.execute(() -> {
+            SpectateJfr.Span span = SpectateJfr.begin(SpectateJfr.Kind.SESSION_START);
             changeGameMode(player, GameMode.SPECTATOR);
 
             String modeMessage = getViewModeMessage(normalizedViewMode);
@@ -414,17 +447,22 @@ public class SpectateSessionManager {
                     return;
                 }
 
-                double elapsed = (System.currentTimeMillis() - session.startTime) / 1000.0;
-
+                long updateStart = SpectateMetrics.start();
+                SpectateJfr.Span batch = SpectateJfr.begin(SpectateJfr.Kind.TELEPORT_BATCH);
+                double elapsed = (System.currentTimeMillis() - session.startTime) / 1000.0;
+
                 // 只有非smooth客户端才需要服务端teleport
                 if (!session.isUseSmoothClient()) {
                     if (point.getRotationSpeed() > 0 || normalizedViewMode != ViewMode.ORBIT) {
-                        updateOrbitingPosition(player, session, elapsed);
+                        runBudgeted(TickBudgetManager.Work.POINT_SESSION, player, session,
+                                () -> updateOrbitingPosition(player, session, elapsed));
                     }
                 }
-
-                // 发送 ActionBar 信息
-                sendActionBarInfo(player, session);
+
+                // 发送 ActionBar 信息
+                runBudgeted(TickBudgetManager.Work.ACTION_BAR, player, session, () -> sendActionBarInfo(player, session));
+                SpectateMetrics.record(SpectateMetrics.Timer.SESSION_UPDATE, updateStart);
+                batch.finish(player.getGameProfile().getName(), point.getDescription(), normalizedViewMode.getName());
 
             }, 50, 50, TimeUnit.MILLISECONDS);
 
@@ -434,132 +472,96 @@ public class SpectateSessionManager {
                     if (isPlayerRemoved(player)) {
                         return;
                     }
-                    sendTargetUpdate(player, point);
+                    runBudgeted(TickBudgetManager.Work.TARGET_PACKET, player, session, () -> sendTargetUpdate(player, point));
                 }, 0, SMOOTH_POINT_TARGET_UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
             }
+            span.finish(player.getGameProfile().getName(), point.getDescription(), normalizedViewMode.getName());
         });
     }
 
+    /**
+     * 在卡顿预算允许时执行一次调度线程上的观察工作，并记录耗时。预算不足时本次直接跳过。
+     * 耗时同时记入会话的 {@link SessionCost}：机位更新拆分为机位计算和传送，其余记为发包。
+     */
+    private void runBudgeted(TickBudgetManager.Work work, ServerPlayerEntity viewer, SpectateSession session, Runnable task) {
+        if (!tickBudget.tryAcquire(work, viewer.getUuid().hashCode())) {
+            return;
+        }
+        SessionCost cost = session.getCost();
+        boolean poseUpdate = work == TickBudgetManager.Work.POINT_SESSION || work == TickBudgetManager.Work.PLAYER_TELEPORT;
+        long teleportBefore = 0L;
+        if (poseUpdate) {
+            teleportBefore = cost.getNanos(SessionCost.Kind.TELEPORT);
+            cost.beginUpdate();
+        }
+        long start = System.nanoTime();
+        task.run();
+        long elapsed = System.nanoTime() - start;
+        tickBudget.charge(elapsed);
+        if (poseUpdate) {
+            cost.endUpdate(elapsed, teleportBefore);
+        } else {
+            cost.addPacketTask(elapsed);
+        }
+    }
+
     private void sendActionBarInfo(ServerPlayerEntity player, SpectateSession session) {
-        String message = "";
+        // 如果正在循环模式，附带倒计时
+        int countdown = ActionBarRenderer.NO_COUNTDOWN;
+        if (CycleService.getInstance().isCycling(player.getUuid())) {
+            long remainingMillis = CycleService.getInstance().getTimeRemaining(player.getUuid());
+            countdown = (int) Math.max(0, remainingMillis / 1000);
+        }
+
         if (session.isObservingPoint()) {
             SpectatePointData point = session.getSpectatePointData();
             if (point != null) {
-                message = "§e正在观察: §f" + point.getDescription();
+                actionBar.renderPoint(player, point.getDescription(), countdown);
             }
         } else {
             ServerPlayerEntity target = session.getTargetPlayer();
             if (target != null && !isPlayerRemoved(target)) {
-                float health = target.getHealth();
-                float maxHealth = target.getMaxHealth();
-                String hpColor = health < maxHealth * 0.3 ? "§c" : (health < maxHealth * 0.7 ? "§e" : "§a");
-                
-                message = String.format("§e正在观察: §f%s  %s❤ %.1f/%.1f  §b[%.0f, %.0f, %.0f]", 
-                    target.getName().getString(), hpColor, health, maxHealth, target.getX(), target.getY(), target.getZ());
+                actionBar.renderPlayer(player, target, countdown);
             } else {
-                message = "§c目标已离线";
+                actionBar.renderOffline(player, countdown);
             }
         }
-        
-        // 如果正在循环模式，添加倒计时
-        if (CycleService.getInstance().isCycling(player.getUuid())) {
-            long remainingMillis = CycleService.getInstance().getTimeRemaining(player.getUuid());
-            long remainingSeconds = Math.max(0, remainingMillis / 1000);
-            message += String.format("  §d[循环: %ds]", remainingSeconds);
-        }
-        
-        if (!message.isEmpty()) {
-            //#if MC >= 11900
-            player.sendMessage(Text.literal(message), true);
-            //#else
-            //$$player.sendMessage(new net.minecraft.text.LiteralText(message), true);
-            //#endif
-        }
     }
 
     private void updateOrbitingPosition(ServerPlayerEntity player, SpectateSession session, double elapsedSeconds) {
         SpectatePointData point = session.getSpectatePointData();
         if (point == null) return;
 
-        ViewMode viewMode = session.getViewMode();
-        
-        switch (viewMode) {
-            case ORBIT:
-                updateOrbitPointPosition(player, session, elapsedSeconds);
-                break;
-            case CINEMATIC_SLOW_ORBIT:
-            case CINEMATIC_AERIAL_VIEW:
-            case CINEMATIC_SPIRAL_UP:
-            case CINEMATIC_FLOATING:
-                updateCinematicPointPosition(player, session, elapsedSeconds, viewMode);
-                break;
-            default:
-                updateOrbitPointPosition(player, session, elapsedSeconds);
-                break;
-        }
-    }
+        ServerWorld targetWorld = resolvePointWorld(player, point);
 
-    private void updateOrbitPointPosition(ServerPlayerEntity player, SpectateSession session, double elapsedSeconds) {
-        SpectatePointData point = session.getSpectatePointData();
-        if (point == null) return;
-
-        // 确保在正确的维度
-        ServerWorld targetWorld = player.getServerWorld();
-        try {
-            String dimensionStr = point.getDimension();
-            if (dimensionStr.contains(":")) {
-                String[] parts = dimensionStr.split(":");
-                //#if MC >= 12005
-                net.minecraft.util.Identifier dimensionId = net.minecraft.util.Identifier.of(parts[0], parts[1]);
-                //#else
-                //$$net.minecraft.util.Identifier dimensionId = new net.minecraft.util.Identifier(parts[0], parts[1]);
-                //#endif
-                for (ServerWorld world : player.getServer().getWorlds()) {
-                    if (world.getRegistryKey().getValue().equals(dimensionId)) {
-                        targetWorld = world;
-                        break;
-                    }
-                }
-            }
-            //#if MC >= 11900
-            if (targetWorld != null && !player.getWorld().equals(targetWorld)) {
-            //#else
-            //$$if (targetWorld != null && !player.getServerWorld().equals(targetWorld)) {
-            //#endif
-                teleportPlayer(player, targetWorld, player.getX(), player.getY(), player.getZ(), 0, 0);
-            }
-        } catch (Exception e) {
-            // 如果维度解析失败，使用当前世界
-            targetWorld = player.getServerWorld();
-        }
-
-        double angleRad = 0;
-        if (point.getRotationSpeed() > 0) {
-            double periodSec = 360.0 / point.getRotationSpeed();
-            angleRad = (elapsedSeconds % periodSec) / periodSec * 2 * Math.PI;
-        }
-
-        double camXo = Math.sin(angleRad) * point.getDistance();
-        double camZo = Math.cos(angleRad) * point.getDistance();
-        double camXn = point.getPosition().getX() + 0.5 + camXo;
-        double camYn = point.getPosition().getY() + 0.5 + point.getHeightOffset();
-        double camZn = point.getPosition().getZ() + 0.5 + camZo;
-        double dx = point.getPosition().getX() + 0.5 - camXn;
-        double dy = point.getPosition().getY() + 0.5 - camYn;
-        double dz = point.getPosition().getZ() + 0.5 - camZn;
-        float yaw = (float) (Math.atan2(dz, dx) * 180.0 / Math.PI) - 90f;
-        float pitch = (float) (-Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz))));
+        double[] pose = session.getPoseBuffer();
+        CameraPoses.point(session.getViewMode(), session.getPathTable(), session.getFloatingCamera(),
+                point.getPosition().getX() + 0.5, point.getPosition().getY() + 0.5, point.getPosition().getZ() + 0.5,
+                point.getDistance(), point.getHeightOffset(),
+                elapsedSeconds, floatingDeltaTime(session, elapsedSeconds), pose);
 
         if (isPlayerRemoved(player)) return;
         ServerWorld world = targetWorld != null ? targetWorld : player.getServerWorld();
-        teleportPlayer(player, world, camXn, camYn, camZn, yaw, pitch);
+        teleportPlayer(player, world, pose[0], pose[1], pose[2], (float) pose[3], (float) pose[4]);
     }
 
-    private void updateCinematicPointPosition(ServerPlayerEntity player, SpectateSession session, double elapsedSeconds, ViewMode viewMode) {
-        SpectatePointData point = session.getSpectatePointData();
-        if (point == null) return;
+    /**
+     * 浮游视角本次更新的时间步长，最长 0.1 秒；没有浮游摄像机时不使用。
+     */
+    private static double floatingDeltaTime(SpectateSession session, double elapsedSeconds) {
+        if (session.getFloatingCamera() == null) {
+            return 0.05;
+        }
+        double deltaTime = Math.min(0.1, elapsedSeconds - ((System.currentTimeMillis() - session.startTime) / 1000.0 - 0.05));
+        if (deltaTime <= 0) deltaTime = 0.05; // 默认50ms
+        return deltaTime;
+    }
 
-        // 确保在正确的维度
+    /**
+     * 解析观察点所在维度，玩家不在该维度时先传送过去。
+     * 解析失败时返回玩家当前所在的世界。
+     */
+    private ServerWorld resolvePointWorld(ServerPlayerEntity player, SpectatePointData point) {
         ServerWorld targetWorld = player.getServerWorld();
         try {
             String dimensionStr = point.getDimension();
@@ -588,128 +590,7 @@ public class SpectateSessionManager {
             // 如果维度解析失败，使用当前世界
             targetWorld = player.getServerWorld();
         }
-
-        double centerX = point.getPosition().getX() + 0.5;
-        double centerY = point.getPosition().getY() + 0.5;
-        double centerZ = point.getPosition().getZ() + 0.5;
-        
-        double camXn, camYn, camZn;
-        float yaw, pitch;
-        double distance, heightOffset, rotationSpeed, angleRad, camXo, camZo;
-        double spiralSpeed, riseSpeed;
-        double dx, dy, dz;
-        
-        switch (viewMode) {
-            case CINEMATIC_SLOW_ORBIT:
-                // 慢速环绕，忽略原点配置的旋转速度
-                distance = Math.max(point.getDistance(), 8.0);
-                heightOffset = point.getHeightOffset() + 2.0;
-                rotationSpeed = 0.5; // 很慢的旋转速度
-                
-                angleRad = (elapsedSeconds * rotationSpeed) * Math.PI / 180.0;
-                camXo = Math.sin(angleRad) * distance;
-                camZo = Math.cos(angleRad) * distance;
-                camXn = centerX + camXo;
-                camYn = centerY + heightOffset;
-                camZn = centerZ + camZo;
-                break;
-                
-            case CINEMATIC_AERIAL_VIEW:
-                // 高空俯瞰
-                camXn = centerX;
-                camYn = centerY + 25.0; // 高空视角
-                camZn = centerZ;
-                break;
-                
-            case CINEMATIC_SPIRAL_UP:
-                // 螺旋上升
-                distance = Math.max(point.getDistance(), 8.0);
-                spiralSpeed = 1.0; // 度/秒
-                riseSpeed = 0.3; // 每秒上升格数
-                
-                angleRad = (elapsedSeconds * spiralSpeed) * Math.PI / 180.0;
-                heightOffset = point.getHeightOffset() + (elapsedSeconds * riseSpeed);
-                
-                camXo = Math.sin(angleRad) * distance;
-                camZo = Math.cos(angleRad) * distance;
-                camXn = centerX + camXo;
-                camYn = centerY + heightOffset;
-                camZn = centerZ + camZo;
-                break;
-
-            case CINEMATIC_FLOATING:
-                // 浮游视角
-                FloatingCamera floatingCam = session.getFloatingCamera();
-                if (floatingCam != null) {
-                    double deltaTime = Math.min(0.1, elapsedSeconds - ((System.currentTimeMillis() - session.startTime) / 1000.0 - 0.05));
-                    if (deltaTime <= 0) deltaTime = 0.05; // 默认50ms
-                    
-                    double[] result = new double[5];
-                    floatingCam.updatePosition(centerX, centerY, centerZ, deltaTime, result);
-                    
-                    camXn = result[0];
-                    camYn = result[1];
-                    camZn = result[2];
-                    
-                    // 浮游视角有自己的yaw/pitch计算
-                    yaw = (float) result[3];
-                    pitch = (float) result[4];
-                    
-                    if (isPlayerRemoved(player)) return;
-                    ServerWorld world = targetWorld != null ? targetWorld : player.getServerWorld();
-                    teleportPlayer(player, world, camXn, camYn, camZn, yaw, pitch);
-                    return; // 直接返回，不需要下面的通用视角计算
-                } else {
-                    // 如果浮游摄像机未初始化，回退到慢速环绕
-                    distance = Math.max(point.getDistance(), 8.0);
-                    heightOffset = point.getHeightOffset() + 2.0;
-                    rotationSpeed = 0.5;
-                    
-                    angleRad = (elapsedSeconds * rotationSpeed) * Math.PI / 180.0;
-                    camXo = Math.sin(angleRad) * distance;
-                    camZo = Math.cos(angleRad) * distance;
-                    camXn = centerX + camXo;
-                    camYn = centerY + heightOffset;
-                    camZn = centerZ + camZo;
-                    
-                    // 计算视角方向，始终看向观察点中心
-                    dx = centerX - camXn;
-                    dy = centerY - camYn;
-                    dz = centerZ - camZn;
-                    yaw = (float) (Math.atan2(dz, dx) * 180.0 / Math.PI) - 90f;
-                    pitch = (float) (-Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz))));
-
-                    if (isPlayerRemoved(player)) return;
-                    ServerWorld world = targetWorld != null ? targetWorld : player.getServerWorld();
-                    teleportPlayer(player, world, camXn, camYn, camZn, yaw, pitch);
-                    return;
-                }
-                
-            default:
-                // 默认使用慢速环绕
-                distance = Math.max(point.getDistance(), 8.0);
-                heightOffset = point.getHeightOffset() + 2.0;
-                rotationSpeed = 0.5;
-                
-                angleRad = (elapsedSeconds * rotationSpeed) * Math.PI / 180.0;
-                camXo = Math.sin(angleRad) * distance;
-                camZo = Math.cos(angleRad) * distance;
-                camXn = centerX + camXo;
-                camYn = centerY + heightOffset;
-                camZn = centerZ + camZo;
-                break;
-        }
-        
-        // 计算视角方向，始终看向观察点中心
-        dx = centerX - camXn;
-        dy = centerY - camYn;
-        dz = centerZ - camZn;
-        yaw = (float) (Math.atan2(dz, dx) * 180.0 / Math.PI) - 90f;
-        pitch = (float) (-Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz))));
-
-        if (isPlayerRemoved(player)) return;
-        ServerWorld world = targetWorld != null ? targetWorld : player.getServerWorld();
-        teleportPlayer(player, world, camXn, camYn, camZn, yaw, pitch);
+        return targetWorld;
     }
 
     private void updatePlayerSpectatePosition(ServerPlayerEntity viewer, ServerPlayerEntity target, double elapsedSeconds) {
@@ -717,190 +598,26 @@ public class SpectateSessionManager {
         if (session == null) return;
 
         ViewMode viewMode = session.getViewMode();
-        
-        switch (viewMode) {
-            case ORBIT:
-                updateOrbitPlayerPosition(viewer, target, elapsedSeconds);
-                break;
-            case FOLLOW:
-                updateFollowPlayerPosition(viewer, target, elapsedSeconds);
-                break;
-            case CINEMATIC_SLOW_ORBIT:
-            case CINEMATIC_AERIAL_VIEW:
-            case CINEMATIC_SPIRAL_UP:
-            case CINEMATIC_FLOATING:
-                updateCinematicPlayerPosition(viewer, target, elapsedSeconds, viewMode);
-                break;
-            default:
-                updateOrbitPlayerPosition(viewer, target, elapsedSeconds);
-                break;
-        }
-    }
-
-    private void updateOrbitPlayerPosition(ServerPlayerEntity viewer, ServerPlayerEntity target, double elapsedSeconds) {
-        // 无客户端模组时，使用服务端全局配置。
-        SpectateRuntimeConfig runtimeConfig = getGlobalRuntimeConfig();
-        double distance = runtimeConfig.distance;
-        double heightOffset = runtimeConfig.heightOffset;
-        double rotationSpeed = runtimeConfig.rotationSpeed;
-        
-        double angleRad = 0;
-        if (rotationSpeed > 0) {
-            double periodSec = 360.0 / rotationSpeed;
-            angleRad = (elapsedSeconds % periodSec) / periodSec * 2 * Math.PI;
+        double distance = 0, heightOffset = 0, rotationSpeed = 0;
+        if (viewMode == ViewMode.ORBIT) {
+            // 无客户端模组时，使用服务端全局配置。
+            SpectateRuntimeConfig runtimeConfig = getGlobalRuntimeConfig();
+            distance = runtimeConfig.distance;
+            heightOffset = runtimeConfig.heightOffset;
+            rotationSpeed = runtimeConfig.rotationSpeed;
         }
 
-        double camXo = Math.sin(angleRad) * distance;
-        double camZo = Math.cos(angleRad) * distance;
-        double camXn = target.getX() + camXo;
-        double camYn = target.getY() + heightOffset;
-        double camZn = target.getZ() + camZo;
-        
-        // 计算视角方向，始终看向目标玩家
-        double dx = target.getX() - camXn;
-        double dy = target.getY() - camYn;
-        double dz = target.getZ() - camZn;
-        float yaw = (float) (Math.atan2(dz, dx) * 180.0 / Math.PI) - 90f;
-        float pitch = (float) (-Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz))));
-
-        if (isPlayerRemoved(viewer) || isPlayerRemoved(target)) return;
-        //#if MC >= 11900
-        teleportPlayer(viewer, (ServerWorld) target.getWorld(), camXn, camYn, camZn, yaw, pitch);
-        //#else
-        //$$teleportPlayer(viewer, (ServerWorld) target.getServerWorld(), camXn, camYn, camZn, yaw, pitch);
-        //#endif
-    }
-
-    private void updateFollowPlayerPosition(ServerPlayerEntity viewer, ServerPlayerEntity target, double elapsedSeconds) {
-        double distance = 5.0;  // 跟随距离
-        double heightOffset = 1.5;  // 高度偏移
-        
-        // 获取目标朝向，在其后方跟随
-        float targetYaw = getPlayerYaw(target);
-        double camXn = target.getX() - Math.sin(Math.toRadians(targetYaw)) * distance;
-        double camZn = target.getZ() + Math.cos(Math.toRadians(targetYaw)) * distance;
-        double camYn = target.getY() + heightOffset;
-        
-        // 始终看向目标
-        double dx = target.getX() - camXn;
-        double dy = target.getY() - camYn;
-        double dz = target.getZ() - camZn;
-        float yaw = (float) (Math.atan2(dz, dx) * 180.0 / Math.PI) - 90f;
-        float pitch = (float) (-Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz))));
-
-        if (isPlayerRemoved(viewer) || isPlayerRemoved(target)) return;
-        //#if MC >= 11900
-        teleportPlayer(viewer, (ServerWorld) target.getWorld(), camXn, camYn, camZn, yaw, pitch);
-        //#else
-        //$$teleportPlayer(viewer, (ServerWorld) target.getServerWorld(), camXn, camYn, camZn, yaw, pitch);
-        //#endif
-    }
-
-    private void updateCinematicPlayerPosition(ServerPlayerEntity viewer, ServerPlayerEntity target, double elapsedSeconds, ViewMode viewMode) {
-        double camXn, camYn, camZn;
-        float yaw, pitch;
-        double distance, heightOffset, rotationSpeed, angleRad, camXo, camZo;
-        double spiralSpeed, riseSpeed;
-        
-        switch (viewMode) {
-            case CINEMATIC_SLOW_ORBIT:
-                // 慢速环绕
-                distance = 12.0;
-                heightOffset = 3.0;
-                rotationSpeed = 1.0; // 1度/秒
-                
-                angleRad = 0;
-                if (rotationSpeed > 0) {
-                    double periodSec = 360.0 / rotationSpeed;
-                    angleRad = (elapsedSeconds % periodSec) / periodSec * 2 * Math.PI;
-                }
-                
-                camXo = Math.sin(angleRad) * distance;
-                camZo = Math.cos(angleRad) * distance;
-                camXn = target.getX() + camXo;
-                camYn = target.getY() + heightOffset;
-                camZn = target.getZ() + camZo;
-                break;
-                
-            case CINEMATIC_AERIAL_VIEW:
-                // 高空俯瞰
-                camXn = target.getX();
-                camYn = target.getY() + 20.0;
-                camZn = target.getZ();
-                break;
-                
-            case CINEMATIC_SPIRAL_UP:
-                // 螺旋上升
-                distance = 8.0;
-                spiralSpeed = 2.0; // 2度/秒
-                riseSpeed = 0.5; // 每秒上升0.5格
-                
-                angleRad = (elapsedSeconds * spiralSpeed) * Math.PI / 180.0;
-                heightOffset = 2.0 + (elapsedSeconds * riseSpeed);
-                
-                camXo = Math.sin(angleRad) * distance;
-                camZo = Math.cos(angleRad) * distance;
-                camXn = target.getX() + camXo;
-                camYn = target.getY() + heightOffset;
-                camZn = target.getZ() + camZo;
-                break;
-
-            case CINEMATIC_FLOATING:
-                // 浮游视角
-                SpectateSession session = activeSpectations.get(viewer.getUuid());
-                if (session != null) {
-                    FloatingCamera floatingCam = session.getFloatingCamera();
-                    if (floatingCam != null) {
-                        double deltaTime = Math.min(0.1, elapsedSeconds - ((System.currentTimeMillis() - session.startTime) / 1000.0 - 0.05));
-                        if (deltaTime <= 0) deltaTime = 0.05; // 默认50ms
-                        
-                        double[] result = new double[5];
-                        floatingCam.updatePosition(target.getX(), target.getY(), target.getZ(), deltaTime, result);
-                        
-                        camXn = result[0];
-                        camYn = result[1];
-                        camZn = result[2];
-                        
-                        // 浮游视角有自己的yaw/pitch计算
-                        yaw = (float) result[3];
-                        pitch = (float) result[4];
-                        
-                        if (isPlayerRemoved(viewer) || isPlayerRemoved(target)) return;
-                        //#if MC >= 11900
-                        teleportPlayer(viewer, (ServerWorld) target.getWorld(), camXn, camYn, camZn, yaw, pitch);
-                        //#else
-                        //$$teleportPlayer(viewer, (ServerWorld) target.getServerWorld(), camXn, camYn, camZn, yaw, pitch);
-                        //#endif
-                        return; // 直接返回，不需要下面的通用视角计算
-                    } else {
-                        // 如果浮游摄像机未初始化，回退到慢速环绕
-                        updateCinematicPlayerPosition(viewer, target, elapsedSeconds, ViewMode.CINEMATIC_SLOW_ORBIT);
-                        return;
-                    }
-                } else {
-                    // 如果session未找到，回退到慢速环绕
-                    updateCinematicPlayerPosition(viewer, target, elapsedSeconds, ViewMode.CINEMATIC_SLOW_ORBIT);
-                    return;
-                }
-                
-            default:
-                // 默认使用慢速环绕
-                updateCinematicPlayerPosition(viewer, target, elapsedSeconds, ViewMode.CINEMATIC_SLOW_ORBIT);
-                return;
-        }
-        
-        // 计算视角方向，始终看向目标玩家
-        double dx = target.getX() - camXn;
-        double dy = target.getY() - camYn;
-        double dz = target.getZ() - camZn;
-        yaw = (float) (Math.atan2(dz, dx) * 180.0 / Math.PI) - 90f;
-        pitch = (float) (-Math.toDegrees(Math.atan2(dy, Math.sqrt(dx * dx + dz * dz))));
+        double[] pose = session.getPoseBuffer();
+        CameraPoses.player(viewMode, session.getFloatingCamera(),
+                target.getX(), target.getY(), target.getZ(), getPlayerYaw(target),
+                distance, heightOffset, rotationSpeed,
+                elapsedSeconds, floatingDeltaTime(session, elapsedSeconds), pose);
 
         if (isPlayerRemoved(viewer) || isPlayerRemoved(target)) return;
         //#if MC >= 11900
-        teleportPlayer(viewer, (ServerWorld) target.getWorld(), camXn, camYn, camZn, yaw, pitch);
+        teleportPlayer(viewer, (ServerWorld) target.getWorld(), pose[0], pose[1], pose[2], (float) pose[3], (float) pose[4]);
         //#else
-        //$$teleportPlayer(viewer, (ServerWorld) target.getServerWorld(), camXn, camYn, camZn, yaw, pitch);
+        //$$teleportPlayer(viewer, (ServerWorld) target.getServerWorld(), pose[0], pose[1], pose[2], (float) pose[3], (float) pose[4]);
         //#endif
     }
 
@@ -949,6 +666,7 @@ public class SpectateSessionManager {
         if (server == null) return;
 
         server.execute(() -> {
+            SpectateJfr.Span span = SpectateJfr.begin(SpectateJfr.Kind.SESSION_START);
             changeGameMode(viewer, GameMode.SPECTATOR);
 
             String modeMessage = getViewModeMessage(normalizedViewMode);
@@ -983,14 +701,19 @@ public class SpectateSessionManager {
                     //#endif
                 }
 
+                long updateStart = SpectateMetrics.start();
+                SpectateJfr.Span batch = SpectateJfr.begin(SpectateJfr.Kind.TELEPORT_BATCH);
                 double elapsed = (System.currentTimeMillis() - session.startTime) / 1000.0;
 
-                // 始终更新服务端玩家实体位置，确保区块加载与实体跟踪范围跟随目标。
-                // smooth 客户端仍由本地相机渲染，这里的 teleport 主要用于服务端同步。
-                updatePlayerSpectatePosition(viewer, target, elapsed);
+                // 始终更新服务端玩家实体位置，确保区块加载与实体跟踪范围跟随目标。
+                // smooth 客户端仍由本地相机渲染，这里的 teleport 主要用于服务端同步。
+                runBudgeted(TickBudgetManager.Work.PLAYER_TELEPORT, viewer, session,
+                        () -> updatePlayerSpectatePosition(viewer, target, elapsed));
 
                 // 发送 ActionBar 信息
-                sendActionBarInfo(viewer, session);
+                runBudgeted(TickBudgetManager.Work.ACTION_BAR, viewer, session, () -> sendActionBarInfo(viewer, session));
+                SpectateMetrics.record(SpectateMetrics.Timer.SESSION_UPDATE, updateStart);
+                batch.finish(viewer.getGameProfile().getName(), target.getGameProfile().getName(), normalizedViewMode.getName());
 
             }, 50, 50, TimeUnit.MILLISECONDS);
 
@@ -1000,12 +723,28 @@ public class SpectateSessionManager {
                     if (isPlayerRemoved(viewer) || isPlayerRemoved(target)) {
                         return;
                     }
-                    sendTargetUpdatePlayer(viewer, target, session);
+                    runBudgeted(TickBudgetManager.Work.TARGET_PACKET, viewer, session,
+                            () -> sendTargetUpdatePlayer(viewer, target, session));
                 }, 0, SMOOTH_PLAYER_TARGET_UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
             }
+            span.finish(viewer.getGameProfile().getName(), target.getGameProfile().getName(), normalizedViewMode.getName());
         });
     }
 
+    /**
+     * 会话目标的简短描述（观察点描述或目标玩家名），用于 JFR 事件。
+     */
+    private static String describeTarget(SpectateSession session) {
+        if (session == null) {
+            return null;
+        }
+        if (session.isObservingPoint()) {
+            return session.getSpectatePointData().getDescription();
+        }
+        ServerPlayerEntity target = session.getTargetPlayer();
+        return target != null ? target.getGameProfile().getName() : null;
+    }
+
     private String getViewModeMessage(ViewMode viewMode) {
         if (viewMode == null) {
             return "普通模式";
@@ -1037,6 +776,8 @@ public class SpectateSessionManager {
      */
     public boolean stopSpectating(ServerPlayerEntity player) {
         UUID playerId = player.getUuid();
+        SpectateJfr.Span span = SpectateJfr.begin(SpectateJfr.Kind.SESSION_STOP);
+        SpectateSession session = span.isActive() ? activeSpectations.get(playerId) : null;
 
         // 目标下线时会话可能已被 cancelCurrentSpectation 提前移除。
         // 只要该玩家仍有旁观原始状态，就需要发送 STOP 以重置客户端平滑镜头状态。
@@ -1058,6 +799,8 @@ public class SpectateSessionManager {
         server.execute(() -> {
             originalState.restore(player);
             player.sendMessage(configManager.getMessage("spectate_stop"), false);
+            span.finish(player.getGameProfile().getName(), describeTarget(session),
+                    session != null ? session.getViewMode().getName() : null);
         });
         return true;
     }
@@ -1072,6 +815,108 @@ public class SpectateSessionManager {
         return playerOriginalStates.containsKey(playerId);
     }
 
+    /**
+     * 按视角模式统计当前的旁观会话，可在任意线程调用。
+     *
+     * @param byViewMode 按 {@link ViewMode#ordinal()} 累加各模式的会话数
+     * @return 其中使用客户端平滑的会话数
+     */
+    public int countSessions(int[] byViewMode) {
+        int smooth = 0;
+        for (SpectateSession session : activeSpectations.values()) {
+            byViewMode[session.getViewMode().ordinal()]++;
+            if (session.isUseSmoothClient()) {
+                smooth++;
+            }
+        }
+        return smooth;
+    }
+
+    /**
+     * 当前旁观会话的 CPU 耗时，按会话开始以来平均每秒耗时从高到低排序。
+     */
+    public List<SessionCostEntry> listSessionCosts() {
+        long now = System.currentTimeMillis();
+        List<SessionCostEntry> entries = new ArrayList<>(activeSpectations.size());
+        for (Map.Entry<UUID, SpectateSession> entry : activeSpectations.entrySet()) {
+            SpectateSession session = entry.getValue();
+            entries.add(new SessionCostEntry(entry.getKey(), describeTarget(session), session.isUseSmoothClient(),
+                    session.getCost(), now - session.getStartTime()));
+        }
+        entries.sort(Comparator.comparingDouble(SessionCostEntry::getNanosPerSecond).reversed());
+        return entries;
+    }
+
+    /**
+     * {@link #listSessionCosts()} 的一项，耗时在创建时取快照，排序期间不会变化。
+     */
+    public static final class SessionCostEntry {
+        private final UUID viewerId;
+        private final String target;
+        private final boolean smoothClient;
+        private final ViewMode viewMode;
+        private final long[] nanos = new long[SessionCost.Kind.values().length];
+        private final long updates;
+        private final long packetTasks;
+        private final double nanosPerSecond;
+
+        SessionCostEntry(UUID viewerId, String target, boolean smoothClient, SessionCost cost, long durationMillis) {
+            this.viewerId = viewerId;
+            this.target = target;
+            this.smoothClient = smoothClient;
+            this.viewMode = cost.getViewMode();
+            long total = 0L;
+            for (SessionCost.Kind kind : SessionCost.Kind.values()) {
+                nanos[kind.ordinal()] = cost.getNanos(kind);
+                total += nanos[kind.ordinal()];
+            }
+            this.updates = cost.getUpdates();
+            this.packetTasks = cost.getPacketTasks();
+            this.nanosPerSecond = total * 1000.0 / Math.max(1L, durationMillis);
+        }
+
+        public UUID getViewerId() {
+            return viewerId;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public boolean isSmoothClient() {
+            return smoothClient;
+        }
+
+        public ViewMode getViewMode() {
+            return viewMode;
+        }
+
+        public long getNanos(SessionCost.Kind kind) {
+            return nanos[kind.ordinal()];
+        }
+
+        /**
+         * @return 已完成的机位更新次数
+         */
+        public long getUpdates() {
+            return updates;
+        }
+
+        /**
+         * @return 发包类工作的次数
+         */
+        public long getPacketTasks() {
+            return packetTasks;
+        }
+
+        /**
+         * @return 会话开始以来平均每秒消耗的纳秒数
+         */
+        public double getNanosPerSecond() {
+            return nanosPerSecond;
+        }
+    }
+
     /**
      * 获取指定玩家当前正在进行的旁观会话时长（毫秒）。
      *
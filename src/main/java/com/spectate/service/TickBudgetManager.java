@@ -0,0 +1,187 @@
+package com.spectate.service;
+
+import com.spectate.config.ConfigManager;
+import com.spectate.config.SpectateConfig;
+import com.spectate.metrics.SpectateMetrics;
+
+import java.util.function.Supplier;
+
+/**
+ * 服务器卡顿时的观察工作预算。
+ * <p>
+ * 在服务器 tick 开始和结束时测量主线程耗时（MSPT，指数滑动平均）。MSPT 不超过阈值时不做任何限制；
+ * 超过阈值后，观察调度线程上每个服务器 tick 内的观察工作（传送、目标更新包、ActionBar）
+ * 合计只能使用配置的微秒预算：
+ * <ul>
+ *   <li>低优先级工作（ActionBar、观察点会话）只能使用预算的一部分，最先被舍弃；</li>
+ *   <li>上一个 tick 预算不够时，高优先级工作按旁观者轮转，每 {@code stride} 个 tick 轮到一次，
+ *       保证所有会话都能轮流更新，而不是固定饿死排在后面的会话。</li>
+ * </ul>
+ * {@link #onTickStart()} 和 {@link #onTickEnd()} 在服务器主线程调用，
+ * 其余方法只在观察调度线程（单线程）调用。
+ */
+public final class TickBudgetManager {
+
+    private static final TickBudgetManager INSTANCE =
+            new TickBudgetManager(() -> ConfigManager.getInstance().getConfig().settings);
+
+    public static TickBudgetManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 观察调度线程上的工作类型。
+     */
+    enum Work {
+        PLAYER_TELEPORT(false),
+        TARGET_PACKET(false),
+        POINT_SESSION(true),
+        ACTION_BAR(true);
+
+        private final boolean lowPriority;
+
+        Work(boolean lowPriority) {
+            this.lowPriority = lowPriority;
+        }
+    }
+
+    // 低优先级工作最多使用的预算比例
+    private static final double LOW_PRIORITY_SHARE = 0.25;
+    // 轮转步长上限：最坏情况下每个会话 20 个 tick（卡顿时约数秒）更新一次
+    private static final int MAX_STRIDE = 20;
+    private static final double MSPT_SMOOTHING = 0.1;
+
+    private final Supplier<SpectateConfig.Settings> settings;
+
+    // 服务器主线程写入
+    private volatile long serverTick;
+    private volatile double averageMspt;
+    private long tickStartNanos;
+
+    // 以下只在观察调度线程访问
+    private long window = -1;
+    private long spentNanos;
+    private int requested;
+    private int served;
+    private boolean exhausted;
+    private int stride = 1;
+
+    /**
+     * @param settings 每次判断时读取的配置；服务器上是当前配置，无头负载模拟传入固定配置
+     */
+    TickBudgetManager(Supplier<SpectateConfig.Settings> settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * 服务器 tick 开始时调用。
+     */
+    public void onTickStart() {
+        tickStartNanos = System.nanoTime();
+    }
+
+    /**
+     * 服务器 tick 结束时调用。
+     */
+    public void onTickEnd() {
+        if (tickStartNanos != 0L) {
+            recordTick((System.nanoTime() - tickStartNanos) / 1_000_000.0);
+        } else {
+            serverTick++;
+        }
+    }
+
+    /**
+     * 记录一个已结束的服务器 tick 及其耗时。
+     *
+     * @param mspt 这个 tick 的主线程耗时，单位：毫秒
+     */
+    void recordTick(double mspt) {
+        averageMspt = averageMspt == 0.0 ? mspt : averageMspt + (mspt - averageMspt) * MSPT_SMOOTHING;
+        serverTick++;
+    }
+
+    /**
+     * @return 主线程 MSPT 的滑动平均值
+     */
+    public double getAverageMspt() {
+        return averageMspt;
+    }
+
+    /**
+     * @return 当前是否处于降级（限制预算）状态
+     */
+    public boolean isDegraded() {
+        SpectateConfig.Settings settings = this.settings.get();
+        return settings.tick_budget_enabled && averageMspt > settings.tick_budget_mspt_threshold;
+    }
+
+    /**
+     * 申请执行一次观察工作。返回 true 时，调用方执行完毕后应通过 {@link #charge(long)} 报告耗时。
+     *
+     * @param work 工作类型
+     * @param viewerSlot 旁观者的轮转序号（如 UUID 的哈希值）
+     * @return false 表示本 tick 应跳过这次工作
+     */
+    boolean tryAcquire(Work work, int viewerSlot) {
+        if (!isDegraded()) {
+            stride = 1;
+            return true;
+        }
+        rollWindow();
+        long budgetNanos = Math.max(0L, settings.get().tick_budget_us * 1000L);
+
+        if (work.lowPriority) {
+            if (spentNanos >= budgetNanos * LOW_PRIORITY_SHARE) {
+                shed();
+                return false;
+            }
+            return true;
+        }
+
+        requested++;
+        if (stride > 1 && Math.floorMod(viewerSlot + window, (long) stride) != 0) {
+            shed();
+            return false;
+        }
+        if (spentNanos >= budgetNanos) {
+            exhausted = true;
+            shed();
+            return false;
+        }
+        served++;
+        return true;
+    }
+
+    /**
+     * 报告一次已执行工作的耗时。
+     */
+    void charge(long nanos) {
+        if (window >= 0) {
+            spentNanos += nanos;
+        }
+    }
+
+    private void shed() {
+        SpectateMetrics.increment(SpectateMetrics.Counter.BUDGET_SHED);
+    }
+
+    private void rollWindow() {
+        long tick = serverTick;
+        if (tick == window) {
+            return;
+        }
+        // 根据上一个 tick 的情况调整轮转步长：预算用尽时按总需求与实际完成量的比例放大，否则逐步收回
+        if (exhausted) {
+            int needed = served > 0 ? (int) Math.ceil((double) requested / served) : stride * 2;
+            stride = Math.max(1, Math.min(MAX_STRIDE, needed));
+        } else if (stride > 1) {
+            stride--;
+        }
+        window = tick;
+        spentNanos = 0L;
+        requested = 0;
+        served = 0;
+        exhausted = false;
+    }
+}